@@ -0,0 +1,48 @@
+package com.mauriciosc.configuration;
+
+import java.util.Objects;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import com.mauriciosc.core.resilience.TokenCallDeadline;
+
+/**
+ * Request factory bounding the timeouts of each request by the time left until
+ * the {@link TokenCallDeadline} of the calling thread, so the last attempt of a
+ * retried call only gets the remaining budget.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-23
+ *
+ */
+class DeadlineAwareRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param httpClient - client executing the requests.
+	 */
+	DeadlineAwareRequestFactory(HttpClient httpClient) {
+		super(httpClient);
+	}
+
+	@Override
+	protected RequestConfig createRequestConfig(Object client) {
+		RequestConfig requestConfig = super.createRequestConfig(client);
+		long remaining = TokenCallDeadline.remaining(System.currentTimeMillis());
+
+		if (remaining == TokenCallDeadline.NONE) {
+			return requestConfig;
+		}
+
+		RequestConfig baseConfig = Objects.nonNull(requestConfig) ? requestConfig : RequestConfig.DEFAULT;
+
+		return RequestConfig.copy(baseConfig)
+				.setConnectTimeout(TokenCallDeadline.bound(baseConfig.getConnectTimeout(), remaining))
+				.setSocketTimeout(TokenCallDeadline.bound(baseConfig.getSocketTimeout(), remaining))
+				.setConnectionRequestTimeout(TokenCallDeadline.bound(baseConfig.getConnectionRequestTimeout(), remaining))
+				.build();
+	}
+}
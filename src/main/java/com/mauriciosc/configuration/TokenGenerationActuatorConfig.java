@@ -0,0 +1,47 @@
+package com.mauriciosc.configuration;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.mauriciosc.metrics.TokenCacheEndpoint;
+import com.mauriciosc.metrics.TokenWarmUpHealthIndicator;
+
+/**
+ * Defines the actuator beans of the token generation. Only loaded when the
+ * actuator, an optional dependency, is on the classpath.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-24
+ *
+ */
+@Configuration
+@ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+public class TokenGenerationActuatorConfig {
+
+	/**
+	 * Defines the endpoint summarizing the token cache, when it is enabled and
+	 * exposed.
+	 * 
+	 * @return {@code TokenCacheEndpoint} - bean instance.
+	 */
+	@Bean
+	@ConditionalOnAvailableEndpoint
+	public TokenCacheEndpoint tokenCacheEndpoint() {
+		return new TokenCacheEndpoint();
+	}
+
+	/**
+	 * Defines the health indicator of the token warm-up, unless disabled through
+	 * {@code management.health.tokenwarmup.enabled}.
+	 * 
+	 * @return {@code TokenWarmUpHealthIndicator} - bean instance.
+	 */
+	@Bean
+	@ConditionalOnEnabledHealthIndicator("tokenwarmup")
+	public TokenWarmUpHealthIndicator tokenWarmUpHealthIndicator() {
+		return new TokenWarmUpHealthIndicator();
+	}
+}
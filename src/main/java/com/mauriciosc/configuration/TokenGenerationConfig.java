@@ -1,9 +1,23 @@
 package com.mauriciosc.configuration;
 
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -22,12 +36,42 @@ import com.mauriciosc.interceptor.TokenGeneratorInterceptor;
 @Configuration
 public class TokenGenerationConfig implements WebMvcConfigurer {
 	
+	/**
+	 * Name of the {@link HttpClient} bean an application may declare to be used
+	 * on the token generation calls instead of the pooled client built here.
+	 */
+	public static final String HTTP_CLIENT_BEAN = "tokenGenerationHttpClient";
+	
+	@Autowired
+	private ObjectProvider<TokenGeneratorInterceptor> tokenGeneratorInterceptor;
+	
 	@Autowired
-	private TokenGeneratorInterceptor tokenGeneratorInterceptor;
+	@Qualifier(HTTP_CLIENT_BEAN)
+	private ObjectProvider<HttpClient> applicationHttpClient;
+	
+	@Value("${token.generation.http.max-connections:50}")
+	private int maxConnections;
+	
+	@Value("${token.generation.http.max-connections-per-route:20}")
+	private int maxConnectionsPerRoute;
+	
+	@Value("${token.generation.http.idle-eviction:30}")
+	private long idleEvictionSeconds;
+	
+	@Value("${token.generation.http.connect-timeout:2000}")
+	private int connectTimeout;
+	
+	@Value("${token.generation.http.read-timeout:5000}")
+	private int readTimeout;
+	
+	@Value("${token.generation.http.pool-acquire-timeout:1000}")
+	private int poolAcquireTimeout;
+	
+	private CloseableHttpClient pooledHttpClient;
 	
 	@Override
 	public void addInterceptors(InterceptorRegistry registry) {
-		registry.addInterceptor(tokenGeneratorInterceptor);
+		registry.addInterceptor(tokenGeneratorInterceptor.getObject());
 	}
 	
 	/**
@@ -42,12 +86,54 @@ public class TokenGenerationConfig implements WebMvcConfigurer {
 	}
 	
 	/**
-	 * Defines an instance bean for the {@link RestTemplate} class.
+	 * Defines an instance bean for the {@link RestTemplate} class, backed by the
+	 * {@value #HTTP_CLIENT_BEAN} bean when the application declares one or by a
+	 * pooled keep-alive client otherwise. The timeouts of each request are bounded
+	 * by the deadline of the token generation call.
 	 * 
 	 * @return {@code RestTemplate} - bean instance.
 	 */
 	@Bean
 	public RestTemplate getRestTemplate() {
-		return new RestTemplate();
+		HttpClient httpClient = applicationHttpClient.getIfAvailable(this::createPooledHttpClient);
+		
+		HttpComponentsClientHttpRequestFactory requestFactory = new DeadlineAwareRequestFactory(httpClient);
+		requestFactory.setConnectTimeout(connectTimeout);
+		requestFactory.setReadTimeout(readTimeout);
+		requestFactory.setConnectionRequestTimeout(poolAcquireTimeout);
+		
+		return new RestTemplate(requestFactory);
+	}
+	
+	/**
+	 * Closes the pooled client, releasing its connections.
+	 * 
+	 * @throws IOException thrown when the client cannot be closed.
+	 */
+	@PreDestroy
+	public void closeHttpClient() throws IOException {
+		if (Objects.nonNull(pooledHttpClient)) {
+			pooledHttpClient.close();
+		}
+	}
+	
+	/**
+	 * Creates the pooled keep-alive client used on the token generation calls.
+	 * 
+	 * @return {@code CloseableHttpClient} - client instance.
+	 */
+	private CloseableHttpClient createPooledHttpClient() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+		
+		pooledHttpClient = HttpClientBuilder.create()
+				.setConnectionManager(connectionManager)
+				.evictExpiredConnections()
+				.evictIdleConnections(idleEvictionSeconds, TimeUnit.SECONDS)
+				.disableCookieManagement()
+				.build();
+		
+		return pooledHttpClient;
 	}
-}
\ No newline at end of file
+}
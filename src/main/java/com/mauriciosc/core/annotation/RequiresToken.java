@@ -0,0 +1,31 @@
+package com.mauriciosc.core.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the controllers (or controller methods) whose requests need a token.
+ * When {@code token.generation.annotation.enabled} is set, tokens are only
+ * generated for requests handled by annotated handlers. An annotation on the
+ * method takes precedence over the one on the class.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-20
+ *
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface RequiresToken {
+
+	/**
+	 * Name of the {@code TokenGenerationSchema} bean the token is generated with.
+	 * When empty, the schema of the default token provider is used.
+	 * 
+	 * @return {@code String} - schema bean name.
+	 */
+	String value() default "";
+}
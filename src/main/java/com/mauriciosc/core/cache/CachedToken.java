@@ -0,0 +1,82 @@
+package com.mauriciosc.core.cache;
+
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Immutable snapshot of a generated token and the instants that delimit its
+ * lifetime.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-03
+ *
+ */
+public final class CachedToken {
+
+	private final ResponseSchema response;
+	private final long issuedAt;
+	private final long expiresAt;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param response  - response schema returned by the token generation call.
+	 * @param issuedAt  - instant (epoch millis) when the token was obtained.
+	 * @param expiresAt - instant (epoch millis) after which the token must not be
+	 *                  served anymore.
+	 */
+	public CachedToken(ResponseSchema response, long issuedAt, long expiresAt) {
+		this.response = response;
+		this.issuedAt = issuedAt;
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * Returns the cached response.
+	 * 
+	 * @return {@code ResponseSchema} - response field.
+	 */
+	public ResponseSchema getResponse() {
+		return response;
+	}
+
+	/**
+	 * Returns the instant (epoch millis) when the token was obtained.
+	 * 
+	 * @return {@code long} - issue instant.
+	 */
+	public long getIssuedAt() {
+		return issuedAt;
+	}
+
+	/**
+	 * Returns the instant (epoch millis) when the token expires.
+	 * 
+	 * @return {@code long} - expiry instant.
+	 */
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * Indicates if the token is expired at the given instant.
+	 * 
+	 * @param now - instant (epoch millis) to be checked.
+	 * 
+	 * @return {@code boolean} - {@code true} when the token must not be served.
+	 */
+	public boolean isExpired(long now) {
+		return now >= expiresAt;
+	}
+
+	/**
+	 * Returns for how long the token has been expired at the given instant.
+	 * 
+	 * @param now - instant (epoch millis) to be checked.
+	 * 
+	 * @return {@code long} - millis since the expiry or {@code 0} when the token
+	 *         is not expired.
+	 */
+	public long getStaleness(long now) {
+		return Math.max(0L, now - expiresAt);
+	}
+}
@@ -0,0 +1,131 @@
+package com.mauriciosc.core.cache;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+/**
+ * Parser capturing the lifetime fields of the token generation response
+ * ({@code expires_in} and {@code expires_at} by default) while the body is
+ * bound to the response schema, so the expiry is resolved in the same pass
+ * without keeping the body or a tree of it.
+ * <p>
+ * Only the scalar fields of the top-level object are captured, whether the
+ * response schema maps them or not.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-09-03
+ *
+ */
+public class ExpiryFieldsParser extends JsonParserDelegate {
+
+	private final String expiresInField;
+	private final String expiresAtField;
+
+	private Long expiresIn;
+	private Long expiresAt;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 *
+	 * @param parser         - parser of the response body.
+	 * @param expiresInField - name of the field holding the lifetime (seconds).
+	 * @param expiresAtField - name of the field holding the expiry (epoch
+	 *                       seconds).
+	 */
+	ExpiryFieldsParser(JsonParser parser, String expiresInField, String expiresAtField) {
+		super(parser);
+		this.expiresInField = expiresInField;
+		this.expiresAtField = expiresAtField;
+	}
+
+	@Override
+	public JsonToken nextToken() throws IOException {
+		return this.capture(super.nextToken());
+	}
+
+	@Override
+	public JsonToken nextValue() throws IOException {
+		return this.capture(super.nextValue());
+	}
+
+	/**
+	 * Returns the lifetime read from the body.
+	 *
+	 * @return {@code Long} - lifetime (seconds) or {@code null} when absent or not
+	 *         numeric.
+	 */
+	public Long getExpiresIn() {
+		return expiresIn;
+	}
+
+	/**
+	 * Returns the expiry read from the body.
+	 *
+	 * @return {@code Long} - expiry (epoch seconds) or {@code null} when absent or
+	 *         not numeric.
+	 */
+	public Long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * Captures the value of the given token when it is one of the lifetime fields
+	 * of the top-level object.
+	 *
+	 * @param token - token the parser moved to.
+	 *
+	 * @return {@code JsonToken} - the given token.
+	 */
+	private JsonToken capture(JsonToken token) {
+		if (Objects.isNull(token) || !token.isScalarValue()) {
+			return token;
+		}
+
+		JsonStreamContext context = delegate.getParsingContext();
+
+		if (!context.inObject() || !context.getParent().inRoot()) {
+			return token;
+		}
+
+		String field = context.getCurrentName();
+
+		if (StringUtils.equals(field, expiresInField)) {
+			expiresIn = this.readLong(token);
+		}
+		else if (StringUtils.equals(field, expiresAtField)) {
+			expiresAt = this.readLong(token);
+		}
+
+		return token;
+	}
+
+	/**
+	 * Reads the current value as a number (number or numeric text).
+	 *
+	 * @param token - current token.
+	 *
+	 * @return {@code Long} - value or {@code null} when it is not numeric.
+	 */
+	private Long readLong(JsonToken token) {
+		try {
+			if (token.isNumeric()) {
+				return delegate.getValueAsLong();
+			}
+			if (token == JsonToken.VALUE_STRING && StringUtils.isNumeric(delegate.getText())) {
+				return Long.valueOf(delegate.getText());
+			}
+		}
+		catch (IOException | NumberFormatException e) {
+			// out of range, handled as absent
+		}
+
+		return null;
+	}
+}
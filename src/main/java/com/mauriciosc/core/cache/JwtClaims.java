@@ -0,0 +1,56 @@
+package com.mauriciosc.core.cache;
+
+/**
+ * Time claims of a JWT ({@code exp}, {@code nbf} and {@code iat}), in epoch
+ * seconds of the clock of the identity provider.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-29
+ *
+ */
+public final class JwtClaims {
+
+	private final Long expiration;
+	private final Long notBefore;
+	private final Long issuedAt;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 *
+	 * @param expiration - {@code exp} claim or {@code null} when absent.
+	 * @param notBefore  - {@code nbf} claim or {@code null} when absent.
+	 * @param issuedAt   - {@code iat} claim or {@code null} when absent.
+	 */
+	public JwtClaims(Long expiration, Long notBefore, Long issuedAt) {
+		this.expiration = expiration;
+		this.notBefore = notBefore;
+		this.issuedAt = issuedAt;
+	}
+
+	/**
+	 * Returns the instant (epoch seconds) when the token expires.
+	 *
+	 * @return {@code Long} - {@code exp} claim or {@code null} when absent.
+	 */
+	public Long getExpiration() {
+		return expiration;
+	}
+
+	/**
+	 * Returns the instant (epoch seconds) before which the token is not accepted.
+	 *
+	 * @return {@code Long} - {@code nbf} claim or {@code null} when absent.
+	 */
+	public Long getNotBefore() {
+		return notBefore;
+	}
+
+	/**
+	 * Returns the instant (epoch seconds) when the token was issued.
+	 *
+	 * @return {@code Long} - {@code iat} claim or {@code null} when absent.
+	 */
+	public Long getIssuedAt() {
+		return issuedAt;
+	}
+}
@@ -0,0 +1,195 @@
+package com.mauriciosc.core.cache;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Reads the time claims of the JWT held by a {@link ResponseSchema}, in the
+ * property mapped to the response field {@code token.generation.cache.jwt.field}.
+ * <p>
+ * Only the payload segment is decoded and it is scanned by a streaming parser,
+ * stopping at the claims, so no tree is built. The signature is not verified:
+ * the claims only drive the lifetime of the cached token. Tokens that are not
+ * JWTs have no claims.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-29
+ *
+ */
+@Component
+public class JwtClaimsExtractor {
+
+	private static final String EXPIRATION = "exp";
+	private static final String NOT_BEFORE = "nbf";
+	private static final String ISSUED_AT = "iat";
+
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	@Autowired
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	@Value("${token.generation.cache.jwt.field:access_token}")
+	private String tokenField;
+
+	private final ClassValue<Optional<MethodHandle>> accessors = new ClassValue<Optional<MethodHandle>>() {
+		@Override
+		protected Optional<MethodHandle> computeValue(Class<?> type) {
+			return findAccessor(type);
+		}
+	};
+
+	/**
+	 * Reads the time claims of the token of the given response.
+	 *
+	 * @param response - response of the token generation call.
+	 *
+	 * @return {@code JwtClaims} - claims or {@code null} when the response holds
+	 *         no JWT.
+	 */
+	public JwtClaims extract(ResponseSchema response) {
+		if (Objects.isNull(response)) {
+			return null;
+		}
+
+		Optional<MethodHandle> accessor = accessors.get(response.getClass());
+
+		if (!accessor.isPresent()) {
+			return null;
+		}
+
+		Object token;
+
+		try {
+			token = accessor.get().invokeExact((Object) response);
+		}
+		catch (Throwable e) {
+			return null;
+		}
+
+		return token instanceof String ? this.parse((String) token) : null;
+	}
+
+	/**
+	 * Reads the time claims of the given JWT.
+	 *
+	 * @param token - compact serialization of the JWT.
+	 *
+	 * @return {@code JwtClaims} - claims or {@code null} when the token is not a
+	 *         JWT.
+	 */
+	JwtClaims parse(String token) {
+		int payloadStart = token.indexOf('.') + 1;
+		int payloadEnd = payloadStart > 0 ? token.indexOf('.', payloadStart) : -1;
+
+		if (payloadEnd <= payloadStart) {
+			return null;
+		}
+
+		byte[] payload;
+
+		try {
+			payload = Base64.getUrlDecoder().decode(token.substring(payloadStart, payloadEnd));
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+
+		Long expiration = null;
+		Long notBefore = null;
+		Long issuedAt = null;
+
+		try (JsonParser parser = tokenGenerationObjectMapper.getObjectMapper().getFactory().createParser(payload)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME
+					&& (Objects.isNull(expiration) || Objects.isNull(notBefore) || Objects.isNull(issuedAt))) {
+				String claim = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+
+				if (!value.isNumeric()) {
+					parser.skipChildren();
+				}
+				else if (EXPIRATION.equals(claim)) {
+					expiration = parser.getValueAsLong();
+				}
+				else if (NOT_BEFORE.equals(claim)) {
+					notBefore = parser.getValueAsLong();
+				}
+				else if (ISSUED_AT.equals(claim)) {
+					issuedAt = parser.getValueAsLong();
+				}
+			}
+		}
+		catch (IOException e) {
+			return null;
+		}
+
+		return new JwtClaims(expiration, notBefore, issuedAt);
+	}
+
+	/**
+	 * Finds the accessor of the property mapped to the token field, as Jackson
+	 * maps the given class.
+	 *
+	 * @param type - class implementing {@link ResponseSchema}.
+	 *
+	 * @return {@code Optional} - accessor or empty when the class does not map the
+	 *         token field.
+	 */
+	private Optional<MethodHandle> findAccessor(Class<?> type) {
+		ObjectMapper objectMapper = tokenGenerationObjectMapper.getObjectMapper();
+		BeanDescription description = objectMapper.getDeserializationConfig().introspect(objectMapper.constructType(type));
+
+		for (BeanPropertyDefinition property : description.findProperties()) {
+			if (!property.getName().equals(tokenField)) {
+				continue;
+			}
+
+			AnnotatedMember accessor = Objects.nonNull(property.getGetter()) ? property.getGetter() : property.getField();
+
+			if (Objects.isNull(accessor)) {
+				return Optional.empty();
+			}
+
+			try {
+				Member member = accessor.getMember();
+				((AccessibleObject) member).setAccessible(true);
+
+				MethodHandle handle = member instanceof Method
+						? MethodHandles.lookup().unreflect((Method) member)
+						: MethodHandles.lookup().unreflectGetter((Field) member);
+
+				return Optional.of(handle.asType(ACCESSOR_TYPE));
+			}
+			catch (IllegalAccessException | RuntimeException e) {
+				return Optional.empty();
+			}
+		}
+
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,230 @@
+package com.mauriciosc.core.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Keeps the tokens generated for each {@link TokenGenerationSchema} until they
+ * expire. Concurrent loads of the same schema are coalesced into a single
+ * in-flight load whose result (or failure) is shared by every caller.
+ * <p>
+ * Listeners can be registered to be notified of the schemas whose token
+ * changed (e.g. to persist the cached tokens).
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-03
+ *
+ */
+@Component
+public class TokenCache {
+
+	private final Map<TokenGenerationSchema, CachedToken> tokens = new ConcurrentHashMap<>();
+	private final Map<TokenGenerationSchema, CompletableFuture<CachedToken>> inFlight = new ConcurrentHashMap<>();
+	private final List<Consumer<TokenGenerationSchema>> listeners = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Returns the token cached for the given schema, as long as it is not expired.
+	 * 
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * @param now                   - current instant (epoch millis).
+	 * 
+	 * @return {@code CachedToken} - valid cached token or {@code null} when there
+	 *         is none.
+	 */
+	public CachedToken get(TokenGenerationSchema tokenGenerationSchema, long now) {
+		CachedToken cachedToken = tokens.get(tokenGenerationSchema);
+
+		if (Objects.isNull(cachedToken) || cachedToken.isExpired(now)) {
+			return null;
+		}
+
+		return cachedToken;
+	}
+
+	/**
+	 * Returns the token cached for the given schema even if it is expired, as long
+	 * as it expired less than the given grace period ago. Used to keep serving a
+	 * token while a new one cannot be generated.
+	 * 
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * @param now                   - current instant (epoch millis).
+	 * @param gracePeriod           - millis an expired token is still served.
+	 * 
+	 * @return {@code CachedToken} - cached token or {@code null} when there is
+	 *         none or it expired before the grace period.
+	 */
+	public CachedToken getStale(TokenGenerationSchema tokenGenerationSchema, long now, long gracePeriod) {
+		CachedToken cachedToken = tokens.get(tokenGenerationSchema);
+
+		if (Objects.isNull(cachedToken) || cachedToken.getStaleness(now) >= gracePeriod) {
+			return null;
+		}
+
+		return cachedToken;
+	}
+
+	/**
+	 * Returns the last token cached for the given schema, expired or not.
+	 * 
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * 
+	 * @return {@code CachedToken} - cached token or {@code null} when there is
+	 *         none.
+	 */
+	public CachedToken peek(TokenGenerationSchema tokenGenerationSchema) {
+		return tokens.get(tokenGenerationSchema);
+	}
+
+	/**
+	 * Returns the token cached for the given schema or loads it when there is none.
+	 * Only the first caller triggers the loader; callers arriving while the load
+	 * is in flight receive the same future.
+	 * 
+	 * @param tokenGenerationSchema - schema the token is generated with.
+	 * @param now                   - current instant (epoch millis).
+	 * @param loader                - function loading a new token for the schema.
+	 * 
+	 * @return {@code CompletableFuture} - future completed with the token or with
+	 *         the failure of the load.
+	 */
+	public CompletableFuture<CachedToken> getOrLoad(TokenGenerationSchema tokenGenerationSchema, long now,
+			Function<TokenGenerationSchema, CompletableFuture<CachedToken>> loader) {
+		
+		CachedToken cachedToken = this.get(tokenGenerationSchema, now);
+		
+		if (Objects.nonNull(cachedToken)) {
+			return CompletableFuture.completedFuture(cachedToken);
+		}
+		
+		return this.load(tokenGenerationSchema, now, true, loader);
+	}
+
+	/**
+	 * Loads a new token for the given schema even if a valid one is cached (e.g.
+	 * ahead-of-expiry refresh). A load already in flight for the schema is joined
+	 * instead of starting another one.
+	 * 
+	 * @param tokenGenerationSchema - schema the token is generated with.
+	 * @param loader                - function loading a new token for the schema.
+	 * 
+	 * @return {@code CompletableFuture} - future completed with the token or with
+	 *         the failure of the load.
+	 */
+	public CompletableFuture<CachedToken> load(TokenGenerationSchema tokenGenerationSchema,
+			Function<TokenGenerationSchema, CompletableFuture<CachedToken>> loader) {
+		
+		return this.load(tokenGenerationSchema, System.currentTimeMillis(), false, loader);
+	}
+
+	/**
+	 * Registers and starts a load for the given schema unless one is already in
+	 * flight.
+	 * 
+	 * @param tokenGenerationSchema - schema the token is generated with.
+	 * @param now                   - current instant (epoch millis).
+	 * @param reuseCached           - indicates if a token cached in the meantime
+	 *                              satisfies the load.
+	 * @param loader                - function loading a new token for the schema.
+	 * 
+	 * @return {@code CompletableFuture} - future completed with the token or with
+	 *         the failure of the load.
+	 */
+	private CompletableFuture<CachedToken> load(TokenGenerationSchema tokenGenerationSchema, long now, boolean reuseCached,
+			Function<TokenGenerationSchema, CompletableFuture<CachedToken>> loader) {
+		
+		CompletableFuture<CachedToken> promise = new CompletableFuture<>();
+		CompletableFuture<CachedToken> running = inFlight.putIfAbsent(tokenGenerationSchema, promise);
+		
+		if (Objects.nonNull(running)) {
+			return running;
+		}
+		
+		// a load may have finished between the cache lookup and the registration
+		CachedToken cachedToken = reuseCached ? this.get(tokenGenerationSchema, now) : null;
+		
+		if (Objects.nonNull(cachedToken)) {
+			inFlight.remove(tokenGenerationSchema, promise);
+			promise.complete(cachedToken);
+			return promise;
+		}
+		
+		CompletableFuture<CachedToken> load;
+		
+		try {
+			load = loader.apply(tokenGenerationSchema);
+		}
+		catch (RuntimeException e) {
+			load = new CompletableFuture<>();
+			load.completeExceptionally(e);
+		}
+		
+		load.whenComplete((token, error) -> {
+			if (Objects.isNull(error)) {
+				tokens.put(tokenGenerationSchema, token);
+				this.notifyListeners(tokenGenerationSchema);
+			}
+			
+			inFlight.remove(tokenGenerationSchema, promise);
+			
+			if (Objects.isNull(error)) {
+				promise.complete(token);
+			}
+			else {
+				promise.completeExceptionally(error);
+			}
+		});
+		
+		return promise;
+	}
+
+	/**
+	 * Caches a token for the given schema, replacing the previous one.
+	 * 
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * @param cachedToken           - token to be cached.
+	 */
+	public void put(TokenGenerationSchema tokenGenerationSchema, CachedToken cachedToken) {
+		tokens.put(tokenGenerationSchema, cachedToken);
+		this.notifyListeners(tokenGenerationSchema);
+	}
+
+	/**
+	 * Removes the token cached for the given schema.
+	 * 
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 */
+	public void invalidate(TokenGenerationSchema tokenGenerationSchema) {
+		if (Objects.nonNull(tokens.remove(tokenGenerationSchema))) {
+			this.notifyListeners(tokenGenerationSchema);
+		}
+	}
+
+	/**
+	 * Registers a listener notified with the schema whenever its cached token is
+	 * replaced or removed.
+	 * 
+	 * @param listener - listener to be notified.
+	 */
+	public void addListener(Consumer<TokenGenerationSchema> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Notifies the listeners that the token of the given schema changed.
+	 * 
+	 * @param tokenGenerationSchema - schema whose token changed.
+	 */
+	private void notifyListeners(TokenGenerationSchema tokenGenerationSchema) {
+		listeners.forEach(listener -> listener.accept(tokenGenerationSchema));
+	}
+}
@@ -0,0 +1,198 @@
+package com.mauriciosc.core.cache;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Resolves the expiry instant of a token from the body returned by the token
+ * generation call.
+ * <p>
+ * The lifetime is read from the field configured by
+ * {@code token.generation.cache.expires-in-field} (seconds from now) or, when
+ * absent, from {@code token.generation.cache.expires-at-field} (epoch seconds).
+ * When none of them is present the {@code token.generation.cache.fallback-ttl}
+ * is applied. The {@code token.generation.cache.safety-margin} is subtracted
+ * from the resolved expiry so that tokens are not served right before they
+ * expire upstream.
+ * <p>
+ * With {@code token.generation.cache.jwt.enabled} the {@code exp} claim of a JWT
+ * token takes precedence over the fields. It is given by the clock of the
+ * identity provider, so it is moved by the offset between that clock and the
+ * local one, estimated from the {@code iat} (and {@code nbf}) claims and bounded
+ * by {@code token.generation.cache.jwt.max-clock-skew}. Without {@code iat} the
+ * whole bound is assumed.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-03
+ *
+ */
+@Component
+public class TokenExpiryResolver {
+
+	@Value("${token.generation.cache.expires-in-field:expires_in}")
+	private String expiresInField;
+
+	@Value("${token.generation.cache.expires-at-field:expires_at}")
+	private String expiresAtField;
+
+	@Value("${token.generation.cache.safety-margin:30}")
+	private long safetyMarginSeconds;
+
+	@Value("${token.generation.cache.fallback-ttl:60}")
+	private long fallbackTtlSeconds;
+
+	@Value("${token.generation.cache.jwt.enabled:false}")
+	private boolean jwtEnabled;
+
+	@Value("${token.generation.cache.jwt.max-clock-skew:60}")
+	private long maxClockSkewSeconds;
+
+	@Autowired
+	private JwtClaimsExtractor jwtClaimsExtractor;
+
+	/**
+	 * Resolves the instant (epoch millis) when a token issued at the given instant
+	 * must stop being served.
+	 * 
+	 * @param responseBody - body returned by the token generation call.
+	 * @param issuedAt     - instant (epoch millis) when the token was obtained.
+	 * 
+	 * @return {@code long} - expiry instant, never before {@code issuedAt}.
+	 */
+	public long resolveExpiresAt(JsonNode responseBody, long issuedAt) {
+		return this.resolveExpiresAt(responseBody, null, issuedAt);
+	}
+
+	/**
+	 * Resolves the instant (epoch millis) when a token issued at the given instant
+	 * must stop being served, preferring the claims of the JWT of the response.
+	 * 
+	 * @param responseBody - body returned by the token generation call.
+	 * @param response     - response mapped from the body, holding the token.
+	 * @param issuedAt     - instant (epoch millis) when the token was obtained.
+	 * 
+	 * @return {@code long} - expiry instant, never before {@code issuedAt}.
+	 */
+	public long resolveExpiresAt(JsonNode responseBody, ResponseSchema response, long issuedAt) {
+		return this.resolveExpiresAt(this.readLong(responseBody, expiresInField), this.readLong(responseBody, expiresAtField),
+				response, issuedAt);
+	}
+
+	/**
+	 * Creates a parser capturing the lifetime fields of the body while it is
+	 * bound to the response schema.
+	 * 
+	 * @param parser - parser of the body returned by the token generation call.
+	 * 
+	 * @return {@code ExpiryFieldsParser} - capturing parser.
+	 */
+	public ExpiryFieldsParser createParser(JsonParser parser) {
+		return new ExpiryFieldsParser(parser, expiresInField, expiresAtField);
+	}
+
+	/**
+	 * Resolves the instant (epoch millis) when a token issued at the given instant
+	 * must stop being served, from the lifetime fields captured while its body was
+	 * parsed.
+	 * 
+	 * @param expiryFields - parser the body was bound through.
+	 * @param response     - response mapped from the body, holding the token.
+	 * @param issuedAt     - instant (epoch millis) when the token was obtained.
+	 * 
+	 * @return {@code long} - expiry instant, never before {@code issuedAt}.
+	 */
+	public long resolveExpiresAt(ExpiryFieldsParser expiryFields, ResponseSchema response, long issuedAt) {
+		return this.resolveExpiresAt(expiryFields.getExpiresIn(), expiryFields.getExpiresAt(), response, issuedAt);
+	}
+
+	/**
+	 * Resolves the expiry instant from the given lifetime fields.
+	 * 
+	 * @param expiresIn        - lifetime (seconds) or {@code null} when absent.
+	 * @param expiresAtSeconds - expiry (epoch seconds) or {@code null} when absent.
+	 * @param response         - response holding the token.
+	 * @param issuedAt         - instant (epoch millis) when the token was obtained.
+	 * 
+	 * @return {@code long} - expiry instant, never before {@code issuedAt}.
+	 */
+	private long resolveExpiresAt(Long expiresIn, Long expiresAtSeconds, ResponseSchema response, long issuedAt) {
+		long expiresAt = issuedAt + TimeUnit.SECONDS.toMillis(fallbackTtlSeconds);
+
+		JwtClaims claims = jwtEnabled ? jwtClaimsExtractor.extract(response) : null;
+
+		if (Objects.nonNull(claims) && Objects.nonNull(claims.getExpiration())) {
+			expiresAt = TimeUnit.SECONDS.toMillis(claims.getExpiration()) - this.clockOffset(claims, issuedAt);
+		}
+		else if (Objects.nonNull(expiresIn)) {
+			expiresAt = issuedAt + TimeUnit.SECONDS.toMillis(expiresIn);
+		}
+		else if (Objects.nonNull(expiresAtSeconds)) {
+			expiresAt = TimeUnit.SECONDS.toMillis(expiresAtSeconds);
+		}
+
+		return Math.max(issuedAt, expiresAt - TimeUnit.SECONDS.toMillis(safetyMarginSeconds));
+	}
+
+	/**
+	 * Estimates how far (millis) the clock of the identity provider is ahead of the
+	 * local one, assuming the token is issued and valid when it is obtained.
+	 * 
+	 * @param claims   - claims of the token.
+	 * @param issuedAt - instant (epoch millis) when the token was obtained.
+	 * 
+	 * @return {@code long} - offset bounded by the maximum clock skew.
+	 */
+	private long clockOffset(JwtClaims claims, long issuedAt) {
+		long maxClockSkew = TimeUnit.SECONDS.toMillis(maxClockSkewSeconds);
+
+		if (Objects.isNull(claims.getIssuedAt())) {
+			return maxClockSkew;
+		}
+
+		long offset = TimeUnit.SECONDS.toMillis(claims.getIssuedAt()) - issuedAt;
+
+		if (Objects.nonNull(claims.getNotBefore())) {
+			offset = Math.max(offset, TimeUnit.SECONDS.toMillis(claims.getNotBefore()) - issuedAt);
+		}
+
+		return Math.max(-maxClockSkew, Math.min(maxClockSkew, offset));
+	}
+
+	/**
+	 * Reads a numeric field (number or numeric text) of the given body.
+	 * 
+	 * @param responseBody - body returned by the token generation call.
+	 * @param field        - name of the field to be read.
+	 * 
+	 * @return {@code Long} - field value or {@code null} when it is absent or not
+	 *         numeric.
+	 */
+	private Long readLong(JsonNode responseBody, String field) {
+		if (Objects.isNull(responseBody) || StringUtils.isBlank(field)) {
+			return null;
+		}
+
+		JsonNode node = responseBody.get(field);
+
+		if (Objects.isNull(node)) {
+			return null;
+		}
+		if (node.isNumber()) {
+			return node.asLong();
+		}
+		if (node.isTextual() && StringUtils.isNumeric(node.asText())) {
+			return Long.valueOf(node.asText());
+		}
+
+		return null;
+	}
+}
@@ -0,0 +1,379 @@
+package com.mauriciosc.core.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchema;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Persists the cached tokens to an encrypted file so that a restarted instance
+ * serves the tokens still valid instead of generating new ones (warm start).
+ * <p>
+ * The snapshot holds the response, issue and expiry instants of each token,
+ * keyed by the bean name of its {@link TokenGenerationSchema}. It is encrypted
+ * with AES-GCM using the key of {@code token.generation.snapshot.key}, written
+ * to a temporary file moved over the previous snapshot whenever a token changes
+ * (in background) and on shutdown, and restored once every bean is created.
+ * Expired tokens are skipped and a snapshot that cannot be decrypted or read is
+ * ignored.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-27
+ *
+ */
+@Component
+public class TokenSnapshotStore implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenSnapshotStore.class);
+
+	private static final byte VERSION = 1;
+	private static final String CIPHER = "AES/GCM/NoPadding";
+	private static final String KEY_ALGORITHM = "AES";
+	private static final int IV_LENGTH = 12;
+	private static final int TAG_LENGTH = 128;
+	private static final long CLOSE_TIMEOUT = 5000L;
+
+	private static final String ISSUED_AT = "issuedAt";
+	private static final String EXPIRES_AT = "expiresAt";
+	private static final String RESPONSE = "response";
+
+	private static final String CHAVE_INVALIDA = "Snapshot de tokens desabilitado: a propriedade 'token.generation.snapshot.key' deve conter uma chave AES de 128, 192 ou 256 bits em Base64.";
+	private static final String SNAPSHOT_IGNORADO = "Snapshot de tokens ignorado: não foi possível ler o arquivo %s.";
+	private static final String TOKEN_IGNORADO = "Token do schema %s ignorado no snapshot.";
+	private static final String FALHA_GRAVACAO = "Falha na gravação do snapshot de tokens no arquivo %s.";
+
+	@Autowired
+	private TokenCache tokenCache;
+
+	@Autowired
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	@Autowired
+	private Map<String, TokenGenerationSchema> tokenGenerationSchemas;
+
+	@Value("${token.generation.snapshot.enabled:false}")
+	private boolean enabled;
+
+	@Value("${token.generation.cache.enabled:true}")
+	private boolean cacheEnabled;
+
+	@Value("${token.generation.snapshot.path:${java.io.tmpdir}/token-generation.snapshot}")
+	private String path;
+
+	@Value("${token.generation.snapshot.key:}")
+	private String key;
+
+	private final SecureRandom random = new SecureRandom();
+	private final AtomicBoolean writePending = new AtomicBoolean();
+
+	private SecretKey secretKey;
+	private ExecutorService executorService;
+
+	/**
+	 * Creates the key of the snapshot, disabling it when the configured key is not
+	 * valid.
+	 */
+	@PostConstruct
+	public void init() {
+		if (!enabled || !cacheEnabled) {
+			return;
+		}
+
+		secretKey = this.createKey(key);
+
+		if (Objects.isNull(secretKey)) {
+			LOGGER.error(CHAVE_INVALIDA);
+		}
+	}
+
+	/**
+	 * Restores the snapshot into the cache and starts persisting the cache
+	 * changes.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (Objects.isNull(secretKey)) {
+			return;
+		}
+
+		this.restore(System.currentTimeMillis());
+
+		executorService = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "token-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		tokenCache.addListener(schema -> this.scheduleWrite());
+	}
+
+	/**
+	 * Writes the snapshot a last time, once the pending write is finished, so that
+	 * it cannot replace the last snapshot with an older state.
+	 */
+	@PreDestroy
+	public void close() {
+		if (Objects.isNull(executorService)) {
+			return;
+		}
+
+		executorService.shutdown();
+
+		try {
+			executorService.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		this.write();
+	}
+
+	/**
+	 * Restores the tokens of the snapshot still valid at the given instant into
+	 * the cache. Tokens of schemas no longer registered are skipped.
+	 *
+	 * @param now - current instant (epoch millis).
+	 *
+	 * @return {@code int} - number of restored tokens.
+	 */
+	int restore(long now) {
+		Path snapshotPath = Paths.get(path);
+
+		if (!Files.isRegularFile(snapshotPath)) {
+			return 0;
+		}
+
+		JsonNode snapshot;
+
+		try {
+			snapshot = tokenGenerationObjectMapper.getObjectMapper().readTree(this.decrypt(Files.readAllBytes(snapshotPath)));
+		}
+		catch (IOException | GeneralSecurityException | RuntimeException e) {
+			LOGGER.warn(String.format(SNAPSHOT_IGNORADO, snapshotPath), e);
+			return 0;
+		}
+
+		int restored = 0;
+
+		for (Iterator<Entry<String, JsonNode>> entries = snapshot.fields(); entries.hasNext();) {
+			Entry<String, JsonNode> entry = entries.next();
+			TokenGenerationSchema tokenGenerationSchema = tokenGenerationSchemas.get(entry.getKey());
+			long expiresAt = entry.getValue().path(EXPIRES_AT).asLong();
+
+			if (Objects.isNull(tokenGenerationSchema) || expiresAt <= now) {
+				continue;
+			}
+
+			try {
+				ResponseSchema response = tokenGenerationObjectMapper.getReader(tokenGenerationSchema.getResponseSchema())
+						.readValue(entry.getValue().path(RESPONSE));
+
+				tokenCache.put(tokenGenerationSchema, new CachedToken(response, entry.getValue().path(ISSUED_AT).asLong(), expiresAt));
+				restored++;
+			}
+			catch (IOException e) {
+				LOGGER.warn(String.format(TOKEN_IGNORADO, entry.getKey()), e);
+			}
+		}
+
+		return restored;
+	}
+
+	/**
+	 * Writes the valid cached tokens to the snapshot, replacing it atomically.
+	 *
+	 * @return {@code boolean} - {@code true} when the snapshot was written.
+	 */
+	boolean write() {
+		Path snapshotPath = Paths.get(path).toAbsolutePath();
+		long now = System.currentTimeMillis();
+		ObjectNode snapshot = tokenGenerationObjectMapper.getObjectMapper().createObjectNode();
+
+		tokenGenerationSchemas.forEach((name, schema) -> {
+			CachedToken cachedToken = tokenCache.peek(schema);
+
+			if (Objects.isNull(cachedToken) || cachedToken.isExpired(now)) {
+				return;
+			}
+
+			try {
+				ObjectNode token = snapshot.putObject(name);
+				token.put(ISSUED_AT, cachedToken.getIssuedAt());
+				token.put(EXPIRES_AT, cachedToken.getExpiresAt());
+				token.set(RESPONSE, tokenGenerationObjectMapper.getObjectMapper().valueToTree(cachedToken.getResponse()));
+			}
+			catch (IllegalArgumentException e) {
+				snapshot.remove(name);
+				LOGGER.warn(String.format(TOKEN_IGNORADO, name), e);
+			}
+		});
+
+		Path temporaryPath = null;
+
+		try {
+			Files.createDirectories(snapshotPath.getParent());
+			temporaryPath = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".tmp");
+			Files.write(temporaryPath, this.encrypt(tokenGenerationObjectMapper.getObjectMapper().writeValueAsBytes(snapshot)));
+
+			try {
+				Files.move(temporaryPath, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			return true;
+		}
+		catch (IOException | GeneralSecurityException e) {
+			LOGGER.warn(String.format(FALHA_GRAVACAO, snapshotPath), e);
+			return false;
+		}
+		finally {
+			this.deleteQuietly(temporaryPath);
+		}
+	}
+
+	/**
+	 * Schedules a write of the snapshot, unless one is already pending, so that a
+	 * burst of changes results in a single write.
+	 */
+	private void scheduleWrite() {
+		if (!writePending.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			executorService.execute(() -> {
+				writePending.set(false);
+				this.write();
+			});
+		}
+		catch (RuntimeException e) {
+			writePending.set(false);
+		}
+	}
+
+	/**
+	 * Encrypts the given content, prefixed by the snapshot version and the random
+	 * IV.
+	 *
+	 * @param content - content to be encrypted.
+	 *
+	 * @return {@code byte[]} - encrypted snapshot.
+	 * @throws GeneralSecurityException thrown when the content cannot be encrypted.
+	 */
+	private byte[] encrypt(byte[] content) throws GeneralSecurityException {
+		byte[] iv = new byte[IV_LENGTH];
+		random.nextBytes(iv);
+
+		Cipher cipher = Cipher.getInstance(CIPHER);
+		cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH, iv));
+		cipher.updateAAD(new byte[] {VERSION});
+		byte[] encrypted = cipher.doFinal(content);
+
+		return ByteBuffer.allocate(1 + IV_LENGTH + encrypted.length).put(VERSION).put(iv).put(encrypted).array();
+	}
+
+	/**
+	 * Decrypts the given snapshot, authenticating its content.
+	 *
+	 * @param snapshot - encrypted snapshot.
+	 *
+	 * @return {@code byte[]} - decrypted content.
+	 * @throws GeneralSecurityException thrown when the snapshot is not of the
+	 *                                  current version, was not encrypted with the
+	 *                                  configured key or was tampered with.
+	 */
+	private byte[] decrypt(byte[] snapshot) throws GeneralSecurityException {
+		if (snapshot.length <= 1 + IV_LENGTH || snapshot[0] != VERSION) {
+			throw new GeneralSecurityException("Unsupported snapshot");
+		}
+
+		Cipher cipher = Cipher.getInstance(CIPHER);
+		cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH, snapshot, 1, IV_LENGTH));
+		cipher.updateAAD(snapshot, 0, 1);
+
+		return cipher.doFinal(snapshot, 1 + IV_LENGTH, snapshot.length - 1 - IV_LENGTH);
+	}
+
+	/**
+	 * Creates the AES key from its Base64 representation.
+	 *
+	 * @param encodedKey - Base64 key.
+	 *
+	 * @return {@code SecretKey} - key or {@code null} when it is missing or not a
+	 *         valid AES key.
+	 */
+	private SecretKey createKey(String encodedKey) {
+		if (StringUtils.isBlank(encodedKey)) {
+			return null;
+		}
+
+		try {
+			byte[] keyBytes = Base64.getDecoder().decode(encodedKey.trim());
+
+			if (keyBytes.length != 16 && keyBytes.length != 24 && keyBytes.length != 32) {
+				return null;
+			}
+
+			return new SecretKeySpec(keyBytes, KEY_ALGORITHM);
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Deletes the given file, if any, ignoring failures.
+	 *
+	 * @param file - file to be deleted.
+	 */
+	private void deleteQuietly(Path file) {
+		if (Objects.isNull(file)) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException e) {
+			// nothing to be done, the file is only a leftover
+		}
+	}
+}
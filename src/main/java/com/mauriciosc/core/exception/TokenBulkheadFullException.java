@@ -0,0 +1,25 @@
+package com.mauriciosc.core.exception;
+
+/**
+ * Exception that indicates the token generation call was rejected because the
+ * concurrency limit of its schema was reached and no slot was freed in time.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-21
+ *
+ */
+public class TokenBulkheadFullException extends TokenGenerationUnavailableException {
+
+	private static final long serialVersionUID = 7931402617468351207L;
+
+	/**
+	 * Constructs a new exception with the specified detail message. The cause is
+	 * not initialized, and may subsequently be initialized by a call to initCause.
+	 * 
+	 * @param message - the detail message. The detail message is saved for later
+	 *                retrieval by the getMessage() method.
+	 */
+	public TokenBulkheadFullException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,26 @@
+package com.mauriciosc.core.exception;
+
+/**
+ * Exception that indicates the token generation call was not executed because
+ * the circuit breaker of its schema is open after repeated failures of the
+ * token generation API.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-22
+ *
+ */
+public class TokenCircuitOpenException extends TokenGenerationUnavailableException {
+
+	private static final long serialVersionUID = -1745320667785216413L;
+
+	/**
+	 * Constructs a new exception with the specified detail message. The cause is
+	 * not initialized, and may subsequently be initialized by a call to initCause.
+	 * 
+	 * @param message - the detail message. The detail message is saved for later
+	 *                retrieval by the getMessage() method.
+	 */
+	public TokenCircuitOpenException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,26 @@
+package com.mauriciosc.core.exception;
+
+/**
+ * Exception that indicates the token generation call was not executed because
+ * the token generation API is not available to the caller at the moment (e.g.
+ * too many calls in progress). Callers may retry later.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-21
+ *
+ */
+public class TokenGenerationUnavailableException extends Exception {
+
+	private static final long serialVersionUID = -3260784411843916075L;
+
+	/**
+	 * Constructs a new exception with the specified detail message. The cause is
+	 * not initialized, and may subsequently be initialized by a call to initCause.
+	 * 
+	 * @param message - the detail message. The detail message is saved for later
+	 *                retrieval by the getMessage() method.
+	 */
+	public TokenGenerationUnavailableException(String message) {
+		super(message);
+	}
+}
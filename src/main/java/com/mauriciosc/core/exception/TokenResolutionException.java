@@ -0,0 +1,25 @@
+package com.mauriciosc.core.exception;
+
+/**
+ * Exception that indicates the failure of a token generated on demand, when the
+ * token is first read. The original failure is kept as the cause.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-19
+ *
+ */
+public class TokenResolutionException extends RuntimeException {
+
+	private static final long serialVersionUID = 4527218843315089032L;
+
+	/**
+	 * Constructs a new exception with the specified detail message and cause.
+	 * 
+	 * @param message - the detail message. The detail message is saved for later
+	 *                retrieval by the getMessage() method.
+	 * @param cause   - the cause of the failure.
+	 */
+	public TokenResolutionException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,190 @@
+package com.mauriciosc.core.header;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.mauriciosc.core.model.request.HeaderModelRequest;
+
+/**
+ * Accessor plan compiled once per {@link HeaderModelRequest} class. It keeps a
+ * {@link MethodHandle} per header, in the same order and with the same names
+ * Jackson uses to serialize the class, so headers are read without walking the
+ * bean reflectively on every call.
+ * <p>
+ * Layouts the plan cannot reproduce exactly (custom serializers, inclusion
+ * rules, any-getters or non scalar values) are flagged as not compiled and must
+ * be converted through the {@link ObjectMapper}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-08
+ *
+ */
+public final class HeaderExtractionPlan {
+
+	private static final Set<Class<?>> SCALAR_TYPES = new HashSet<>(Arrays.asList(
+			String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+			Float.class, Double.class, boolean.class, char.class, byte.class, short.class, int.class, long.class,
+			float.class, double.class));
+
+	private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private final List<String> names;
+	private final List<MethodHandle> accessors;
+	private final boolean compiled;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param names     - header names.
+	 * @param accessors - accessors of the header values (same order as names).
+	 * @param compiled  - indicates if the plan can extract the headers.
+	 */
+	private HeaderExtractionPlan(List<String> names, List<MethodHandle> accessors, boolean compiled) {
+		this.names = names;
+		this.accessors = accessors;
+		this.compiled = compiled;
+	}
+
+	/**
+	 * Compiles the accessor plan of the given class.
+	 * 
+	 * @param headerClass  - class implementing {@link HeaderModelRequest}.
+	 * @param objectMapper - mapper whose serialization settings are reproduced.
+	 * 
+	 * @return {@code HeaderExtractionPlan} - compiled plan or a plan flagged as not
+	 *         compiled when the layout is not supported.
+	 */
+	public static HeaderExtractionPlan compile(Class<?> headerClass, ObjectMapper objectMapper) {
+		try {
+			SerializationConfig config = objectMapper.getSerializationConfig();
+			BeanDescription beanDescription = config.introspect(config.constructType(headerClass));
+
+			if (Objects.nonNull(beanDescription.findJsonValueAccessor())
+					|| Objects.nonNull(beanDescription.findAnyGetter())
+					|| !isAlwaysIncluded(beanDescription.findPropertyInclusion(config.getDefaultPropertyInclusion(headerClass)))) {
+				return notCompiled();
+			}
+
+			List<String> names = new ArrayList<>();
+			List<MethodHandle> accessors = new ArrayList<>();
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+			for (BeanPropertyDefinition property : beanDescription.findProperties()) {
+				AnnotatedMember accessor = property.getAccessor();
+
+				if (Objects.isNull(accessor)) {
+					continue;
+				}
+				if (!SCALAR_TYPES.contains(accessor.getRawType())
+						|| accessor.hasAnnotation(JsonSerialize.class)
+						|| !isAlwaysIncluded(property.findInclusion())) {
+					return notCompiled();
+				}
+
+				names.add(property.getName());
+				accessors.add(unreflect(lookup, accessor.getMember()));
+			}
+
+			return new HeaderExtractionPlan(Collections.unmodifiableList(names), Collections.unmodifiableList(accessors), true);
+		}
+		catch (Exception e) {
+			return notCompiled();
+		}
+	}
+
+	/**
+	 * Indicates if the plan can extract the headers of the class.
+	 * 
+	 * @return {@code boolean} - {@code false} when the headers must be converted
+	 *         through the {@link ObjectMapper}.
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Extracts the headers of the given instance.
+	 * 
+	 * @param headerSchema - instance of the class the plan was compiled for.
+	 * 
+	 * @return {@code HttpHeaders} - headers of the instance.
+	 * @throws Throwable thrown by the accessors.
+	 */
+	public HttpHeaders extract(HeaderModelRequest headerSchema) throws Throwable {
+		HttpHeaders httpHeaders = new HttpHeaders();
+
+		for (int i = 0; i < accessors.size(); i++) {
+			httpHeaders.add(names.get(i), String.valueOf((Object) accessors.get(i).invokeExact((Object) headerSchema)));
+		}
+
+		return httpHeaders;
+	}
+
+	/**
+	 * Creates a plan flagged as not compiled.
+	 * 
+	 * @return {@code HeaderExtractionPlan} - plan instance.
+	 */
+	private static HeaderExtractionPlan notCompiled() {
+		return new HeaderExtractionPlan(Collections.emptyList(), Collections.emptyList(), false);
+	}
+
+	/**
+	 * Indicates if the inclusion rule keeps every value (including nulls).
+	 * 
+	 * @param inclusion - inclusion rule.
+	 * 
+	 * @return {@code boolean} - {@code true} when every value is serialized.
+	 */
+	private static boolean isAlwaysIncluded(JsonInclude.Value inclusion) {
+		if (Objects.isNull(inclusion)) {
+			return true;
+		}
+
+		JsonInclude.Include valueInclusion = inclusion.getValueInclusion();
+		return valueInclusion == JsonInclude.Include.ALWAYS || valueInclusion == JsonInclude.Include.USE_DEFAULTS;
+	}
+
+	/**
+	 * Creates a {@code (Object)Object} handle for the given getter or field.
+	 * 
+	 * @param lookup - lookup used to create the handle.
+	 * @param member - getter or field.
+	 * 
+	 * @return {@code MethodHandle} - accessor handle.
+	 * @throws IllegalAccessException thrown when the member is not accessible.
+	 */
+	private static MethodHandle unreflect(MethodHandles.Lookup lookup, Member member) throws IllegalAccessException {
+		if (!Modifier.isPublic(member.getModifiers()) || !Modifier.isPublic(member.getDeclaringClass().getModifiers())) {
+			((AccessibleObject) member).setAccessible(true);
+		}
+
+		MethodHandle handle = member instanceof Method 
+				? lookup.unreflect((Method) member) 
+				: lookup.unreflectGetter((Field) member);
+
+		return handle.asType(ACCESSOR_TYPE);
+	}
+}
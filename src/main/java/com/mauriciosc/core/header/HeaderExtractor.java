@@ -0,0 +1,97 @@
+package com.mauriciosc.core.header;
+
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.model.request.HeaderModelRequest;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Extracts the headers of the token generation call from a
+ * {@link HeaderModelRequest} instance.
+ * <p>
+ * The layout of each class is compiled once into a {@link HeaderExtractionPlan}
+ * and the headers of the instances flagged as immutable by their schema (see
+ * {@link TokenGenerationSchema#isImmutableHeaders()}) are extracted once and
+ * kept as read-only {@link HttpHeaders}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-08
+ *
+ */
+@Component
+public class HeaderExtractor {
+
+	@Autowired
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	private final ClassValue<HeaderExtractionPlan> plans = new ClassValue<HeaderExtractionPlan>() {
+		@Override
+		protected HeaderExtractionPlan computeValue(Class<?> type) {
+			return HeaderExtractionPlan.compile(type, tokenGenerationObjectMapper.getObjectMapper());
+		}
+	};
+
+	private final Map<HeaderModelRequest, HttpHeaders> immutableHeaders = new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
+
+	/**
+	 * Extracts the headers of the given instance.
+	 * 
+	 * @param headerSchema - object to be converted.
+	 * @param immutable    - indicates if the instance never changes, so its
+	 *                     headers can be extracted once.
+	 * 
+	 * @return {@code HttpHeaders} - read-only headers based on the given header
+	 *         schema (empty when it is {@code null}).
+	 * @throws Throwable thrown when the headers cannot be read.
+	 */
+	public HttpHeaders extract(HeaderModelRequest headerSchema, boolean immutable) throws Throwable {
+		if (Objects.isNull(headerSchema)) {
+			return HttpHeaders.EMPTY;
+		}
+
+		HeaderExtractionPlan plan = plans.get(headerSchema.getClass());
+
+		if (!plan.isCompiled()) {
+			return HttpHeaders.readOnlyHttpHeaders(this.convert(headerSchema));
+		}
+		if (!immutable) {
+			return HttpHeaders.readOnlyHttpHeaders(plan.extract(headerSchema));
+		}
+
+		HttpHeaders httpHeaders = immutableHeaders.get(headerSchema);
+
+		if (Objects.isNull(httpHeaders)) {
+			httpHeaders = HttpHeaders.readOnlyHttpHeaders(plan.extract(headerSchema));
+			immutableHeaders.put(headerSchema, httpHeaders);
+		}
+
+		return httpHeaders;
+	}
+
+	/**
+	 * Converts the given instance through the {@link ObjectMapper} (layouts not
+	 * supported by the compiled plans).
+	 * 
+	 * @param headerSchema - object to be converted.
+	 * 
+	 * @return {@code HttpHeaders} - headers based on the given header schema.
+	 */
+	@SuppressWarnings("unchecked")
+	HttpHeaders convert(HeaderModelRequest headerSchema) {
+		HttpHeaders httpHeaders = new HttpHeaders();
+		Map<String, Object> objectMap = tokenGenerationObjectMapper.getObjectMapper().convertValue(headerSchema, Map.class);
+
+		objectMap.forEach((key, value) -> httpHeaders.add(key, String.valueOf(value)));
+
+		return httpHeaders;
+	}
+}
@@ -0,0 +1,23 @@
+package com.mauriciosc.core.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Callback to customize the {@link ObjectMapper} shared by the token generation
+ * process (e.g. registering modules or enabling features). Beans implementing
+ * this interface are applied once, at startup, in their declared order.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-10
+ *
+ */
+@FunctionalInterface
+public interface ObjectMapperCustomizer {
+
+	/**
+	 * Customizes the shared mapper.
+	 * 
+	 * @param objectMapper - mapper to be customized.
+	 */
+	void customize(ObjectMapper objectMapper);
+}
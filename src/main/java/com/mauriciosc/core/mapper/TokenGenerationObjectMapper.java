@@ -0,0 +1,64 @@
+package com.mauriciosc.core.mapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Holds the {@link ObjectMapper} shared by the token generation process and the
+ * {@link ObjectReader} of each {@link ResponseSchema} class, so that neither is
+ * built again on every token generation call.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-10
+ *
+ */
+@Component
+public class TokenGenerationObjectMapper {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Map<Class<? extends ResponseSchema>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+	@Autowired
+	private ObjectProvider<ObjectMapperCustomizer> customizers;
+
+	/**
+	 * Applies the registered {@link ObjectMapperCustomizer} beans to the shared
+	 * mapper.
+	 */
+	@PostConstruct
+	public void customize() {
+		customizers.orderedStream().forEach(customizer -> customizer.customize(objectMapper));
+		readers.clear();
+	}
+
+	/**
+	 * Returns the shared mapper.
+	 * 
+	 * @return {@code ObjectMapper} - mapper instance.
+	 */
+	public ObjectMapper getObjectMapper() {
+		return objectMapper;
+	}
+
+	/**
+	 * Returns the reader of the given response schema class.
+	 * 
+	 * @param responseSchema - class representing the response body.
+	 * 
+	 * @return {@code ObjectReader} - reader bound to the class.
+	 */
+	public ObjectReader getReader(Class<? extends ResponseSchema> responseSchema) {
+		return readers.computeIfAbsent(responseSchema, objectMapper::readerFor);
+	}
+}
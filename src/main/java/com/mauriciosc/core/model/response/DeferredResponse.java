@@ -0,0 +1,86 @@
+package com.mauriciosc.core.model.response;
+
+import java.util.Objects;
+
+import com.mauriciosc.core.exception.TokenResolutionException;
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Handle of a token that is only generated the first time it is read. Once
+ * generated, the same response is returned on every read; a failed generation
+ * is attempted again on the next read.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-19
+ *
+ */
+public class DeferredResponse {
+
+	private static final String FALHA_RESOLUCAO_TOKEN = "Falha na geração do token sob demanda.";
+
+	private final Loader loader;
+	private volatile ResponseSchema response;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param loader - function generating the token.
+	 */
+	public DeferredResponse(Loader loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * Returns the token, generating it on the first call.
+	 * 
+	 * @return {@code ResponseSchema} - generated token.
+	 * 
+	 * @throws TokenResolutionException exception thrown when the token generation
+	 *                                  fails.
+	 */
+	public ResponseSchema resolve() {
+		ResponseSchema resolved = response;
+
+		if (Objects.isNull(resolved)) {
+			synchronized (this) {
+				resolved = response;
+
+				if (Objects.isNull(resolved)) {
+					try {
+						resolved = loader.load();
+					}
+					catch (Exception e) {
+						throw new TokenResolutionException(FALHA_RESOLUCAO_TOKEN, e);
+					}
+					response = resolved;
+				}
+			}
+		}
+
+		return resolved;
+	}
+
+	/**
+	 * Indicates if the token was already generated.
+	 * 
+	 * @return {@code boolean} - {@code true} when the token was generated.
+	 */
+	public boolean isResolved() {
+		return Objects.nonNull(response);
+	}
+
+	/**
+	 * Function generating the token of a deferred response.
+	 */
+	@FunctionalInterface
+	public interface Loader {
+
+		/**
+		 * Generates the token.
+		 * 
+		 * @return {@code ResponseSchema} - generated token.
+		 * @throws Exception thrown when the token cannot be generated.
+		 */
+		ResponseSchema load() throws Exception;
+	}
+}
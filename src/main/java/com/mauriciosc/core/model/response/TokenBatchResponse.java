@@ -0,0 +1,74 @@
+package com.mauriciosc.core.model.response;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Outcome of a batch of token generations: the token of every key that
+ * succeeded and the failure of every key that did not, both in the order the
+ * keys were given. A failed key does not fail the others.
+ *
+ * @param <K> type of the keys (schemas or provider names).
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-09-01
+ *
+ */
+public class TokenBatchResponse<K> {
+
+	private final Map<K, ResponseSchema> responses;
+	private final Map<K, Exception> failures;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 *
+	 * @param responses - tokens by key.
+	 * @param failures  - failures by key.
+	 */
+	public TokenBatchResponse(Map<K, ResponseSchema> responses, Map<K, Exception> failures) {
+		this.responses = Collections.unmodifiableMap(responses);
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * Returns the token of the given key.
+	 *
+	 * @param key - schema or provider name.
+	 *
+	 * @return {@code ResponseSchema} - token or {@code null} when its generation
+	 *         failed.
+	 */
+	public ResponseSchema getResponse(K key) {
+		return responses.get(key);
+	}
+
+	/**
+	 * Returns the generated tokens.
+	 *
+	 * @return {@code Map} - immutable map of the tokens by key.
+	 */
+	public Map<K, ResponseSchema> getResponses() {
+		return responses;
+	}
+
+	/**
+	 * Returns the failures of the token generations, with the exceptions
+	 * {@code createToken} throws.
+	 *
+	 * @return {@code Map} - immutable map of the failures by key.
+	 */
+	public Map<K, Exception> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * Indicates if the token of every key was generated.
+	 *
+	 * @return {@code boolean} - {@code true} when there is no failure.
+	 */
+	public boolean isComplete() {
+		return failures.isEmpty();
+	}
+}
@@ -1,11 +1,29 @@
 package com.mauriciosc.core.model.response;
 
+import java.util.Objects;
+
+import javax.servlet.http.HttpServletRequest;
+
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import com.mauriciosc.core.exception.TokenResolutionException;
 import com.mauriciosc.core.schema.ResponseSchema;
 
 /**
  * Class that handles all data regarding to the token generation process.
+ * <p>
+ * The latest response of the default schema is kept as a volatile snapshot, so
+ * it is safely published to every thread without locks. The response handed to
+ * an inbound request is also bound to that request, so a request always reads
+ * the token it was given even if another request replaces the snapshot
+ * meanwhile. The responses of the other schemas are only bound to their
+ * requests, so reads outside of a request never get the token of another
+ * schema.
+ * <p>
+ * A request may also be bound to a {@link DeferredResponse}, in which case the
+ * token is only generated the first time the request reads it.
  * 
  * @author Mauricio Souza Couto
  * @since 2020-07-25
@@ -14,14 +32,41 @@ import com.mauriciosc.core.schema.ResponseSchema;
 @Component
 public class TokenModelResponse {
 	
-	private ResponseSchema tokenModelResponse;
+	/**
+	 * Name of the request attribute holding the response bound to the request.
+	 */
+	public static final String RESPONSE_ATTRIBUTE = TokenModelResponse.class.getName() + ".RESPONSE";
+	
+	private static final String DEFAULT_SCHEMA_ATTRIBUTE = TokenModelResponse.class.getName() + ".DEFAULT_SCHEMA";
+	
+	private volatile ResponseSchema tokenModelResponse;
 
 	/**
-	 * Returns the response field upheld in the class.
+	 * Returns the response bound to the current request or, outside of a request
+	 * (or when none was bound), the latest response of the default schema upheld
+	 * in the class. A deferred response bound to the request is resolved on the
+	 * first call.
 	 * 
 	 * @return {@code ResponseSchema} - response field.
+	 * 
+	 * @throws TokenResolutionException exception thrown when the deferred token
+	 *                                  generation fails.
 	 */
 	public ResponseSchema getTokenModelResponse() {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+		
+		if (Objects.nonNull(requestAttributes)) {
+			Object boundResponse = requestAttributes.getAttribute(RESPONSE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+			
+			if (boundResponse instanceof ResponseSchema) {
+				return (ResponseSchema) boundResponse;
+			}
+			if (boundResponse instanceof DeferredResponse) {
+				return this.resolve((DeferredResponse) boundResponse, 
+						Boolean.TRUE.equals(requestAttributes.getAttribute(DEFAULT_SCHEMA_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)));
+			}
+		}
+		
 		return tokenModelResponse;
 	}
 
@@ -34,4 +79,77 @@ public class TokenModelResponse {
 		this.tokenModelResponse = response;
 	}
 
+	/**
+	 * Binds a {@link ResponseSchema} of the default schema to the given request
+	 * and sets it over the class field.
+	 * 
+	 * @param request  - request the response is generated for.
+	 * @param response - response schema to be bound.
+	 */
+	public void bind(HttpServletRequest request, ResponseSchema response) {
+		this.bind(request, response, true);
+	}
+
+	/**
+	 * Binds a {@link ResponseSchema} to the given request, setting it over the
+	 * class field only when it is a token of the default schema.
+	 * 
+	 * @param request       - request the response is generated for.
+	 * @param response      - response schema to be bound.
+	 * @param defaultSchema - indicates if the token is of the default schema.
+	 */
+	public void bind(HttpServletRequest request, ResponseSchema response, boolean defaultSchema) {
+		request.setAttribute(RESPONSE_ATTRIBUTE, response);
+		
+		if (defaultSchema) {
+			this.setResponse(response);
+		}
+	}
+
+	/**
+	 * Binds a {@link DeferredResponse} of the default schema to the given request.
+	 * The token is only generated, and set over the class field, when the request
+	 * first reads it.
+	 * 
+	 * @param request  - request the response is generated for.
+	 * @param response - deferred response to be bound.
+	 */
+	public void bind(HttpServletRequest request, DeferredResponse response) {
+		this.bind(request, response, true);
+	}
+
+	/**
+	 * Binds a {@link DeferredResponse} to the given request. The token is only
+	 * generated when the request first reads it, and set over the class field
+	 * only when it is a token of the default schema.
+	 * 
+	 * @param request       - request the response is generated for.
+	 * @param response      - deferred response to be bound.
+	 * @param defaultSchema - indicates if the token is of the default schema.
+	 */
+	public void bind(HttpServletRequest request, DeferredResponse response, boolean defaultSchema) {
+		request.setAttribute(RESPONSE_ATTRIBUTE, response);
+		request.setAttribute(DEFAULT_SCHEMA_ATTRIBUTE, defaultSchema);
+	}
+
+	/**
+	 * Resolves the given deferred response, setting the token over the class
+	 * field when it is generated for the default schema.
+	 * 
+	 * @param deferredResponse - deferred response bound to the request.
+	 * @param defaultSchema    - indicates if the token is of the default schema.
+	 * 
+	 * @return {@code ResponseSchema} - generated token.
+	 */
+	private ResponseSchema resolve(DeferredResponse deferredResponse, boolean defaultSchema) {
+		if (deferredResponse.isResolved() || !defaultSchema) {
+			return deferredResponse.resolve();
+		}
+		
+		ResponseSchema response = deferredResponse.resolve();
+		this.setResponse(response);
+		
+		return response;
+	}
+
 }
@@ -0,0 +1,164 @@
+package com.mauriciosc.core.resilience;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mauriciosc.core.exception.TokenBulkheadFullException;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Limits the number of token generation calls in progress for each
+ * {@link TokenGenerationSchema}, so a slow token generation API cannot hold
+ * every request thread. Callers beyond the limit wait in a bounded queue for up
+ * to the acquire timeout; callers beyond the queue are rejected right away.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-21
+ *
+ */
+@Component
+public class TokenBulkhead {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenBulkhead.class);
+
+	private static final String FILA_CHEIA = "Limite de chamadas de geração do token atingido e fila de espera cheia (%d chamadas).";
+	private static final String TEMPO_ESGOTADO = "Tempo de espera por uma vaga na geração do token esgotado (%d ms).";
+	private static final String ESPERA_INTERROMPIDA = "Espera por uma vaga na geração do token interrompida.";
+	private static final String SEM_VAGA = "Limite de chamadas de geração do token atingido (%d chamadas).";
+
+	@Value("${token.generation.bulkhead.enabled:false}")
+	private boolean enabled;
+
+	@Value("${token.generation.bulkhead.max-concurrent-calls:10}")
+	private int maxConcurrentCalls;
+
+	@Value("${token.generation.bulkhead.max-queued-calls:50}")
+	private int maxQueuedCalls;
+
+	@Value("${token.generation.bulkhead.acquire-timeout:1000}")
+	private long acquireTimeout;
+
+	private final Map<TokenGenerationSchema, Compartment> compartments = new ConcurrentHashMap<>();
+	private final AtomicLong rejectedCalls = new AtomicLong();
+
+	/**
+	 * Takes a call slot of the given schema, waiting in the queue while none is
+	 * free.
+	 * 
+	 * @param tokenGenerationSchema - schema of the call.
+	 * 
+	 * @throws TokenBulkheadFullException exception thrown when the queue is full
+	 *                                    or no slot is freed within the acquire
+	 *                                    timeout.
+	 */
+	public void acquire(TokenGenerationSchema tokenGenerationSchema) throws TokenBulkheadFullException {
+		if (!enabled) {
+			return;
+		}
+
+		Compartment compartment = this.getCompartment(tokenGenerationSchema);
+
+		if (compartment.permits.tryAcquire()) {
+			return;
+		}
+
+		if (compartment.queued.incrementAndGet() > maxQueuedCalls) {
+			compartment.queued.decrementAndGet();
+			throw this.reject(String.format(FILA_CHEIA, maxQueuedCalls));
+		}
+
+		try {
+			if (!compartment.permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+				throw this.reject(String.format(TEMPO_ESGOTADO, acquireTimeout));
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw this.reject(ESPERA_INTERROMPIDA);
+		}
+		finally {
+			compartment.queued.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Takes a call slot of the given schema without waiting. Used by non-blocking
+	 * callers, which must not park their thread in the queue.
+	 * 
+	 * @param tokenGenerationSchema - schema of the call.
+	 * 
+	 * @throws TokenBulkheadFullException exception thrown when no slot is free.
+	 */
+	public void tryAcquire(TokenGenerationSchema tokenGenerationSchema) throws TokenBulkheadFullException {
+		if (enabled && !this.getCompartment(tokenGenerationSchema).permits.tryAcquire()) {
+			throw this.reject(String.format(SEM_VAGA, maxConcurrentCalls));
+		}
+	}
+
+	/**
+	 * Frees the call slot of the given schema taken by {@link #acquire} or
+	 * {@link #tryAcquire}.
+	 * 
+	 * @param tokenGenerationSchema - schema of the call.
+	 */
+	public void release(TokenGenerationSchema tokenGenerationSchema) {
+		if (enabled) {
+			this.getCompartment(tokenGenerationSchema).permits.release();
+		}
+	}
+
+	/**
+	 * Returns the number of calls rejected by the bulkhead.
+	 * 
+	 * @return {@code long} - rejected calls count.
+	 */
+	public long getRejectedCalls() {
+		return rejectedCalls.get();
+	}
+
+	/**
+	 * Returns the compartment of the given schema, creating it on first use.
+	 * 
+	 * @param tokenGenerationSchema - schema of the call.
+	 * 
+	 * @return {@code Compartment} - compartment of the schema.
+	 */
+	private Compartment getCompartment(TokenGenerationSchema tokenGenerationSchema) {
+		return compartments.computeIfAbsent(tokenGenerationSchema, schema -> new Compartment(maxConcurrentCalls));
+	}
+
+	/**
+	 * Counts and logs a rejected call.
+	 * 
+	 * @param message - reason of the rejection.
+	 * 
+	 * @return {@code TokenBulkheadFullException} - exception to be thrown.
+	 */
+	private TokenBulkheadFullException reject(String message) {
+		rejectedCalls.incrementAndGet();
+		LOGGER.warn(message);
+		return new TokenBulkheadFullException(message);
+	}
+
+	/**
+	 * Call slots and queue of a single schema.
+	 */
+	private static class Compartment {
+
+		private final Semaphore permits;
+		private final AtomicInteger queued = new AtomicInteger();
+
+		Compartment(int maxConcurrentCalls) {
+			this.permits = new Semaphore(maxConcurrentCalls, true);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.mauriciosc.core.resilience;
+
+import java.util.Objects;
+
+/**
+ * Deadline of the token generation call running on the current thread. The
+ * HTTP client bounds the timeouts of each attempt by the time left until the
+ * deadline, so retries never outlast it.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-23
+ *
+ */
+public final class TokenCallDeadline {
+
+	/**
+	 * Value meaning the call has no deadline.
+	 */
+	public static final long NONE = Long.MAX_VALUE;
+
+	private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+	private TokenCallDeadline() {
+	}
+
+	/**
+	 * Sets the deadline of the call running on the current thread.
+	 * 
+	 * @param deadline - instant (epoch millis) the call must finish by.
+	 */
+	public static void set(long deadline) {
+		DEADLINE.set(deadline);
+	}
+
+	/**
+	 * Removes the deadline of the current thread.
+	 */
+	public static void clear() {
+		DEADLINE.remove();
+	}
+
+	/**
+	 * Returns the millis left until the deadline of the current thread.
+	 * 
+	 * @param now - current instant (epoch millis).
+	 * 
+	 * @return {@code long} - millis left or {@link #NONE} when there is no
+	 *         deadline.
+	 */
+	public static long remaining(long now) {
+		Long deadline = DEADLINE.get();
+
+		return Objects.isNull(deadline) || deadline == NONE ? NONE : deadline - now;
+	}
+
+	/**
+	 * Bounds the given timeout by the millis left until a deadline.
+	 * 
+	 * @param timeout   - configured timeout in millis ({@code 0} or less when
+	 *                  infinite).
+	 * @param remaining - millis left until the deadline or {@link #NONE}.
+	 * 
+	 * @return {@code int} - bounded timeout, at least one millisecond.
+	 */
+	public static int bound(int timeout, long remaining) {
+		if (remaining == NONE) {
+			return timeout;
+		}
+
+		int budget = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, remaining));
+
+		return timeout > 0 ? Math.min(timeout, budget) : budget;
+	}
+}
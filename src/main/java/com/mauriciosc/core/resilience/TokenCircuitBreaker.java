@@ -0,0 +1,271 @@
+package com.mauriciosc.core.resilience;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.mauriciosc.core.exception.TokenCircuitOpenException;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Stops calling the token generation API of a {@link TokenGenerationSchema}
+ * while it is failing. The circuit opens after a number of consecutive failures
+ * or when the failure rate of the latest calls is too high; while open, calls
+ * are rejected without reaching the API. Once the open duration elapses, a few
+ * probe calls are let through (half-open): the circuit closes if they succeed
+ * and opens again otherwise.
+ * <p>
+ * Only server errors (5xx) and I/O failures (e.g. timeouts) count as failures;
+ * any other outcome means the API is responding.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-22
+ *
+ */
+@Component
+public class TokenCircuitBreaker {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenCircuitBreaker.class);
+
+	private static final String CIRCUITO_ABERTO = "Circuito da geração do token aberto após falhas da API. Nova tentativa em até %d s.";
+	private static final String CIRCUITO_ABRINDO = "Abrindo o circuito da geração do token após falhas da API.";
+	private static final String CIRCUITO_FECHANDO = "Fechando o circuito da geração do token, API disponível novamente.";
+
+	/**
+	 * States of the circuit.
+	 */
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	@Value("${token.generation.circuit-breaker.enabled:false}")
+	private boolean enabled;
+
+	@Value("${token.generation.circuit-breaker.failure-threshold:5}")
+	private int failureThreshold;
+
+	@Value("${token.generation.circuit-breaker.failure-rate-threshold:0.5}")
+	private double failureRateThreshold;
+
+	@Value("${token.generation.circuit-breaker.window-size:20}")
+	private int windowSize;
+
+	@Value("${token.generation.circuit-breaker.minimum-calls:10}")
+	private int minimumCalls;
+
+	@Value("${token.generation.circuit-breaker.open-duration:30}")
+	private long openDurationSeconds;
+
+	@Value("${token.generation.circuit-breaker.half-open-calls:1}")
+	private int halfOpenCalls;
+
+	private final Map<TokenGenerationSchema, Circuit> circuits = new ConcurrentHashMap<>();
+	private final AtomicLong shortCircuitedCalls = new AtomicLong();
+
+	/**
+	 * Checks if a call of the given schema may reach the token generation API.
+	 * Every permitted call must be followed by {@link #onSuccess},
+	 * {@link #onFailure} or {@link #releasePermission}.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 *
+	 * @throws TokenCircuitOpenException exception thrown when the circuit is open
+	 *                                   or every probe call is in progress.
+	 */
+	public void acquirePermission(TokenGenerationSchema tokenGenerationSchema) throws TokenCircuitOpenException {
+		if (enabled && !this.getCircuit(tokenGenerationSchema).tryAcquire(System.currentTimeMillis())) {
+			shortCircuitedCalls.incrementAndGet();
+			throw new TokenCircuitOpenException(String.format(CIRCUITO_ABERTO, openDurationSeconds));
+		}
+	}
+
+	/**
+	 * Records a call of the given schema answered by the token generation API.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 */
+	public void onSuccess(TokenGenerationSchema tokenGenerationSchema) {
+		if (enabled) {
+			this.getCircuit(tokenGenerationSchema).onResult(false, System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Records a failed call of the given schema. Failures that do not indicate an
+	 * unavailable API are recorded as successes.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 * @param failure               - failure of the call.
+	 */
+	public void onFailure(TokenGenerationSchema tokenGenerationSchema, Throwable failure) {
+		if (enabled) {
+			this.getCircuit(tokenGenerationSchema).onResult(this.isFailure(failure), System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Gives back the permission of a call of the given schema that was not
+	 * executed.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 */
+	public void releasePermission(TokenGenerationSchema tokenGenerationSchema) {
+		if (enabled) {
+			this.getCircuit(tokenGenerationSchema).release();
+		}
+	}
+
+	/**
+	 * Indicates if the given failure means the token generation API is
+	 * unavailable (server error or I/O failure).
+	 *
+	 * @param failure - failure of the call.
+	 *
+	 * @return {@code boolean} - {@code true} when the API is unavailable.
+	 */
+	public boolean isFailure(Throwable failure) {
+		return failure instanceof HttpServerErrorException || failure instanceof ResourceAccessException;
+	}
+
+	/**
+	 * Returns the state of the circuit of the given schema.
+	 *
+	 * @param tokenGenerationSchema - schema of the calls.
+	 *
+	 * @return {@code State} - state of the circuit.
+	 */
+	public State getState(TokenGenerationSchema tokenGenerationSchema) {
+		Circuit circuit = circuits.get(tokenGenerationSchema);
+
+		return Objects.isNull(circuit) ? State.CLOSED : circuit.getState();
+	}
+
+	/**
+	 * Returns the number of calls rejected while the circuit was open.
+	 *
+	 * @return {@code long} - short-circuited calls count.
+	 */
+	public long getShortCircuitedCalls() {
+		return shortCircuitedCalls.get();
+	}
+
+	/**
+	 * Returns the circuit of the given schema, creating it on first use.
+	 *
+	 * @param tokenGenerationSchema - schema of the calls.
+	 *
+	 * @return {@code Circuit} - circuit of the schema.
+	 */
+	private Circuit getCircuit(TokenGenerationSchema tokenGenerationSchema) {
+		return circuits.computeIfAbsent(tokenGenerationSchema, schema -> new Circuit());
+	}
+
+	/**
+	 * State of the calls of a single schema. Only calls reaching the API update
+	 * it, so a monitor is enough.
+	 */
+	private class Circuit {
+
+		private State state = State.CLOSED;
+		private long openedAt;
+		private int consecutiveFailures;
+		private final boolean[] window = new boolean[Math.max(1, windowSize)];
+		private int windowPosition;
+		private int windowCalls;
+		private int windowFailures;
+		private int halfOpenPermits;
+		private int halfOpenSuccesses;
+
+		synchronized State getState() {
+			return state;
+		}
+
+		synchronized boolean tryAcquire(long now) {
+			if (state == State.OPEN && now - openedAt >= TimeUnit.SECONDS.toMillis(openDurationSeconds)) {
+				state = State.HALF_OPEN;
+				halfOpenPermits = halfOpenCalls;
+				halfOpenSuccesses = 0;
+			}
+
+			switch (state) {
+			case CLOSED:
+				return true;
+			case HALF_OPEN:
+				if (halfOpenPermits > 0) {
+					halfOpenPermits--;
+					return true;
+				}
+				return false;
+			default:
+				return false;
+			}
+		}
+
+		synchronized void release() {
+			if (state == State.HALF_OPEN) {
+				halfOpenPermits++;
+			}
+		}
+
+		synchronized void onResult(boolean failure, long now) {
+			if (state == State.HALF_OPEN) {
+				if (failure) {
+					this.open(now);
+				}
+				else if (++halfOpenSuccesses >= halfOpenCalls) {
+					this.close();
+				}
+				return;
+			}
+			if (state == State.OPEN) {
+				// outcome of a call started before the circuit opened
+				return;
+			}
+
+			consecutiveFailures = failure ? consecutiveFailures + 1 : 0;
+			this.record(failure);
+
+			if (consecutiveFailures >= failureThreshold
+					|| (windowCalls >= minimumCalls && windowFailures >= failureRateThreshold * windowCalls)) {
+				this.open(now);
+			}
+		}
+
+		private void record(boolean failure) {
+			if (windowCalls == window.length) {
+				windowFailures -= window[windowPosition] ? 1 : 0;
+			}
+			else {
+				windowCalls++;
+			}
+
+			window[windowPosition] = failure;
+			windowFailures += failure ? 1 : 0;
+			windowPosition = (windowPosition + 1) % window.length;
+		}
+
+		private void open(long now) {
+			LOGGER.warn(CIRCUITO_ABRINDO);
+			state = State.OPEN;
+			openedAt = now;
+		}
+
+		private void close() {
+			LOGGER.info(CIRCUITO_FECHANDO);
+			state = State.CLOSED;
+			consecutiveFailures = 0;
+			windowCalls = 0;
+			windowFailures = 0;
+			windowPosition = 0;
+		}
+	}
+}
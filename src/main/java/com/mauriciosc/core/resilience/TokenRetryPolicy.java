@@ -0,0 +1,259 @@
+package com.mauriciosc.core.resilience;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Decides whether a failed token generation call is retried and after how
+ * long. Only failures worth retrying are retried: connections that could not
+ * be established (refused, unreachable host or connect timeout), 502/503/504
+ * responses and 429 responses carrying {@code Retry-After}. Delays grow
+ * exponentially with random jitter, and no retry is scheduled when it could not
+ * complete before the deadline of the call.
+ * <p>
+ * Connections reset or closed after the request was sent are not retried by
+ * default: the token generation call is not idempotent, the API may already
+ * have issued a token (and revoked the previous one) when the connection
+ * failed. Providers whose API tolerates it opt in through
+ * {@code token.generation.retry.retry-after-send}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-23
+ *
+ */
+@Component
+public class TokenRetryPolicy {
+
+	@Value("${token.generation.retry.enabled:false}")
+	private boolean enabled;
+
+	@Value("${token.generation.retry.max-attempts:3}")
+	private int maxAttempts;
+
+	@Value("${token.generation.retry.initial-backoff:100}")
+	private long initialBackoff;
+
+	@Value("${token.generation.retry.multiplier:2.0}")
+	private double multiplier;
+
+	@Value("${token.generation.retry.max-backoff:1000}")
+	private long maxBackoff;
+
+	@Value("${token.generation.retry.jitter:0.5}")
+	private double jitter;
+
+	@Value("${token.generation.retry.deadline:3000}")
+	private long deadline;
+
+	private final AtomicLong retries = new AtomicLong();
+	private volatile ScheduledExecutorService scheduler;
+
+	/**
+	 * Returns the deadline of a call starting at the given instant.
+	 * 
+	 * @param now - instant (epoch millis) the call starts.
+	 * 
+	 * @return {@code long} - deadline (epoch millis) or
+	 *         {@link TokenCallDeadline#NONE} when retries are disabled.
+	 */
+	public long getDeadline(long now) {
+		return enabled ? now + deadline : TokenCallDeadline.NONE;
+	}
+
+	/**
+	 * Returns the delay before retrying a failed attempt of a call.
+	 * 
+	 * @param attempt        - number of the failed attempt (starting at 1).
+	 * @param failure        - failure of the attempt.
+	 * @param now            - current instant (epoch millis).
+	 * @param deadline       - deadline (epoch millis) of the call.
+	 * @param retryAfterSend - indicates if the connection failures after the
+	 *                       request was sent are retried.
+	 * 
+	 * @return {@code long} - delay in millis or {@code -1} when the call must not
+	 *         be retried.
+	 */
+	public long getRetryDelay(int attempt, Throwable failure, long now, long deadline, boolean retryAfterSend) {
+		if (!enabled || attempt >= maxAttempts) {
+			return -1L;
+		}
+
+		long delay;
+
+		if (failure instanceof HttpStatusCodeException) {
+			delay = this.getStatusRetryDelay(attempt, (HttpStatusCodeException) failure);
+		}
+		else if (failure instanceof ResourceAccessException && (this.isConnectFailure(failure.getCause())
+				|| (retryAfterSend && this.isSendFailure(failure.getCause())))) {
+			delay = this.getBackoff(attempt);
+		}
+		else {
+			delay = -1L;
+		}
+
+		if (delay < 0 || now + delay >= deadline) {
+			return -1L;
+		}
+
+		retries.incrementAndGet();
+		return delay;
+	}
+
+	/**
+	 * Runs the given task after the given delay on the retry thread. Used by the
+	 * non-blocking calls, which must not sleep on their own thread.
+	 * 
+	 * @param task  - task to be run.
+	 * @param delay - delay in millis.
+	 */
+	public void schedule(Runnable task, long delay) {
+		ScheduledExecutorService executor = scheduler;
+
+		if (Objects.isNull(executor)) {
+			synchronized (this) {
+				executor = scheduler;
+
+				if (Objects.isNull(executor)) {
+					executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+						Thread thread = new Thread(runnable, "token-retry");
+						thread.setDaemon(true);
+						return thread;
+					});
+					scheduler = executor;
+				}
+			}
+		}
+
+		executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Returns the number of retries scheduled.
+	 * 
+	 * @return {@code long} - retries count.
+	 */
+	public long getRetries() {
+		return retries.get();
+	}
+
+	/**
+	 * Stops the retry thread.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (Objects.nonNull(scheduler)) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the retry delay of an error response.
+	 * 
+	 * @param attempt - number of the failed attempt.
+	 * @param failure - error response.
+	 * 
+	 * @return {@code long} - delay in millis or {@code -1} when the status is not
+	 *         retried.
+	 */
+	private long getStatusRetryDelay(int attempt, HttpStatusCodeException failure) {
+		long retryAfter = this.getRetryAfter(failure.getResponseHeaders());
+
+		switch (failure.getRawStatusCode()) {
+		case 429:
+			return retryAfter;
+		case 502:
+		case 503:
+		case 504:
+			return Math.max(retryAfter, this.getBackoff(attempt));
+		default:
+			return -1L;
+		}
+	}
+
+	/**
+	 * Returns the exponential backoff of the given attempt, with jitter.
+	 * 
+	 * @param attempt - number of the failed attempt.
+	 * 
+	 * @return {@code long} - delay in millis.
+	 */
+	private long getBackoff(int attempt) {
+		double backoff = Math.min(maxBackoff, initialBackoff * Math.pow(multiplier, attempt - 1));
+
+		return (long) (backoff * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+	}
+
+	/**
+	 * Returns the delay requested by the {@code Retry-After} header, either in
+	 * seconds or as an HTTP date.
+	 * 
+	 * @param headers - response headers.
+	 * 
+	 * @return {@code long} - delay in millis or {@code -1} when absent or invalid.
+	 */
+	private long getRetryAfter(HttpHeaders headers) {
+		String retryAfter = Objects.isNull(headers) ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+
+		if (Objects.isNull(retryAfter)) {
+			return -1L;
+		}
+
+		try {
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+		}
+		catch (NumberFormatException e) {
+			try {
+				return Math.max(0L, headers.getFirstDate(HttpHeaders.RETRY_AFTER) - System.currentTimeMillis());
+			}
+			catch (IllegalArgumentException invalidDate) {
+				return -1L;
+			}
+		}
+	}
+
+	/**
+	 * Indicates if the given I/O failure happened while connecting, before the
+	 * request was sent, so retrying it cannot issue the token twice.
+	 * 
+	 * @param cause - I/O failure.
+	 * 
+	 * @return {@code boolean} - {@code true} when the connection was not
+	 *         established.
+	 */
+	private boolean isConnectFailure(Throwable cause) {
+		// connection refused (HttpHostConnectException included), no route to host and connect timeout
+		return cause instanceof ConnectException
+				|| cause instanceof NoRouteToHostException
+				|| cause instanceof ConnectTimeoutException;
+	}
+
+	/**
+	 * Indicates if the given I/O failure broke the connection after the request
+	 * may have been sent, without a response. Read timeouts are never retried.
+	 * 
+	 * @param cause - I/O failure.
+	 * 
+	 * @return {@code boolean} - {@code true} when the connection was reset or
+	 *         closed without a response.
+	 */
+	private boolean isSendFailure(Throwable cause) {
+		return cause instanceof SocketException || cause instanceof NoHttpResponseException;
+	}
+}
@@ -17,6 +17,8 @@ public class TokenGenerationSchema {
 	private HeaderModelRequest headerModelRequest;
 	private TokenModelRequest tokenModelRequest;
 	private Class<? extends ResponseSchema> responseSchema;
+	private boolean immutableRequest;
+	private boolean immutableHeaders;
 	
 	/**
 	 * All args constructor to set properties on instance setup.
@@ -34,6 +36,44 @@ public class TokenGenerationSchema {
 		this.responseSchema = responseSchema;
 	}
 	
+	/**
+	 * All args constructor to set properties on instance setup, indicating if the
+	 * request body never changes. Immutable request bodies are serialized only
+	 * once and sent as is on every token generation call.
+	 * 
+	 * @param headerModelRequest - object containing headers for the token
+	 *                           generation call.
+	 * @param tokenModelRequest  - object containing request body data for the token
+	 *                           generation call.
+	 * @param responseSchema     - object representing the structure of the response
+	 *                           coming from the token generation call.
+	 * @param immutableRequest   - indicates if the request body never changes.
+	 */
+	public TokenGenerationSchema(HeaderModelRequest headerModelRequest, TokenModelRequest tokenModelRequest, Class<? extends ResponseSchema> responseSchema, boolean immutableRequest) {
+		this(headerModelRequest, tokenModelRequest, responseSchema);
+		this.immutableRequest = immutableRequest;
+	}
+	
+	/**
+	 * All args constructor to set properties on instance setup, indicating if the
+	 * request body and the headers never change. Immutable headers are extracted
+	 * only once and sent as is on every token generation call.
+	 * 
+	 * @param headerModelRequest - object containing headers for the token
+	 *                           generation call.
+	 * @param tokenModelRequest  - object containing request body data for the token
+	 *                           generation call.
+	 * @param responseSchema     - object representing the structure of the response
+	 *                           coming from the token generation call.
+	 * @param immutableRequest   - indicates if the request body never changes.
+	 * @param immutableHeaders   - indicates if the headers never change.
+	 */
+	public TokenGenerationSchema(HeaderModelRequest headerModelRequest, TokenModelRequest tokenModelRequest, Class<? extends ResponseSchema> responseSchema, boolean immutableRequest, 
+			boolean immutableHeaders) {
+		this(headerModelRequest, tokenModelRequest, responseSchema, immutableRequest);
+		this.immutableHeaders = immutableHeaders;
+	}
+	
 	/**
 	 * Returns header data.
 	 * @return {@code HeaderModelRequest} - headers model field.
@@ -58,4 +98,22 @@ public class TokenGenerationSchema {
 	public Class<? extends ResponseSchema> getResponseSchema() {
 		return responseSchema;
 	}
+
+	/**
+	 * Indicates if the request body never changes.
+	 * 
+	 * @return {@code boolean} - immutable request body flag.
+	 */
+	public boolean isImmutableRequest() {
+		return immutableRequest;
+	}
+
+	/**
+	 * Indicates if the headers never change.
+	 * 
+	 * @return {@code boolean} - immutable headers flag.
+	 */
+	public boolean isImmutableHeaders() {
+		return immutableHeaders;
+	}
 }
@@ -0,0 +1,81 @@
+package com.mauriciosc.core.schema;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.mauriciosc.core.model.request.HeaderModelRequest;
+import com.mauriciosc.core.model.request.TokenModelRequest;
+
+/**
+ * Stage of a chain of token generation calls (e.g. token exchange): its
+ * headers and request body are built from the token of the previous stage,
+ * which may itself be a stage, instead of being fixed.
+ * <p>
+ * Each stage is a schema of its own, so its token is cached (and its calls
+ * configured by its {@link TokenProvider}) apart from the other stages.
+ * Generating the token of a stage reads the token of the previous stage from
+ * the cache, so only the stages whose tokens expired are called again.
+ *
+ * @param <P> type of the response of the previous stage.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-09-02
+ *
+ */
+public class TokenPipelineStage<P extends ResponseSchema> extends TokenGenerationSchema {
+
+	private final TokenGenerationSchema previousStage;
+	private final Function<P, ? extends HeaderModelRequest> headerModelBinder;
+	private final Function<P, ? extends TokenModelRequest> tokenModelBinder;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 *
+	 * @param previousStage     - schema generating the token this stage depends
+	 *                          on.
+	 * @param headerModelBinder - function building the headers from the token of
+	 *                          the previous stage or {@code null} when the call
+	 *                          has no header.
+	 * @param tokenModelBinder  - function building the request body from the
+	 *                          token of the previous stage or {@code null} when
+	 *                          the call has no body.
+	 * @param responseSchema    - object representing the structure of the response
+	 *                          coming from the token generation call.
+	 */
+	public TokenPipelineStage(TokenGenerationSchema previousStage, Function<P, ? extends HeaderModelRequest> headerModelBinder,
+			Function<P, ? extends TokenModelRequest> tokenModelBinder, Class<? extends ResponseSchema> responseSchema) {
+		super(null, null, responseSchema);
+		this.previousStage = Objects.requireNonNull(previousStage);
+		this.headerModelBinder = headerModelBinder;
+		this.tokenModelBinder = tokenModelBinder;
+	}
+
+	/**
+	 * Returns the schema generating the token this stage depends on.
+	 *
+	 * @return {@code TokenGenerationSchema} - previous stage.
+	 */
+	public TokenGenerationSchema getPreviousStage() {
+		return previousStage;
+	}
+
+	/**
+	 * Creates the schema of a call of this stage, with the headers and the
+	 * request body built from the given token of the previous stage. They are
+	 * built anew for every call, so the schema is not flagged as immutable and
+	 * neither of them is cached.
+	 *
+	 * @param previousResponse - token of the previous stage.
+	 *
+	 * @return {@code TokenGenerationSchema} - schema of the call.
+	 */
+	@SuppressWarnings("unchecked")
+	public TokenGenerationSchema bind(ResponseSchema previousResponse) {
+		P response = (P) previousResponse;
+
+		return new TokenGenerationSchema(
+				Objects.nonNull(headerModelBinder) ? headerModelBinder.apply(response) : null,
+				Objects.nonNull(tokenModelBinder) ? tokenModelBinder.apply(response) : null,
+				this.getResponseSchema());
+	}
+}
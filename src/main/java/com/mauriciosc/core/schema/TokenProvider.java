@@ -0,0 +1,135 @@
+package com.mauriciosc.core.schema;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Named token provider: a {@link TokenGenerationSchema} along with the
+ * settings of its token generation calls (url, HTTP method, timeout and
+ * retries) and of its cache. Instances are immutable and resolved once, on startup, by the
+ * {@link TokenProviderRegistry}.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-31
+ *
+ */
+public final class TokenProvider {
+
+	/**
+	 * Value meaning the calls of the provider have no timeout of their own.
+	 */
+	public static final long NO_TIMEOUT = 0L;
+
+	private final String name;
+	private final TokenGenerationSchema schema;
+	private final String url;
+	private final HttpMethod method;
+	private final long timeout;
+	private final boolean cacheEnabled;
+	private final long gracePeriod;
+	private final boolean retryAfterSend;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 *
+	 * @param name           - name of the provider.
+	 * @param schema         - schema of the token generation calls.
+	 * @param url            - url of the token generation API or {@code null} when
+	 *                       it is not provided.
+	 * @param method         - HTTP method of the token generation calls.
+	 * @param timeout        - millis a token generation call may take, retries
+	 *                       included, or {@link #NO_TIMEOUT}.
+	 * @param cacheEnabled   - indicates if the tokens are cached.
+	 * @param gracePeriod    - millis an expired token is still served while a new
+	 *                       one cannot be generated.
+	 * @param retryAfterSend - indicates if the calls failing after the request
+	 *                       was sent are retried (see
+	 *                       {@link #isRetryAfterSend()}).
+	 */
+	public TokenProvider(String name, TokenGenerationSchema schema, String url, HttpMethod method, long timeout,
+			boolean cacheEnabled, long gracePeriod, boolean retryAfterSend) {
+		this.name = name;
+		this.schema = schema;
+		this.url = url;
+		this.method = method;
+		this.timeout = timeout;
+		this.cacheEnabled = cacheEnabled;
+		this.gracePeriod = gracePeriod;
+		this.retryAfterSend = retryAfterSend;
+	}
+
+	/**
+	 * Returns the name of the provider.
+	 *
+	 * @return {@code String} - provider name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the schema of the token generation calls.
+	 *
+	 * @return {@code TokenGenerationSchema} - schema of the provider.
+	 */
+	public TokenGenerationSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Returns the url of the token generation API.
+	 *
+	 * @return {@code String} - url or {@code null} when it is not provided.
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Returns the HTTP method of the token generation calls.
+	 *
+	 * @return {@code HttpMethod} - HTTP method.
+	 */
+	public HttpMethod getMethod() {
+		return method;
+	}
+
+	/**
+	 * Returns how long a token generation call may take, retries included.
+	 *
+	 * @return {@code long} - timeout in millis or {@link #NO_TIMEOUT}.
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Indicates if the tokens of the provider are cached.
+	 *
+	 * @return {@code boolean} - cache enabled flag.
+	 */
+	public boolean isCacheEnabled() {
+		return cacheEnabled;
+	}
+
+	/**
+	 * Returns how long an expired token is still served while a new one cannot be
+	 * generated.
+	 *
+	 * @return {@code long} - grace period in millis.
+	 */
+	public long getGracePeriod() {
+		return gracePeriod;
+	}
+
+	/**
+	 * Indicates if the calls whose connection failed after the request was sent
+	 * (reset or closed without a response) are retried. The token may have been
+	 * issued by then, and some APIs revoke the previous token when issuing a new
+	 * one, so only the providers whose API tolerates it opt in.
+	 *
+	 * @return {@code boolean} - retry after send flag.
+	 */
+	public boolean isRetryAfterSend() {
+		return retryAfterSend;
+	}
+}
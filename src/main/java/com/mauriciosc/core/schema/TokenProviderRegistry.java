@@ -0,0 +1,294 @@
+package com.mauriciosc.core.schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of the named {@link TokenProvider}s, resolved once on startup so
+ * that looking a provider up is a single read of an immutable map.
+ * <p>
+ * Providers are declared under {@code token.generation.providers.<name>},
+ * each one referencing a {@link TokenGenerationSchema} bean ({@code schema},
+ * the provider name by default) and optionally overriding the {@code url},
+ * the HTTP {@code method} (POST by default), the {@code timeout} in millis of
+ * the calls, retries included, and the {@code cache-enabled} and
+ * {@code grace-period} of the cache. Unset settings fall back to the global
+ * {@code token.generation.*} properties. Every other schema bean is registered
+ * under its bean name with the global settings.
+ * <p>
+ * The default provider, used by the interceptor and by {@code @RequiresToken}
+ * without a schema name, is the one named by
+ * {@code token.generation.default-provider} or, when it is not set, the one of
+ * the only (or the {@code @Primary}) schema bean.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-31
+ *
+ */
+@Component
+public class TokenProviderRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenProviderRegistry.class);
+
+	private static final String PROVIDERS_PREFIX = "token.generation.providers";
+
+	private static final String SCHEMA_NAO_ENCONTRADO = "Token provider %s inválido: não existe o bean TokenGenerationSchema %s.";
+	private static final String SCHEMA_DUPLICADO = "Token provider %s inválido: o bean TokenGenerationSchema %s já é usado pelo token provider %s.";
+	private static final String PROVIDER_PADRAO_NAO_ENCONTRADO = "Token provider padrão %s inválido: não existe o token provider informado na propriedade 'token.generation.default-provider'.";
+	private static final String URL_NAO_INFORMADA = "Não foi possível identificar a url de autenticação do token provider %s. Verifique a parametrização da propriedade '%s.%s.url' ou 'token.generation.url'";
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired(required = false)
+	private Map<String, TokenGenerationSchema> tokenGenerationSchemas = Collections.emptyMap();
+
+	@Autowired
+	private ObjectProvider<TokenGenerationSchema> uniqueTokenGenerationSchema;
+
+	@Value("${token.generation.default-provider:}")
+	private String defaultProviderName;
+
+	@Value("${token.generation.url:@null}")
+	private String tokenGenerationUrl;
+
+	@Value("${token.generation.cache.enabled:true}")
+	private boolean cacheEnabled;
+
+	@Value("${token.generation.cache.grace-period:0}")
+	private long gracePeriodSeconds;
+
+	@Value("${token.generation.retry.retry-after-send:false}")
+	private boolean retryAfterSend;
+
+	private Map<String, TokenProvider> providersByName = Collections.emptyMap();
+	private Map<TokenGenerationSchema, TokenProvider> providersBySchema = Collections.emptyMap();
+	private TokenProvider defaultProvider;
+
+	/**
+	 * Resolves the providers declared in the properties and the ones of the
+	 * remaining schema beans.
+	 *
+	 * @throws IllegalStateException thrown when a provider references a missing
+	 *                               schema bean or one already used by another
+	 *                               provider, or when the default provider does
+	 *                               not exist.
+	 */
+	@PostConstruct
+	public void init() {
+		Map<String, ProviderProperties> declaredProviders = Binder.get(environment)
+				.bind(PROVIDERS_PREFIX, Bindable.mapOf(String.class, ProviderProperties.class))
+				.orElse(Collections.emptyMap());
+
+		Map<String, TokenProvider> byName = new HashMap<>();
+		Map<TokenGenerationSchema, TokenProvider> bySchema = new IdentityHashMap<>();
+
+		declaredProviders.forEach((name, properties) -> {
+			String schemaName = StringUtils.defaultIfBlank(properties.getSchema(), name);
+			TokenGenerationSchema schema = tokenGenerationSchemas.get(schemaName);
+
+			if (Objects.isNull(schema)) {
+				throw new IllegalStateException(String.format(SCHEMA_NAO_ENCONTRADO, name, schemaName));
+			}
+			if (bySchema.containsKey(schema)) {
+				throw new IllegalStateException(String.format(SCHEMA_DUPLICADO, name, schemaName, bySchema.get(schema).getName()));
+			}
+
+			TokenProvider provider = this.createProvider(name, schema, properties);
+
+			if (Objects.isNull(provider.getUrl())) {
+				LOGGER.error(String.format(URL_NAO_INFORMADA, name, PROVIDERS_PREFIX, name));
+			}
+
+			this.register(provider, byName, bySchema);
+		});
+
+		tokenGenerationSchemas.forEach((name, schema) -> {
+			if (!bySchema.containsKey(schema) && !byName.containsKey(name)) {
+				this.register(this.createProvider(name, schema, new ProviderProperties()), byName, bySchema);
+			}
+		});
+
+		providersByName = Collections.unmodifiableMap(byName);
+		providersBySchema = Collections.unmodifiableMap(bySchema);
+
+		if (StringUtils.isNotBlank(defaultProviderName)) {
+			defaultProvider = byName.get(defaultProviderName);
+
+			if (Objects.isNull(defaultProvider)) {
+				throw new IllegalStateException(String.format(PROVIDER_PADRAO_NAO_ENCONTRADO, defaultProviderName));
+			}
+		}
+		else {
+			TokenGenerationSchema uniqueSchema = uniqueTokenGenerationSchema.getIfUnique();
+			defaultProvider = Objects.isNull(uniqueSchema) ? null : bySchema.get(uniqueSchema);
+		}
+	}
+
+	/**
+	 * Returns the provider registered under the given name.
+	 *
+	 * @param name - name of the provider (or of the schema bean).
+	 *
+	 * @return {@code TokenProvider} - provider or {@code null} when none is
+	 *         registered under the name.
+	 */
+	public TokenProvider getProvider(String name) {
+		return providersByName.get(name);
+	}
+
+	/**
+	 * Returns the provider of the given schema.
+	 *
+	 * @param tokenGenerationSchema - schema of the provider.
+	 *
+	 * @return {@code TokenProvider} - provider or {@code null} when the schema is
+	 *         not a registered bean.
+	 */
+	public TokenProvider getProvider(TokenGenerationSchema tokenGenerationSchema) {
+		return providersBySchema.get(tokenGenerationSchema);
+	}
+
+	/**
+	 * Returns the default provider.
+	 *
+	 * @return {@code TokenProvider} - provider or {@code null} when there are
+	 *         several schema beans, none of them {@code @Primary}, and no
+	 *         {@code token.generation.default-provider}.
+	 */
+	public TokenProvider getDefaultProvider() {
+		return defaultProvider;
+	}
+
+	/**
+	 * Returns every registered provider, by name.
+	 *
+	 * @return {@code Map} - immutable map of the providers.
+	 */
+	public Map<String, TokenProvider> getProviders() {
+		return providersByName;
+	}
+
+	/**
+	 * Creates the provider of the given schema, completing the given properties
+	 * with the global settings.
+	 *
+	 * @param name       - name of the provider.
+	 * @param schema     - schema of the provider.
+	 * @param properties - declared settings of the provider.
+	 *
+	 * @return {@code TokenProvider} - provider instance, without url when none is
+	 *         provided.
+	 */
+	private TokenProvider createProvider(String name, TokenGenerationSchema schema, ProviderProperties properties) {
+		String url = StringUtils.defaultIfBlank(StringUtils.defaultIfBlank(properties.getUrl(), tokenGenerationUrl), null);
+
+		return new TokenProvider(name, schema, url,
+				Objects.nonNull(properties.getMethod()) ? properties.getMethod() : HttpMethod.POST,
+				Objects.nonNull(properties.getTimeout()) ? properties.getTimeout() : TokenProvider.NO_TIMEOUT,
+				Objects.nonNull(properties.getCacheEnabled()) ? properties.getCacheEnabled() : cacheEnabled,
+				TimeUnit.SECONDS.toMillis(Objects.nonNull(properties.getGracePeriod()) ? properties.getGracePeriod() : gracePeriodSeconds),
+				Objects.nonNull(properties.getRetryAfterSend()) ? properties.getRetryAfterSend() : retryAfterSend);
+	}
+
+	/**
+	 * Registers the given provider under its name and its schema.
+	 *
+	 * @param provider - provider to be registered.
+	 * @param byName   - providers by name.
+	 * @param bySchema - providers by schema.
+	 */
+	private void register(TokenProvider provider, Map<String, TokenProvider> byName, Map<TokenGenerationSchema, TokenProvider> bySchema) {
+		byName.put(provider.getName(), provider);
+		bySchema.put(provider.getSchema(), provider);
+	}
+
+	/**
+	 * Settings of a provider as declared in the properties, {@code null} when
+	 * not set.
+	 */
+	public static class ProviderProperties {
+
+		private String schema;
+		private String url;
+		private HttpMethod method;
+		private Long timeout;
+		private Boolean cacheEnabled;
+		private Long gracePeriod;
+		private Boolean retryAfterSend;
+
+		public String getSchema() {
+			return schema;
+		}
+
+		public void setSchema(String schema) {
+			this.schema = schema;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public HttpMethod getMethod() {
+			return method;
+		}
+
+		public void setMethod(HttpMethod method) {
+			this.method = method;
+		}
+
+		public Long getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(Long timeout) {
+			this.timeout = timeout;
+		}
+
+		public Boolean getCacheEnabled() {
+			return cacheEnabled;
+		}
+
+		public void setCacheEnabled(Boolean cacheEnabled) {
+			this.cacheEnabled = cacheEnabled;
+		}
+
+		public Long getGracePeriod() {
+			return gracePeriod;
+		}
+
+		public void setGracePeriod(Long gracePeriod) {
+			this.gracePeriod = gracePeriod;
+		}
+
+		public Boolean getRetryAfterSend() {
+			return retryAfterSend;
+		}
+
+		public void setRetryAfterSend(Boolean retryAfterSend) {
+			this.retryAfterSend = retryAfterSend;
+		}
+	}
+}
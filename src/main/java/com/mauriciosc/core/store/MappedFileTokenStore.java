@@ -0,0 +1,402 @@
+package com.mauriciosc.core.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchema;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * {@link TokenStore} shared by the processes of a single host through a
+ * memory-mapped file per token provider, in {@code token.generation.store.mapped-file.directory}.
+ * <p>
+ * The files hold the tokens in clear text, so the directory must be given
+ * explicitly (there is no default in the shared temporary directory). It is
+ * created accessible only by the user of the process, and a directory or file
+ * owned by another user, accessible by others or replaced by a symbolic link is
+ * refused.
+ * <p>
+ * Each file holds the issue and expiry instants of the token followed by its
+ * response as JSON, up to {@code token.generation.store.mapped-file.capacity}
+ * bytes. Reads hold a shared lock of the file and writes an exclusive one, kept
+ * during the whole load so that the other processes wait for the new token
+ * instead of generating their own. Reads and writes outside of a load only try
+ * the locks, giving up while another load is in progress.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-28
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "token.generation.store.mapped-file.enabled", havingValue = "true")
+public class MappedFileTokenStore implements TokenStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappedFileTokenStore.class);
+
+	private static final int VERSION = 1;
+	private static final int VERSION_OFFSET = 0;
+	private static final int ISSUED_AT_OFFSET = 4;
+	private static final int EXPIRES_AT_OFFSET = 12;
+	private static final int LENGTH_OFFSET = 20;
+	private static final int HEADER_SIZE = 24;
+
+	private static final String TOKEN_ILEGIVEL = "Token compartilhado do schema %s ignorado: não foi possível ler o response.";
+	private static final String RESPONSE_EXCEDE_CAPACIDADE = "Token do schema %s não compartilhado: o response de %d bytes excede a capacidade de %d bytes do arquivo.";
+	private static final String DIRETORIO_NAO_INFORMADO = "O diretório dos tokens compartilhados não foi informado (token.generation.store.mapped-file.directory).";
+	private static final String DIRETORIO_INVALIDO = "O diretório %s dos tokens compartilhados não pode ser utilizado.";
+	private static final String CAMINHO_INSEGURO = "O caminho %s deve pertencer ao usuário do processo, ser acessível apenas por ele e não ser um link simbólico.";
+
+	private static final Set<PosixFilePermission> OWNER_ONLY = EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, 
+			PosixFilePermission.OWNER_EXECUTE);
+
+	@Autowired
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	@Value("${token.generation.store.mapped-file.directory:}")
+	private String directory;
+
+	@Value("${token.generation.store.mapped-file.capacity:65536}")
+	private int capacity;
+
+	private final Map<String, TokenFile> files = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates the directory of the files, accessible only by the user of the
+	 * process, or checks the existing one is.
+	 *
+	 * @throws IllegalStateException thrown when the directory is not informed or
+	 *                               cannot be used safely.
+	 */
+	@PostConstruct
+	public void init() {
+		if (StringUtils.isBlank(directory)) {
+			throw new IllegalStateException(DIRETORIO_NAO_INFORMADO);
+		}
+
+		Path path = Paths.get(directory);
+
+		try {
+			if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+				Files.createDirectories(path.getParent());
+
+				if (this.isPosix()) {
+					Files.createDirectory(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+				}
+				else {
+					Files.createDirectory(path);
+				}
+			}
+
+			this.checkOwnerOnly(path, true);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(String.format(DIRETORIO_INVALIDO, path), e);
+		}
+	}
+
+	@Override
+	public CachedToken get(String name, TokenGenerationSchema tokenGenerationSchema, long now) throws IOException {
+		TokenFile tokenFile = this.getFile(name);
+
+		if (!tokenFile.lock.tryLock()) {
+			return null;
+		}
+
+		try (FileLock fileLock = tokenFile.channel.tryLock(0, Long.MAX_VALUE, true)) {
+			return Objects.isNull(fileLock) ? null : this.read(tokenFile, tokenGenerationSchema, now);
+		}
+		finally {
+			tokenFile.lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(String name, TokenGenerationSchema tokenGenerationSchema, CachedToken cachedToken) throws IOException {
+		TokenFile tokenFile = this.getFile(name);
+
+		if (!tokenFile.lock.tryLock()) {
+			return;
+		}
+
+		try (FileLock fileLock = tokenFile.channel.tryLock()) {
+			if (Objects.nonNull(fileLock)) {
+				this.write(tokenFile, name, cachedToken);
+			}
+		}
+		finally {
+			tokenFile.lock.unlock();
+		}
+	}
+
+	@Override
+	public CachedToken load(String name, TokenGenerationSchema tokenGenerationSchema, long issuedAfter, Callable<CachedToken> loader)
+			throws Exception {
+
+		TokenFile tokenFile = this.getFile(name);
+
+		tokenFile.lock.lock();
+
+		try {
+			FileLock fileLock = tokenFile.channel.lock();
+
+			try {
+				CachedToken sharedToken = this.readQuietly(tokenFile, name, tokenGenerationSchema);
+
+				if (Objects.nonNull(sharedToken) && sharedToken.getIssuedAt() > issuedAfter) {
+					return sharedToken;
+				}
+
+				CachedToken cachedToken = loader.call();
+				this.write(tokenFile, name, cachedToken);
+
+				return cachedToken;
+			}
+			finally {
+				fileLock.release();
+			}
+		}
+		finally {
+			tokenFile.lock.unlock();
+		}
+	}
+
+	/**
+	 * Closes the files of the store.
+	 */
+	@PreDestroy
+	public void close() {
+		files.values().forEach(tokenFile -> {
+			try {
+				tokenFile.channel.close();
+			}
+			catch (IOException e) {
+				// nothing to be done, the file is released with the process
+			}
+		});
+		files.clear();
+	}
+
+	/**
+	 * Reads the token of the given file, as long as it is valid.
+	 *
+	 * @param tokenFile             - file of the schema.
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * @param now                   - current instant (epoch millis).
+	 *
+	 * @return {@code CachedToken} - valid token or {@code null} when there is none.
+	 * @throws IOException thrown when the response cannot be mapped.
+	 */
+	private CachedToken read(TokenFile tokenFile, TokenGenerationSchema tokenGenerationSchema, long now) throws IOException {
+		MappedByteBuffer buffer = tokenFile.buffer;
+		long expiresAt = buffer.getLong(EXPIRES_AT_OFFSET);
+		int length = buffer.getInt(LENGTH_OFFSET);
+
+		if (buffer.getInt(VERSION_OFFSET) != VERSION || now >= expiresAt || length <= 0 || length > capacity) {
+			return null;
+		}
+
+		byte[] response = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(HEADER_SIZE);
+		view.get(response);
+
+		ResponseSchema responseSchema = tokenGenerationObjectMapper.getReader(tokenGenerationSchema.getResponseSchema()).readValue(response);
+
+		return new CachedToken(responseSchema, buffer.getLong(ISSUED_AT_OFFSET), expiresAt);
+	}
+
+	/**
+	 * Reads the token of the given file valid at this moment, ignoring a response
+	 * that cannot be mapped (it is replaced by the load).
+	 *
+	 * @param tokenFile             - file of the schema.
+	 * @param name                  - name of the token provider.
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 *
+	 * @return {@code CachedToken} - valid token or {@code null} when there is none.
+	 */
+	private CachedToken readQuietly(TokenFile tokenFile, String name, TokenGenerationSchema tokenGenerationSchema) {
+		try {
+			return this.read(tokenFile, tokenGenerationSchema, System.currentTimeMillis());
+		}
+		catch (IOException e) {
+			LOGGER.warn(String.format(TOKEN_ILEGIVEL, name), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given token to the given file. Tokens whose response exceeds the
+	 * capacity of the file are not shared.
+	 *
+	 * @param tokenFile   - file of the schema.
+	 * @param name        - name of the token provider.
+	 * @param cachedToken - token to be written.
+	 *
+	 * @throws IOException thrown when the response cannot be serialized.
+	 */
+	private void write(TokenFile tokenFile, String name, CachedToken cachedToken) throws IOException {
+		byte[] response = tokenGenerationObjectMapper.getObjectMapper().writeValueAsBytes(cachedToken.getResponse());
+
+		if (response.length > capacity) {
+			LOGGER.warn(String.format(RESPONSE_EXCEDE_CAPACIDADE, name, response.length, capacity));
+			return;
+		}
+
+		MappedByteBuffer buffer = tokenFile.buffer;
+		ByteBuffer view = buffer.duplicate();
+		view.position(HEADER_SIZE);
+		view.put(response);
+
+		buffer.putLong(ISSUED_AT_OFFSET, cachedToken.getIssuedAt());
+		buffer.putLong(EXPIRES_AT_OFFSET, cachedToken.getExpiresAt());
+		buffer.putInt(LENGTH_OFFSET, response.length);
+		buffer.putInt(VERSION_OFFSET, VERSION);
+	}
+
+	/**
+	 * Returns the file of the given schema, opening and mapping it on first use.
+	 *
+	 * @param name - name of the token provider.
+	 *
+	 * @return {@code TokenFile} - file of the schema.
+	 * @throws IOException thrown when the file cannot be opened.
+	 */
+	private TokenFile getFile(String name) throws IOException {
+		TokenFile tokenFile = files.get(name);
+
+		if (Objects.nonNull(tokenFile)) {
+			return tokenFile;
+		}
+
+		synchronized (files) {
+			tokenFile = files.get(name);
+
+			if (Objects.isNull(tokenFile)) {
+				tokenFile = this.open(Paths.get(directory, name.replaceAll("[^A-Za-z0-9._-]", "_") + ".token"));
+				files.put(name, tokenFile);
+			}
+
+			return tokenFile;
+		}
+	}
+
+	/**
+	 * Opens and maps the given file, created readable only by its owner when the
+	 * file system supports it. Symbolic links are not followed and an existing
+	 * file owned by another user or accessible by others is refused.
+	 *
+	 * @param path - path of the file.
+	 *
+	 * @return {@code TokenFile} - mapped file.
+	 * @throws IOException thrown when the file cannot be opened or is not safe.
+	 */
+	private TokenFile open(Path path) throws IOException {
+		Set<OpenOption> options = new HashSet<>(Arrays.asList(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, 
+				LinkOption.NOFOLLOW_LINKS));
+		FileAttribute<?>[] attributes = this.isPosix() 
+				? new FileAttribute<?>[] { PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")) } 
+				: new FileAttribute<?>[0];
+
+		FileChannel channel = FileChannel.open(path, options, attributes);
+
+		try {
+			this.checkOwnerOnly(path, false);
+
+			return new TokenFile(channel, channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity));
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks the given path is not a symbolic link, belongs to the user of the
+	 * process and, when the file system supports it, is accessible only by them.
+	 *
+	 * @param path      - path of the directory or file.
+	 * @param directory - whether the path must be a directory (or else a regular
+	 *                  file).
+	 *
+	 * @throws IOException thrown when the path cannot be read or is not safe.
+	 */
+	private void checkOwnerOnly(Path path, boolean directory) throws IOException {
+		BasicFileAttributes attributes = this.isPosix() 
+				? Files.readAttributes(path, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+				: Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		UserPrincipal currentUser = path.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+
+		boolean safe = (directory ? attributes.isDirectory() : attributes.isRegularFile())
+				&& Objects.equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS), currentUser)
+				&& (!(attributes instanceof PosixFileAttributes) || OWNER_ONLY.containsAll(((PosixFileAttributes) attributes).permissions()));
+
+		if (!safe) {
+			throw new IOException(String.format(CAMINHO_INSEGURO, path));
+		}
+	}
+
+	/**
+	 * Returns whether the file system supports POSIX permissions.
+	 *
+	 * @return {@code boolean} - {@code true} when it does.
+	 */
+	private boolean isPosix() {
+		return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+	}
+
+	/**
+	 * Mapped file of a schema, with the lock serializing its use by the threads of
+	 * this process (file locks are held by the whole process).
+	 */
+	private static final class TokenFile {
+
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private TokenFile(FileChannel channel, MappedByteBuffer buffer) {
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+	}
+}
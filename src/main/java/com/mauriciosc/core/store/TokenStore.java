@@ -0,0 +1,77 @@
+package com.mauriciosc.core.store;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Store of tokens shared by the processes using the same credentials, consulted
+ * by the data provider behind its own cache: a token missing from the cache is
+ * read from the store and only generated when the store holds none, by a single
+ * process at a time.
+ * <p>
+ * Implementations are plugged in by declaring a bean of this type (e.g.
+ * {@link MappedFileTokenStore} for the processes of a single host). Tokens are
+ * identified by the name of their token provider, so only the tokens of
+ * {@link TokenGenerationSchema} beans are shared: ad-hoc schemas have no name
+ * and skip the store. When the store fails with an {@link IOException} the
+ * token is generated without it.
+ * <p>
+ * {@link #get} and {@link #put} are used by non-blocking callers, so they must
+ * not wait for the load of another process: they return nothing or skip the
+ * write instead.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-28
+ *
+ */
+public interface TokenStore {
+
+	/**
+	 * Returns the token shared for the given schema, as long as it is valid,
+	 * without waiting for a load in progress.
+	 *
+	 * @param name                  - name of the token provider.
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * @param now                   - current instant (epoch millis).
+	 *
+	 * @return {@code CachedToken} - valid shared token or {@code null} when there
+	 *         is none or it is being loaded.
+	 * @throws IOException thrown when the store cannot be read.
+	 */
+	CachedToken get(String name, TokenGenerationSchema tokenGenerationSchema, long now) throws IOException;
+
+	/**
+	 * Shares the given token, replacing the previous one, unless a load is in
+	 * progress.
+	 *
+	 * @param name                  - name of the token provider.
+	 * @param tokenGenerationSchema - schema the token was generated with.
+	 * @param cachedToken           - token to be shared.
+	 *
+	 * @throws IOException thrown when the store cannot be written.
+	 */
+	void put(String name, TokenGenerationSchema tokenGenerationSchema, CachedToken cachedToken) throws IOException;
+
+	/**
+	 * Returns the token shared for the given schema when it is valid and was
+	 * issued after the given instant, otherwise loads and shares a new one. The
+	 * processes sharing the store load one at a time, so the ones waiting read the
+	 * token loaded by the first one instead of loading another.
+	 *
+	 * @param name                  - name of the token provider.
+	 * @param tokenGenerationSchema - schema the token is generated with.
+	 * @param issuedAfter           - instant (epoch millis) the shared token must
+	 *                              be issued after to be reused, e.g. the issue
+	 *                              instant of the token being refreshed.
+	 * @param loader                - loader of a new token.
+	 *
+	 * @return {@code CachedToken} - shared or loaded token.
+	 * @throws IOException thrown when the store cannot be used.
+	 * @throws Exception   thrown by the loader.
+	 */
+	CachedToken load(String name, TokenGenerationSchema tokenGenerationSchema, long issuedAfter, Callable<CachedToken> loader)
+			throws Exception;
+}
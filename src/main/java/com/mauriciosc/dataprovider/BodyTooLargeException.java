@@ -0,0 +1,27 @@
+package com.mauriciosc.dataprovider;
+
+import java.io.IOException;
+
+/**
+ * Failure of a token generation response whose body exceeds the maximum size.
+ * It is a mapping failure of the response, not an I/O failure of the call.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-09-03
+ *
+ */
+class BodyTooLargeException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String RESPONSE_EXCEDE_LIMITE = "O response excede o tamanho máximo permitido de %d bytes.";
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param limit - maximum body size in bytes.
+	 */
+	BodyTooLargeException(long limit) {
+		super(String.format(RESPONSE_EXCEDE_LIMITE, limit));
+	}
+}
@@ -0,0 +1,131 @@
+package com.mauriciosc.dataprovider;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Reads the body of the token generation response straight from the HTTP
+ * stream, without buffering it into a {@code String} first. Bodies larger than
+ * the configured maximum size are rejected.
+ * <p>
+ * Parsing failures and oversized bodies are thrown as
+ * {@link UncheckedIOException} so that they are not mistaken for I/O failures
+ * of the call itself. Any other {@link IOException}, such as a connection reset
+ * while the body streams, is left to {@code RestTemplate}, which reports it as
+ * an access failure.
+ * 
+ * @param <T> - type read from the body.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-12
+ *
+ */
+class ResponseBodyExtractor<T> implements ResponseExtractor<T> {
+
+	private final BodyReader<T> bodyReader;
+	private final long maxBodySize;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param bodyReader  - reader of the body stream.
+	 * @param maxBodySize - maximum body size in bytes.
+	 */
+	ResponseBodyExtractor(BodyReader<T> bodyReader, long maxBodySize) {
+		this.bodyReader = bodyReader;
+		this.maxBodySize = maxBodySize;
+	}
+
+	@Override
+	public T extractData(ClientHttpResponse response) throws IOException {
+		try {
+			if (response.getHeaders().getContentLength() > maxBodySize) {
+				throw new BodyTooLargeException(maxBodySize);
+			}
+
+			try (InputStream body = new LimitedInputStream(response.getBody(), maxBodySize)) {
+				return bodyReader.read(body);
+			}
+		}
+		catch (JsonProcessingException | BodyTooLargeException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Reader of the response body stream.
+	 *
+	 * @param <T> - type read from the body.
+	 */
+	@FunctionalInterface
+	interface BodyReader<T> {
+
+		/**
+		 * Reads the given body stream.
+		 * 
+		 * @param body - body stream, limited to the maximum body size.
+		 * 
+		 * @return {@code T} - value read from the body.
+		 * 
+		 * @throws IOException exception thrown when the body can't be read or
+		 *                     parsed.
+		 */
+		T read(InputStream body) throws IOException;
+	}
+
+	/**
+	 * Stream failing once more than a maximum number of bytes is read.
+	 */
+	private static class LimitedInputStream extends FilterInputStream {
+
+		private final long limit;
+		private long count;
+
+		LimitedInputStream(InputStream in, long limit) {
+			super(in);
+			this.limit = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+
+			if (read >= 0) {
+				this.count(1);
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+
+			if (read > 0) {
+				this.count(read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long length) throws IOException {
+			long skipped = super.skip(length);
+			this.count(skipped);
+			return skipped;
+		}
+
+		private void count(long read) throws IOException {
+			count += read;
+
+			if (count > limit) {
+				throw new BodyTooLargeException(limit);
+			}
+		}
+	}
+}
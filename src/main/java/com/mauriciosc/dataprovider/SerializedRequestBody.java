@@ -0,0 +1,146 @@
+package com.mauriciosc.dataprovider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Request body serialized once, with its content headers (type and length),
+ * ready to be sent as is on every token generation call.
+ * <p>
+ * The body is written by the same message converter the {@link RestTemplate}
+ * would pick for it and its declared content type, so the bytes and headers sent
+ * are the ones a regular exchange sends.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-14
+ *
+ */
+final class SerializedRequestBody {
+
+	private static final String CONVERSOR_NAO_ENCONTRADO = "Nenhum conversor disponível para serializar o request do tipo %s com o content type %s.";
+
+	private final byte[] body;
+	private final HttpHeaders contentHeaders;
+
+	/**
+	 * All args constructor to set properties on instance setup.
+	 * 
+	 * @param body           - serialized body.
+	 * @param contentHeaders - content headers of the body.
+	 */
+	private SerializedRequestBody(byte[] body, HttpHeaders contentHeaders) {
+		this.body = body;
+		this.contentHeaders = contentHeaders;
+	}
+
+	/**
+	 * Serializes the given body with the message converters of the given template,
+	 * picking the first one able to write it with the given content type.
+	 * 
+	 * @param restTemplate - template whose converters are used.
+	 * @param requestBody  - body to be serialized.
+	 * @param contentType  - content type declared by the request headers or
+	 *                     {@code null} to let the converter choose it.
+	 * 
+	 * @return {@code SerializedRequestBody} - serialized body.
+	 * @throws IOException thrown when the body cannot be written.
+	 */
+	@SuppressWarnings("unchecked")
+	static SerializedRequestBody serialize(RestTemplate restTemplate, Object requestBody, MediaType contentType) throws IOException {
+		for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+			if (converter.canWrite(requestBody.getClass(), contentType)) {
+				ByteArrayOutputMessage outputMessage = new ByteArrayOutputMessage();
+				((HttpMessageConverter<Object>) converter).write(requestBody, contentType, outputMessage);
+
+				byte[] body = outputMessage.body.toByteArray();
+				HttpHeaders contentHeaders = new HttpHeaders();
+				contentHeaders.setContentType(outputMessage.headers.getContentType());
+				contentHeaders.setContentLength(body.length);
+
+				return new SerializedRequestBody(body, HttpHeaders.readOnlyHttpHeaders(contentHeaders));
+			}
+		}
+
+		throw new RestClientException(String.format(CONVERSOR_NAO_ENCONTRADO, requestBody.getClass().getName(), contentType));
+	}
+
+	/**
+	 * Creates the callback that writes the given headers and the serialized body
+	 * into the request. The content type and length of the body are only added
+	 * when the headers don't declare them.
+	 * 
+	 * @param restTemplate - template executing the request.
+	 * @param headers      - headers of the request.
+	 * 
+	 * @return {@code RequestCallback} - request callback.
+	 */
+	RequestCallback requestCallback(RestTemplate restTemplate, HttpHeaders headers) {
+		HttpHeaders requestHeaders = new HttpHeaders();
+		requestHeaders.putAll(headers);
+
+		if (Objects.isNull(requestHeaders.getContentType())) {
+			requestHeaders.setContentType(contentHeaders.getContentType());
+		}
+		if (requestHeaders.getContentLength() < 0) {
+			requestHeaders.setContentLength(contentHeaders.getContentLength());
+		}
+
+		RequestCallback headersCallback = restTemplate.httpEntityCallback(new HttpEntity<>(requestHeaders), JsonNode.class);
+
+		return request -> {
+			headersCallback.doWithRequest(request);
+			StreamUtils.copy(body, request.getBody());
+		};
+	}
+
+	/**
+	 * Returns the serialized body. The array is shared and must not be modified.
+	 * 
+	 * @return {@code byte[]} - serialized body.
+	 */
+	byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Returns the content type the body was serialized with.
+	 * 
+	 * @return {@code MediaType} - content type of the body.
+	 */
+	MediaType getContentType() {
+		return contentHeaders.getContentType();
+	}
+
+	/**
+	 * Output message collecting the written body in memory.
+	 */
+	private static class ByteArrayOutputMessage implements HttpOutputMessage {
+
+		private final HttpHeaders headers = new HttpHeaders();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return body;
+		}
+	}
+}
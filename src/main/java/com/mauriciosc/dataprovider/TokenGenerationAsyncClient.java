@@ -0,0 +1,290 @@
+package com.mauriciosc.dataprovider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.AsyncByteConsumer;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.UnknownHttpStatusCodeException;
+
+import com.mauriciosc.core.resilience.TokenCallDeadline;
+
+/**
+ * Non-blocking counterpart of the {@code RestTemplate} used on the token
+ * generation calls. Requests are multiplexed by a small number of I/O threads,
+ * so waiting for the identity provider does not park the calling thread.
+ * <p>
+ * Failures are reported the way the {@code RestTemplate} reports them: error
+ * statuses as {@link HttpClientErrorException} / {@link HttpServerErrorException},
+ * I/O failures as {@link ResourceAccessException} and bodies larger than the
+ * maximum size as {@link UncheckedIOException}. The client is only started on
+ * the first call.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-18
+ *
+ */
+@Component
+class TokenGenerationAsyncClient {
+
+	private static final String FALHA_IO = "I/O error on %s request for \"%s\": %s";
+	private static final String ACCEPT = MediaType.toString(
+			Arrays.asList(MediaType.APPLICATION_JSON, new MediaType("application", "*+json")));
+
+	@Value("${token.generation.http.max-connections:50}")
+	private int maxConnections;
+
+	@Value("${token.generation.http.max-connections-per-route:20}")
+	private int maxConnectionsPerRoute;
+
+	@Value("${token.generation.http.connect-timeout:2000}")
+	private int connectTimeout;
+
+	@Value("${token.generation.http.read-timeout:5000}")
+	private int readTimeout;
+
+	@Value("${token.generation.http.pool-acquire-timeout:1000}")
+	private int poolAcquireTimeout;
+
+	@Value("${token.generation.http.io-threads:1}")
+	private int ioThreads;
+
+	private volatile CloseableHttpAsyncClient httpAsyncClient;
+
+	/**
+	 * Sends a request with the given method, headers and body, completing the
+	 * future with the response body once it is fully received.
+	 *
+	 * @param method      - HTTP method of the request.
+	 * @param url         - url of the request.
+	 * @param headers     - headers of the request.
+	 * @param requestBody - serialized body of the request, may be {@code null}.
+	 * @param maxBodySize - maximum response body size in bytes.
+	 * @param deadline    - instant (epoch millis) bounding the timeouts of the
+	 *                    request or {@link TokenCallDeadline#NONE}.
+	 *
+	 * @return {@code CompletableFuture} - future completed with the response body
+	 *         or with the failure of the call.
+	 */
+	CompletableFuture<byte[]> execute(HttpMethod method, String url, HttpHeaders headers, SerializedRequestBody requestBody,
+			long maxBodySize, long deadline) {
+		CompletableFuture<byte[]> future = new CompletableFuture<>();
+
+		try {
+			RequestBuilder request = RequestBuilder.create(method.name()).setUri(url);
+			request.setHeader(HttpHeaders.ACCEPT, ACCEPT);
+
+			if (deadline != TokenCallDeadline.NONE) {
+				long remaining = deadline - System.currentTimeMillis();
+
+				request.setConfig(RequestConfig.custom()
+						.setConnectTimeout(TokenCallDeadline.bound(connectTimeout, remaining))
+						.setSocketTimeout(TokenCallDeadline.bound(readTimeout, remaining))
+						.setConnectionRequestTimeout(TokenCallDeadline.bound(poolAcquireTimeout, remaining))
+						.build());
+			}
+
+			headers.forEach((name, values) -> {
+				// framing headers are set by the client from the entity
+				if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+					request.removeHeaders(name);
+					values.forEach(value -> request.addHeader(name, value));
+				}
+			});
+
+			if (Objects.nonNull(requestBody)) {
+				MediaType contentType = requestBody.getContentType();
+				request.setEntity(new ByteArrayEntity(requestBody.getBody(),
+						Objects.isNull(contentType) ? null : ContentType.parse(contentType.toString())));
+			}
+
+			this.getHttpAsyncClient().execute(HttpAsyncMethods.create(request.build()), new LimitedBodyConsumer(maxBodySize),
+					new FutureCallback<byte[]>() {
+
+				@Override
+				public void completed(byte[] body) {
+					future.complete(body);
+				}
+
+				@Override
+				public void failed(Exception e) {
+					if (e instanceof BodyTooLargeException) {
+						future.completeExceptionally(new UncheckedIOException((IOException) e));
+					}
+					else if (e instanceof IOException) {
+						future.completeExceptionally(new ResourceAccessException(String.format(FALHA_IO, method, url, e.getMessage()), (IOException) e));
+					}
+					else {
+						future.completeExceptionally(e);
+					}
+				}
+
+				@Override
+				public void cancelled() {
+					future.cancel(false);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Closes the client, releasing its connections and I/O threads.
+	 *
+	 * @throws IOException thrown when the client cannot be closed.
+	 */
+	@PreDestroy
+	public void close() throws IOException {
+		if (Objects.nonNull(httpAsyncClient)) {
+			httpAsyncClient.close();
+		}
+	}
+
+	/**
+	 * Returns the client, creating and starting it on the first call.
+	 *
+	 * @return {@code CloseableHttpAsyncClient} - started client.
+	 */
+	private CloseableHttpAsyncClient getHttpAsyncClient() {
+		CloseableHttpAsyncClient client = httpAsyncClient;
+
+		if (Objects.isNull(client)) {
+			synchronized (this) {
+				client = httpAsyncClient;
+
+				if (Objects.isNull(client)) {
+					client = HttpAsyncClients.custom()
+							.setDefaultIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(ioThreads).build())
+							.setDefaultRequestConfig(RequestConfig.custom()
+									.setConnectTimeout(connectTimeout)
+									.setSocketTimeout(readTimeout)
+									.setConnectionRequestTimeout(poolAcquireTimeout)
+									.build())
+							.setMaxConnTotal(maxConnections)
+							.setMaxConnPerRoute(maxConnectionsPerRoute)
+							.disableCookieManagement()
+							.build();
+					client.start();
+
+					httpAsyncClient = client;
+				}
+			}
+		}
+
+		return client;
+	}
+
+	/**
+	 * Consumer buffering the response body up to a maximum size and failing with
+	 * the same exceptions the {@code RestTemplate} throws for error statuses.
+	 */
+	private static class LimitedBodyConsumer extends AsyncByteConsumer<byte[]> {
+
+		private final long limit;
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+		private HttpResponse response;
+		// reused to copy direct buffers, which expose no backing array
+		private byte[] chunk;
+
+		LimitedBodyConsumer(long limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		protected void onResponseReceived(HttpResponse response) throws IOException {
+			HttpEntity entity = response.getEntity();
+
+			if (Objects.nonNull(entity) && entity.getContentLength() > limit) {
+				throw new BodyTooLargeException(limit);
+			}
+
+			this.response = response;
+		}
+
+		@Override
+		protected void onByteReceived(ByteBuffer buffer, IOControl ioControl) throws IOException {
+			if (body.size() + (long) buffer.remaining() > limit) {
+				throw new BodyTooLargeException(limit);
+			}
+
+			int length = buffer.remaining();
+
+			// copied in bulk, this runs on the I/O reactor thread shared by every call
+			if (buffer.hasArray()) {
+				body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+				buffer.position(buffer.limit());
+				return;
+			}
+
+			if (Objects.isNull(chunk) || chunk.length < length) {
+				chunk = new byte[length];
+			}
+
+			buffer.get(chunk, 0, length);
+			body.write(chunk, 0, length);
+		}
+
+		@Override
+		protected byte[] buildResult(HttpContext context) {
+			byte[] content = body.toByteArray();
+			int rawStatus = response.getStatusLine().getStatusCode();
+			HttpStatus.Series series = HttpStatus.Series.resolve(rawStatus);
+
+			if (series != HttpStatus.Series.CLIENT_ERROR && series != HttpStatus.Series.SERVER_ERROR) {
+				return content;
+			}
+
+			HttpHeaders headers = new HttpHeaders();
+			for (Header header : response.getAllHeaders()) {
+				headers.add(header.getName(), header.getValue());
+			}
+
+			String statusText = response.getStatusLine().getReasonPhrase();
+			MediaType contentType = headers.getContentType();
+			Charset charset = Objects.isNull(contentType) ? null : contentType.getCharset();
+			HttpStatus status = HttpStatus.resolve(rawStatus);
+
+			if (Objects.isNull(status)) {
+				throw new UnknownHttpStatusCodeException(rawStatus, statusText, headers, content, charset);
+			}
+			if (series == HttpStatus.Series.CLIENT_ERROR) {
+				throw HttpClientErrorException.create(status, statusText, headers, content, charset);
+			}
+			throw HttpServerErrorException.create(status, statusText, headers, content, charset);
+		}
+	}
+}
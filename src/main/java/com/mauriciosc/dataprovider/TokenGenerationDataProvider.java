@@ -1,34 +1,92 @@
 package com.mauriciosc.dataprovider;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.cache.ExpiryFieldsParser;
+import com.mauriciosc.core.cache.TokenCache;
+import com.mauriciosc.core.cache.TokenExpiryResolver;
+import com.mauriciosc.core.exception.TokenBulkheadFullException;
 import com.mauriciosc.core.exception.TokenGenerationHeaderManipulationException;
+import com.mauriciosc.core.exception.TokenGenerationUnavailableException;
+import com.mauriciosc.core.header.HeaderExtractor;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
 import com.mauriciosc.core.exception.ResponseSchemaMappingException;
 import com.mauriciosc.core.exception.UrlNotProvidedException;
 import com.mauriciosc.core.model.request.HeaderModelRequest;
 import com.mauriciosc.core.model.request.TokenModelRequest;
+import com.mauriciosc.core.model.response.TokenBatchResponse;
+import com.mauriciosc.core.resilience.TokenBulkhead;
+import com.mauriciosc.core.resilience.TokenCallDeadline;
+import com.mauriciosc.core.resilience.TokenCircuitBreaker;
+import com.mauriciosc.core.resilience.TokenRetryPolicy;
 import com.mauriciosc.core.schema.ResponseSchema;
 import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenPipelineStage;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
+import com.mauriciosc.core.store.TokenStore;
+import com.mauriciosc.metrics.TokenGenerationMetrics;
 
 /**
  * Executes the calls to created a token based on the given schema
  * (headers, request and response).
+ * <p>
+ * When a {@link TokenStore} bean is declared, tokens missing from the cache are
+ * read from the store, shared with other processes, before being generated.
+ * <p>
+ * The calls of each schema follow the settings (url, HTTP method, timeout and
+ * cache) of its {@link TokenProvider}, resolved on startup by the
+ * {@link TokenProviderRegistry}; schemas that are not beans use the global
+ * settings.
+ * <p>
+ * Batches of tokens ({@code createTokens}) are generated in parallel: the
+ * tokens missing from the cache are generated on a bounded pool of threads, so
+ * a batch takes as long as its longest call instead of the sum of them.
+ * <p>
+ * The calls of a {@link TokenPipelineStage} are built from the token of its
+ * previous stage, read from the cache (or generated) as any other token.
  * 
  * @author Mauricio Souza Couto
  * @since 2020-07-24
@@ -42,15 +100,102 @@ public class TokenGenerationDataProvider {
 	private static final String FALHA_MANIPULACAO_HEADERS = "Falha na manipulação dos headers da requisição";
 	private static final String URL_NOT_PROVIDED = "Não foi possível identificar a url de autenticação. Verifique a parametrização da propriedade 'authentication.url'";
 	private static final String FALHA_DESSERIALIZACAO_RESPONSE = "Falha ao desserializar o response no schema indicado.";
+	private static final String RESPONSE_VAZIO = "O response da geração do token está vazio.";
+	private static final String FALHA_SERIALIZACAO_REQUEST = "Falha ao serializar o request da geração do token.";
+	private static final String FALHA_RENOVACAO_TOKEN = "Falha na renovação antecipada do token.";
+	private static final String NOVA_TENTATIVA = "Falha na tentativa %d da geração do token, nova tentativa em %d ms.";
+	private static final String TOKEN_EXPIRADO_SERVIDO = "API de geração do token indisponível, servindo o token expirado há %d ms.";
+	private static final String PROVIDER_NAO_ENCONTRADO = "Não existe o token provider %s.";
+	private static final String FALHA_TOKEN_STORE = "Falha no acesso ao token compartilhado, o token é gerado sem o compartilhamento.";
 
 	@Autowired
 	private RestTemplate restTemplate;
 
+	@Autowired
+	private TokenCache tokenCache;
+
+	@Autowired
+	private TokenExpiryResolver tokenExpiryResolver;
+
+	@Autowired
+	private HeaderExtractor headerExtractor;
+
+	@Autowired
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	@Autowired
+	private TokenGenerationAsyncClient tokenGenerationAsyncClient;
+
+	@Autowired
+	private TokenBulkhead tokenBulkhead;
+
+	@Autowired
+	private TokenCircuitBreaker tokenCircuitBreaker;
+
+	@Autowired
+	private TokenRetryPolicy tokenRetryPolicy;
+
+	@Autowired
+	private TokenGenerationMetrics tokenGenerationMetrics;
+
+	@Autowired
+	private ObjectProvider<TokenStore> tokenStore;
+
+	@Autowired
+	private TokenProviderRegistry tokenProviderRegistry;
+
 	@Value("${token.generation.url:@null}")
 	private String tokenGenerationUrl;
+
+	private boolean urlProvided;
+
+	@Value("${token.generation.cache.enabled:true}")
+	private boolean cacheEnabled;
+
+	@Value("${token.generation.response.max-size:1048576}")
+	private long maxResponseSize;
+
+	@Value("${token.generation.cache.grace-period:0}")
+	private long gracePeriodSeconds;
+
+	@Value("${token.generation.retry.retry-after-send:false}")
+	private boolean retryAfterSend;
+
+	@Value("${token.generation.batch.threads:8}")
+	private int batchThreads;
+
+	@Value("${token.generation.batch.queue-size:64}")
+	private int batchQueueSize;
+
+	private volatile ExecutorService batchExecutor;
+
+	private final Map<TokenGenerationSchema, Long> refreshLags = new ConcurrentHashMap<>();
+	private final AtomicLong failedRefreshes = new AtomicLong();
+	private final AtomicLong staleResponses = new AtomicLong();
+	private final Map<TokenGenerationSchema, SerializedRequestBody> serializedRequestBodies = 
+			new ConcurrentReferenceHashMap<>(16, ReferenceType.SOFT);
 	
 	/**
-	 * Creates and executes the token generation call based on the given schema.
+	 * Validates the authentication url once, on startup. A missing url is logged
+	 * here and every call then fails with {@link UrlNotProvidedException}.
+	 */
+	@PostConstruct
+	public void init() {
+		urlProvided = StringUtils.isNotBlank(this.tokenGenerationUrl);
+		
+		if(!urlProvided) {
+			LOGGER.error(URL_NOT_PROVIDED);
+		}
+	}
+	
+	/**
+	 * Returns a token for the given schema. The token is served from the cache
+	 * while it is valid and generated again once it expires. Concurrent callers
+	 * of the same schema share a single token generation call.
+	 * <p>
+	 * While the token generation API is unavailable (server errors, I/O failures,
+	 * open circuit or full bulkhead), a token expired for less than the grace
+	 * period is still served.
 	 * 
 	 * @param tokenGenerationSchema - schema of the request/response call.
 	 * 
@@ -64,76 +209,1197 @@ public class TokenGenerationDataProvider {
 	 *                                                   failure when unmarshalling
 	 *                                                   the response body into the
 	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
 	 */
 	public ResponseSchema createToken(TokenGenerationSchema tokenGenerationSchema) 
-			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException {	
-		
-		this.validateUrl();
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {	
 		
-		ObjectMapper objectMapper = new ObjectMapper();
-		
-		MultiValueMap<String, String> headers = this.createHeaders(tokenGenerationSchema.getHeaderModelRequest());
-		
-		HttpEntity<TokenModelRequest> httpEntity = 
-				new HttpEntity<>(tokenGenerationSchema.getTokenModelRequest(), headers);
+		return this.createToken(this.getProvider(tokenGenerationSchema));
+	}
+
+	/**
+	 * Returns a token of the provider registered under the given name, as
+	 * {@link #createToken(TokenGenerationSchema)} does for its schema.
+	 * 
+	 * @param name - name of the provider (or of the schema bean).
+	 * 
+	 * @throws IllegalArgumentException                  exception thrown when no
+	 *                                                   provider is registered
+	 *                                                   under the name.
+	 * @throws TokenGenerationHeaderManipulationException exception thrown in case of
+	 *                                                   failure when manipulating
+	 *                                                   the headers of the request.
+	 * @throws UrlNotProvidedException                   exception thrown when the
+	 *                                                   request url is not
+	 *                                                   provided.
+	 * @throws ResponseSchemaMappingException            exception thrown in case of
+	 *                                                   failure when unmarshalling
+	 *                                                   the response body into the
+	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
+	 */
+	public ResponseSchema createToken(String name) 
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {
 		
-		ResponseEntity<String> responseEntity = 
-				restTemplate.exchange(tokenGenerationUrl, 
-										HttpMethod.POST,
-										httpEntity, 
-										new ParameterizedTypeReference<String>() {});
+		return this.createToken(this.getProvider(name));
+	}
+
+	/**
+	 * Returns a token of the given provider, from the cache when it is enabled.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * 
+	 * @return {@code ResponseSchema} - token of the provider.
+	 * 
+	 * @throws TokenGenerationHeaderManipulationException exception thrown in case of
+	 *                                                   failure when manipulating
+	 *                                                   the headers of the request.
+	 * @throws UrlNotProvidedException                   exception thrown when the
+	 *                                                   request url is not
+	 *                                                   provided.
+	 * @throws ResponseSchemaMappingException            exception thrown in case of
+	 *                                                   failure when unmarshalling
+	 *                                                   the response body into the
+	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
+	 */
+	private ResponseSchema createToken(TokenProvider tokenProvider) 
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {
 		
+		this.validateUrl(tokenProvider);
+
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+
+		if(!tokenProvider.isCacheEnabled()) {
+			return this.fetchToken(tokenProvider).getResponse();
+		}
+
+		long now = System.currentTimeMillis();
+		CachedToken validToken = tokenCache.get(tokenGenerationSchema, now);
+
+		if(Objects.nonNull(validToken)) {
+			tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+			return validToken.getResponse();
+		}
+
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_MISS);
+		CompletableFuture<CachedToken> cachedToken = tokenCache.getOrLoad(tokenGenerationSchema, now, schema -> this.loadToken(tokenProvider));
+
 		try {
-			return objectMapper.readValue(responseEntity.getBody(), tokenGenerationSchema.getResponseSchema());			
+			return this.await(cachedToken).getResponse();
 		}
-		catch(Exception e) {
-			LOGGER.error(FALHA_DESSERIALIZACAO_RESPONSE, e);
-			throw new ResponseSchemaMappingException(FALHA_DESSERIALIZACAO_RESPONSE);
+		catch(TokenGenerationUnavailableException | RuntimeException e) {
+			CachedToken staleToken = this.getStaleToken(tokenProvider, e);
+
+			if(Objects.isNull(staleToken)) {
+				throw e;
+			}
+			return staleToken.getResponse();
 		}
 	}
 
 	/**
-	 * Validates if the authentication url is provided.
+	 * Non-blocking counterpart of {@link #createToken(TokenGenerationSchema)}. The
+	 * calling thread is released right away and the returned future is completed
+	 * once the token is available. Synchronous and asynchronous callers of the
+	 * same schema share the cached token and the in-flight generation call.
+	 * <p>
+	 * Failures complete the future exceptionally with the exceptions
+	 * {@code createToken} throws ({@link TokenGenerationHeaderManipulationException},
+	 * {@link UrlNotProvidedException}, {@link ResponseSchemaMappingException},
+	 * {@link TokenGenerationUnavailableException} or the
+	 * {@code RestClientException} of the call). Non-blocking calls do not wait for
+	 * a free slot of the bulkhead, they fail right away when none is free.
 	 * 
-	 * @throws UrlNotProvidedException thrown when the authentication url is null or
-	 *                                 black (filled with spaces).
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * 
+	 * @return {@code CompletableFuture} - future completed with the token.
 	 */
-	private void validateUrl() throws UrlNotProvidedException {
-		if(StringUtils.isBlank(this.tokenGenerationUrl)) {
-			LOGGER.error(URL_NOT_PROVIDED);
-			throw new UrlNotProvidedException(URL_NOT_PROVIDED);
-		}	
+	public CompletableFuture<ResponseSchema> createTokenAsync(TokenGenerationSchema tokenGenerationSchema) {
+		return this.createTokenAsync(this.getProvider(tokenGenerationSchema));
 	}
 
 	/**
-	 * Converts a {@link HeaderModelRequest} instance into a {@link MultiValueMap}.
+	 * Non-blocking counterpart of {@link #createToken(String)}. The future fails
+	 * with an {@link IllegalArgumentException} when no provider is registered
+	 * under the name.
 	 * 
-	 * @param headerSchema - object to be converted.
+	 * @param name - name of the provider (or of the schema bean).
 	 * 
-	 * @return {@code MultiValueMap} - map containing the headers based on the given
-	 *         header schema.
-	 * @throws TokenGenerationHeaderManipulationException
+	 * @return {@code CompletableFuture} - future completed with the token.
 	 */
-	@SuppressWarnings("unchecked")
-	private MultiValueMap<String, String> createHeaders(HeaderModelRequest headerSchema) throws TokenGenerationHeaderManipulationException {
-		ObjectMapper mapper = new ObjectMapper();
-		MultiValueMap<String, String> multiValueMap = new LinkedMultiValueMap<>();
-		
-		if(Objects.nonNull(headerSchema)) {
+	public CompletableFuture<ResponseSchema> createTokenAsync(String name) {
+		TokenProvider tokenProvider;
+
+		try {
+			tokenProvider = this.getProvider(name);
+		}
+		catch(IllegalArgumentException e) {
+			CompletableFuture<ResponseSchema> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+
+		return this.createTokenAsync(tokenProvider);
+	}
+
+	/**
+	 * Returns a future of a token of the given provider, completed right away
+	 * when the token is cached.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * 
+	 * @return {@code CompletableFuture} - future completed with the token.
+	 */
+	private CompletableFuture<ResponseSchema> createTokenAsync(TokenProvider tokenProvider) {
+		try {
+			this.validateUrl(tokenProvider);
+		}
+		catch(UrlNotProvidedException e) {
+			CompletableFuture<ResponseSchema> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+
+		if(!tokenProvider.isCacheEnabled()) {
+			return this.loadTokenAsync(tokenProvider).thenApply(CachedToken::getResponse);
+		}
+
+		long now = System.currentTimeMillis();
+		CachedToken validToken = tokenCache.get(tokenGenerationSchema, now);
+
+		if(Objects.nonNull(validToken)) {
+			tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+			return CompletableFuture.completedFuture(validToken.getResponse());
+		}
+
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_MISS);
+		CompletableFuture<CachedToken> cachedToken = tokenCache.getOrLoad(tokenGenerationSchema, now, schema -> this.loadTokenAsync(tokenProvider));
+
+		return cachedToken.handle((token, error) -> {
+			if(Objects.isNull(error)) {
+				return token.getResponse();
+			}
+
+			Throwable cause = error instanceof CompletionException && Objects.nonNull(error.getCause()) ? error.getCause() : error;
+			CachedToken staleToken = this.getStaleToken(tokenProvider, cause);
+
+			if(Objects.isNull(staleToken)) {
+				throw new CompletionException(cause);
+			}
+			return staleToken.getResponse();
+		});
+	}
+
+	/**
+	 * Returns the tokens of the given schemas, as
+	 * {@link #createToken(TokenGenerationSchema)} does for each one of them. Cached
+	 * tokens are served in the calling thread, while the missing ones are
+	 * generated in parallel, so the batch takes as long as its longest call.
+	 * <p>
+	 * The failure of a schema does not fail the batch: it is returned along with
+	 * the tokens of the other schemas.
+	 * 
+	 * @param tokenGenerationSchemas - schemas of the request/response calls.
+	 * 
+	 * @return {@code TokenBatchResponse} - tokens and failures by schema.
+	 */
+	public TokenBatchResponse<TokenGenerationSchema> createTokens(Collection<TokenGenerationSchema> tokenGenerationSchemas) {
+		Map<TokenGenerationSchema, TokenProvider> tokenProviders = new LinkedHashMap<>();
+		tokenGenerationSchemas.forEach(schema -> tokenProviders.put(schema, this.getProvider(schema)));
+
+		return this.createTokens(tokenProviders, new LinkedHashMap<>());
+	}
+
+	/**
+	 * Returns the tokens of the providers registered under the given names, as
+	 * {@link #createTokens(Collection)} does for their schemas. Names with no
+	 * registered provider are returned as failures ({@link IllegalArgumentException}).
+	 * 
+	 * @param names - names of the providers (or of the schema beans).
+	 * 
+	 * @return {@code TokenBatchResponse} - tokens and failures by name.
+	 */
+	public TokenBatchResponse<String> createTokens(String... names) {
+		Map<String, TokenProvider> tokenProviders = new LinkedHashMap<>();
+		Map<String, Exception> failures = new LinkedHashMap<>();
+
+		for(String name : names) {
 			try {
-				Map<String, Object> objectMap = mapper.convertValue(headerSchema, Map.class);
-				
-				objectMap.entrySet()
-					.forEach(entry -> {
-						multiValueMap.add(entry.getKey(), String.valueOf(entry.getValue()));			
-					});
+				tokenProviders.put(name, this.getProvider(name));
+			}
+			catch(IllegalArgumentException e) {
+				failures.put(name, e);
+			}
+		}
+
+		return this.createTokens(tokenProviders, failures);
+	}
+
+	/**
+	 * Returns the tokens of the given providers. The last missing token is
+	 * generated in the calling thread, which then waits for the other ones.
+	 * 
+	 * @param <K>            type of the keys.
+	 * @param tokenProviders - providers by key.
+	 * @param failures       - failures already found, by key.
+	 * 
+	 * @return {@code TokenBatchResponse} - tokens and failures by key.
+	 */
+	private <K> TokenBatchResponse<K> createTokens(Map<K, TokenProvider> tokenProviders, Map<K, Exception> failures) {
+		Map<K, CompletableFuture<ResponseSchema>> futures = new LinkedHashMap<>();
+		List<Runnable> missingTokens = new ArrayList<>();
+		long now = System.currentTimeMillis();
+
+		tokenProviders.forEach((key, tokenProvider) -> {
+			CompletableFuture<ResponseSchema> future = new CompletableFuture<>();
+			futures.put(key, future);
+
+			if(tokenProvider.isCacheEnabled() && Objects.nonNull(tokenCache.get(tokenProvider.getSchema(), now))) {
+				this.createToken(tokenProvider, future);
+			}
+			else {
+				missingTokens.add(() -> this.createToken(tokenProvider, future));
+			}
+		});
+
+		for(int i = 0; i < missingTokens.size() - 1; i++) {
+			this.getBatchExecutor().execute(missingTokens.get(i));
+		}
+		if(!missingTokens.isEmpty()) {
+			missingTokens.get(missingTokens.size() - 1).run();
+		}
+
+		Map<K, ResponseSchema> responses = new LinkedHashMap<>();
+
+		futures.forEach((key, future) -> {
+			try {
+				responses.put(key, future.join());
+			}
+			catch(CompletionException e) {
+				Throwable cause = Objects.nonNull(e.getCause()) ? e.getCause() : e;
+
+				if(cause instanceof Error) {
+					throw (Error) cause;
+				}
+				failures.put(key, (Exception) cause);
 			}
-			catch (Exception e) {
-				LOGGER.error(FALHA_MANIPULACAO_HEADERS, e);
-				throw new TokenGenerationHeaderManipulationException(FALHA_MANIPULACAO_HEADERS);
+		});
+
+		return new TokenBatchResponse<>(responses, failures);
+	}
+
+	/**
+	 * Completes the given future with a token of the given provider or with the
+	 * failure of its generation.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * @param future        - future of the token.
+	 */
+	private void createToken(TokenProvider tokenProvider, CompletableFuture<ResponseSchema> future) {
+		try {
+			future.complete(this.createToken(tokenProvider));
+		}
+		catch(Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Returns the pool of threads generating the batches of tokens, created on the
+	 * first batch. Once every thread is busy and the queue is full (or after the
+	 * pool is stopped), the calling thread generates the token itself.
+	 * 
+	 * @return {@code ExecutorService} - batch executor.
+	 */
+	private ExecutorService getBatchExecutor() {
+		ExecutorService executor = batchExecutor;
+
+		if(Objects.isNull(executor)) {
+			synchronized(this) {
+				executor = batchExecutor;
+
+				if(Objects.isNull(executor)) {
+					AtomicInteger threadCount = new AtomicInteger();
+					int threads = Math.max(1, batchThreads);
+					ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(Math.max(1, batchQueueSize)), runnable -> {
+								Thread thread = new Thread(runnable, "token-batch-" + threadCount.incrementAndGet());
+								thread.setDaemon(true);
+								return thread;
+							}, (runnable, pool) -> runnable.run()); // runs even once shut down, so no future is left incomplete
+					threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+					executor = threadPoolExecutor;
+					batchExecutor = executor;
+				}
 			}
 		}
+
+		return executor;
+	}
+
+	/**
+	 * Stops the threads generating the batches of tokens.
+	 */
+	@PreDestroy
+	public void stop() {
+		if(Objects.nonNull(batchExecutor)) {
+			batchExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Generates a new token for the given schema and caches it, even if the
+	 * current one is still valid. Used to renew tokens ahead of their expiry, so
+	 * the outcome is recorded as the refresh lag or as a failed refresh.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * @param dueAt                 - instant (epoch millis) when the refresh was
+	 *                              due.
+	 * 
+	 * @return {@code CachedToken} - renewed token and its expiry.
+	 * 
+	 * @throws TokenGenerationHeaderManipulationException exception thrown in case of
+	 *                                                   failure when manipulating
+	 *                                                   the headers of the request.
+	 * @throws UrlNotProvidedException                   exception thrown when the
+	 *                                                   request url is not
+	 *                                                   provided.
+	 * @throws ResponseSchemaMappingException            exception thrown in case of
+	 *                                                   failure when unmarshalling
+	 *                                                   the response body into the
+	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
+	 */
+	public CachedToken refreshToken(TokenGenerationSchema tokenGenerationSchema, long dueAt) 
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {
 		
-		return multiValueMap;
+		try {
+			TokenProvider tokenProvider = this.getProvider(tokenGenerationSchema);
+			this.validateUrl(tokenProvider);
+			
+			CachedToken currentToken = tokenCache.peek(tokenGenerationSchema);
+			long issuedAfter = Objects.isNull(currentToken) ? Long.MIN_VALUE : currentToken.getIssuedAt();
+			
+			CachedToken cachedToken = this.await(tokenCache.load(tokenGenerationSchema, schema -> this.loadToken(tokenProvider, issuedAfter)));
+			refreshLags.put(tokenGenerationSchema, Math.max(0L, System.currentTimeMillis() - dueAt));
+			tokenGenerationMetrics.recordRefresh(tokenGenerationSchema, null);
+			
+			return cachedToken;
+		}
+		catch(Exception e) {
+			failedRefreshes.incrementAndGet();
+			tokenGenerationMetrics.recordRefresh(tokenGenerationSchema, e);
+			LOGGER.warn(FALHA_RENOVACAO_TOKEN, e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the delay between the instant the last refresh of the given schema
+	 * was due and the instant it completed.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * 
+	 * @return {@code long} - refresh lag in millis or {@code -1} when the schema
+	 *         was never refreshed.
+	 */
+	public long getRefreshLag(TokenGenerationSchema tokenGenerationSchema) {
+		return refreshLags.getOrDefault(tokenGenerationSchema, -1L);
+	}
+
+	/**
+	 * Returns the number of refreshes that failed.
+	 * 
+	 * @return {@code long} - failed refreshes count.
+	 */
+	public long getFailedRefreshes() {
+		return failedRefreshes.get();
+	}
+
+	/**
+	 * Returns for how long the token cached for the given schema has been
+	 * expired, which is how stale the token served during an outage is.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * 
+	 * @return {@code long} - staleness in millis, {@code 0} when the cached token
+	 *         is valid or {@code -1} when there is none.
+	 */
+	public long getStaleness(TokenGenerationSchema tokenGenerationSchema) {
+		CachedToken cachedToken = tokenCache.peek(tokenGenerationSchema);
+
+		return Objects.isNull(cachedToken) ? -1L : cachedToken.getStaleness(System.currentTimeMillis());
+	}
+
+	/**
+	 * Returns the number of expired tokens served during outages of the token
+	 * generation API.
+	 * 
+	 * @return {@code long} - stale responses count.
+	 */
+	public long getStaleResponses() {
+		return staleResponses.get();
+	}
+
+	/**
+	 * Returns the expired token to be served in place of a failed token
+	 * generation, when the failure means the token generation API is unavailable
+	 * and the token expired within the grace period.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * @param failure       - failure of the token generation.
+	 * 
+	 * @return {@code CachedToken} - expired token or {@code null} when none can be
+	 *         served.
+	 */
+	private CachedToken getStaleToken(TokenProvider tokenProvider, Throwable failure) {
+		if(tokenProvider.getGracePeriod() <= 0
+				|| !(failure instanceof TokenGenerationUnavailableException || tokenCircuitBreaker.isFailure(failure))) {
+			return null;
+		}
+
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+		long now = System.currentTimeMillis();
+		CachedToken staleToken = tokenCache.getStale(tokenGenerationSchema, now, tokenProvider.getGracePeriod());
+
+		if(Objects.nonNull(staleToken)) {
+			staleResponses.incrementAndGet();
+			tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_STALE);
+			LOGGER.warn(String.format(TOKEN_EXPIRADO_SERVIDO, staleToken.getStaleness(now)), failure);
+		}
+
+		return staleToken;
+	}
+
+	/**
+	 * Loads a token in the calling thread, wrapping the outcome in a future so
+	 * that it can be shared with concurrent callers of the same schema.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 *
+	 * @return {@code CompletableFuture} - future completed with the generated token
+	 *         or with the failure of the call.
+	 */
+	private CompletableFuture<CachedToken> loadToken(TokenProvider tokenProvider) {
+		return this.loadToken(tokenProvider, Long.MIN_VALUE);
+	}
+
+	/**
+	 * Loads a token in the calling thread, reusing the token shared by the
+	 * {@link TokenStore} when it was issued after the given instant.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 * @param issuedAfter   - instant (epoch millis) a shared token must be issued
+	 *                      after to be reused.
+	 *
+	 * @return {@code CompletableFuture} - future completed with the token or with
+	 *         the failure of the call.
+	 */
+	private CompletableFuture<CachedToken> loadToken(TokenProvider tokenProvider, long issuedAfter) {
+		CompletableFuture<CachedToken> future = new CompletableFuture<>();
+
+		try {
+			future.complete(this.fetchSharedToken(tokenProvider, issuedAfter));
+		}
+		catch(Exception e) {
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Loads a token through the non-blocking client. The response is mapped on
+	 * the I/O thread that received it and failed attempts are retried on the
+	 * retry thread, so no thread waits for the call.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 *
+	 * @return {@code CompletableFuture} - future completed with the generated token
+	 *         or with the failure of the call.
+	 */
+	private CompletableFuture<CachedToken> loadTokenAsync(TokenProvider tokenProvider) {
+		CompletableFuture<CachedToken> future = new CompletableFuture<>();
+
+		try {
+			TokenStore store = this.getTokenStore(tokenProvider);
+			CachedToken sharedToken = this.getSharedToken(store, tokenProvider);
+
+			if(Objects.nonNull(sharedToken)) {
+				future.complete(sharedToken);
+				return future;
+			}
+
+			this.bindRequestAsync(tokenProvider).whenComplete((requestSchema, error) -> {
+				if(Objects.nonNull(error)) {
+					future.completeExceptionally(error instanceof CompletionException && Objects.nonNull(error.getCause()) ? error.getCause() : error);
+					return;
+				}
+
+				try {
+					HttpHeaders headers = this.createHeaders(requestSchema);
+					SerializedRequestBody requestBody = this.serializeRequest(requestSchema, headers);
+					long deadline = this.getDeadline(tokenProvider, System.currentTimeMillis());
+
+					this.exchangeAsync(tokenProvider, headers, requestBody, 1, deadline, future);
+				}
+				catch(Exception e) {
+					future.completeExceptionally(e);
+				}
+			});
+
+			if(Objects.nonNull(store)) {
+				future.thenAccept(token -> this.putSharedToken(store, tokenProvider, token));
+			}
+		}
+		catch(Exception e) {
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Generates a token through the {@link TokenStore}, when one is declared, so
+	 * that a valid token shared by another process is reused instead.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 * @param issuedAfter   - instant (epoch millis) a shared token must be issued
+	 *                      after to be reused.
+	 *
+	 * @return {@code CachedToken} - shared or generated token.
+	 * @throws Exception exceptions thrown by the token generation call.
+	 */
+	private CachedToken fetchSharedToken(TokenProvider tokenProvider, long issuedAfter) throws Exception {
+		TokenStore store = this.getTokenStore(tokenProvider);
+
+		if(Objects.isNull(store)) {
+			return this.fetchToken(tokenProvider);
+		}
+
+		try {
+			return store.load(tokenProvider.getName(), tokenProvider.getSchema(), issuedAfter, () -> this.fetchToken(tokenProvider));
+		}
+		catch(IOException e) {
+			LOGGER.warn(FALHA_TOKEN_STORE, e);
+			return this.fetchToken(tokenProvider);
+		}
+	}
+
+	/**
+	 * Returns the store sharing the tokens of the given provider. The tokens are
+	 * identified in the store by the provider name, so the tokens of ad-hoc
+	 * schemas (not beans, hence without a name) are not shared.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 *
+	 * @return {@code TokenStore} - store or {@code null} when none is declared or
+	 *         the provider has no name.
+	 */
+	private TokenStore getTokenStore(TokenProvider tokenProvider) {
+		if(Objects.isNull(tokenProvider.getName())) {
+			return null;
+		}
+
+		return tokenStore.getIfAvailable();
+	}
+
+	/**
+	 * Returns the valid token shared by the given store, if any.
+	 *
+	 * @param store         - store of the shared tokens or {@code null}.
+	 * @param tokenProvider - provider of the token.
+	 *
+	 * @return {@code CachedToken} - shared token or {@code null} when there is
+	 *         none.
+	 */
+	private CachedToken getSharedToken(TokenStore store, TokenProvider tokenProvider) {
+		if(Objects.isNull(store)) {
+			return null;
+		}
+
+		try {
+			return store.get(tokenProvider.getName(), tokenProvider.getSchema(), System.currentTimeMillis());
+		}
+		catch(IOException e) {
+			LOGGER.warn(FALHA_TOKEN_STORE, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Shares the given token through the given store.
+	 *
+	 * @param store         - store of the shared tokens.
+	 * @param tokenProvider - provider of the token.
+	 * @param cachedToken   - token to be shared.
+	 */
+	private void putSharedToken(TokenStore store, TokenProvider tokenProvider, CachedToken cachedToken) {
+		try {
+			store.put(tokenProvider.getName(), tokenProvider.getSchema(), cachedToken);
+		}
+		catch(IOException e) {
+			LOGGER.warn(FALHA_TOKEN_STORE, e);
+		}
+	}
+
+	/**
+	 * Executes an attempt of a non-blocking token generation call, scheduling the
+	 * next attempt when it fails with a retryable failure.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 * @param headers       - headers of the request.
+	 * @param requestBody   - serialized body of the request.
+	 * @param attempt       - number of the attempt (starting at 1).
+	 * @param deadline      - deadline (epoch millis) of the call.
+	 * @param future        - future of the call.
+	 */
+	private void exchangeAsync(TokenProvider tokenProvider, HttpHeaders headers, SerializedRequestBody requestBody,
+			int attempt, long deadline, CompletableFuture<CachedToken> future) {
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+
+		try {
+			tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+
+			try {
+				// non-blocking callers take a free slot or fail, they never wait in the queue
+				tokenBulkhead.tryAcquire(tokenGenerationSchema);
+			}
+			catch(TokenBulkheadFullException e) {
+				tokenCircuitBreaker.releasePermission(tokenGenerationSchema);
+				throw e;
+			}
+
+			long start = tokenGenerationMetrics.startCall(tokenGenerationSchema);
+
+			tokenGenerationAsyncClient.execute(tokenProvider.getMethod(), tokenProvider.getUrl(), headers, requestBody, maxResponseSize, deadline)
+				.whenComplete((responseBody, error) -> {
+					tokenBulkhead.release(tokenGenerationSchema);
+					tokenGenerationMetrics.endCall(tokenGenerationSchema, start, error);
+
+					if(Objects.isNull(error) || error instanceof UncheckedIOException) {
+						tokenCircuitBreaker.onSuccess(tokenGenerationSchema);
+					}
+					else {
+						tokenCircuitBreaker.onFailure(tokenGenerationSchema, error);
+					}
+
+					try {
+						if(error instanceof UncheckedIOException) {
+							tokenGenerationMetrics.recordDeserializationFailure(tokenGenerationSchema);
+							LOGGER.error(FALHA_DESSERIALIZACAO_RESPONSE, error);
+							throw new ResponseSchemaMappingException(FALHA_DESSERIALIZACAO_RESPONSE);
+						}
+						if(Objects.nonNull(error)) {
+							long retryDelay = tokenRetryPolicy.getRetryDelay(attempt, error, System.currentTimeMillis(), deadline, tokenProvider.isRetryAfterSend());
+
+							if(retryDelay < 0) {
+								future.completeExceptionally(error);
+								return;
+							}
+
+							LOGGER.warn(String.format(NOVA_TENTATIVA, attempt, retryDelay), error);
+							tokenRetryPolicy.schedule(() -> this.exchangeAsync(tokenProvider, headers, requestBody, attempt + 1, deadline, future), retryDelay);
+							return;
+						}
+
+						future.complete(this.createCachedToken(tokenGenerationSchema, responseBody));
+					}
+					catch(Exception e) {
+						future.completeExceptionally(e);
+					}
+				});
+		}
+		catch(Exception e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Waits for a token load, rethrowing its failure as the exception originally
+	 * thrown by the token generation call.
+	 *
+	 * @param future - future of the token load.
+	 *
+	 * @return {@code CachedToken} - loaded token.
+	 *
+	 * @throws TokenGenerationHeaderManipulationException exception thrown in case of
+	 *                                                   failure when manipulating
+	 *                                                   the headers of the request.
+	 * @throws UrlNotProvidedException                   exception thrown when the
+	 *                                                   request url is not
+	 *                                                   provided.
+	 * @throws ResponseSchemaMappingException            exception thrown in case of
+	 *                                                   failure when unmarshalling
+	 *                                                   the response body into the
+	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
+	 */
+	private CachedToken await(CompletableFuture<CachedToken> future) 
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {
+		try {
+			return future.join();
+		}
+		catch(CompletionException e) {
+			Throwable cause = Objects.nonNull(e.getCause()) ? e.getCause() : e;
+
+			if(cause instanceof TokenGenerationHeaderManipulationException) {
+				throw (TokenGenerationHeaderManipulationException) cause;
+			}
+			if(cause instanceof UrlNotProvidedException) {
+				throw (UrlNotProvidedException) cause;
+			}
+			if(cause instanceof ResponseSchemaMappingException) {
+				throw (ResponseSchemaMappingException) cause;
+			}
+			if(cause instanceof TokenGenerationUnavailableException) {
+				throw (TokenGenerationUnavailableException) cause;
+			}
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates and executes the token generation call based on the given schema. The
+	 * call of a pipeline stage needs the token of the previous stage, generated
+	 * when it is not cached.
+	 *
+	 * @param tokenProvider - provider of the token.
+	 *
+	 * @return {@code CachedToken} - generated token and its expiry.
+	 *
+	 * @throws TokenGenerationHeaderManipulationException exception thrown in case of
+	 *                                                   failure when manipulating
+	 *                                                   the headers of the request.
+	 * @throws UrlNotProvidedException                   exception thrown when the
+	 *                                                   request url is not
+	 *                                                   provided.
+	 * @throws ResponseSchemaMappingException            exception thrown in case of
+	 *                                                   failure when unmarshalling
+	 *                                                   the response body into the
+	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
+	 */
+	private CachedToken fetchToken(TokenProvider tokenProvider)
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {
+		
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+		TokenGenerationSchema requestSchema = this.bindRequest(tokenProvider);
+		
+		HttpHeaders headers = this.createHeaders(requestSchema);
+		
+		RequestCallback requestCallback = this.createRequestCallback(requestSchema, headers);
+		
+		long deadline = this.getDeadline(tokenProvider, System.currentTimeMillis());
+		
+		for(int attempt = 1; ; attempt++) {
+			try {
+				TokenCallDeadline.set(deadline);
+				
+				return this.exchange(tokenProvider, requestCallback);
+			}
+			catch(RestClientException e) {
+				long retryDelay = tokenRetryPolicy.getRetryDelay(attempt, e, System.currentTimeMillis(), deadline, tokenProvider.isRetryAfterSend());
+				
+				if(retryDelay < 0) {
+					throw e;
+				}
+				
+				LOGGER.warn(String.format(NOVA_TENTATIVA, attempt, retryDelay), e);
+				this.sleep(retryDelay, e);
+			}
+			finally {
+				TokenCallDeadline.clear();
+			}
+		}
+	}
+
+	/**
+	 * Executes an attempt of the token generation call, guarded by the circuit
+	 * breaker and the bulkhead.
+	 *
+	 * @param tokenProvider   - provider of the token.
+	 * @param requestCallback - callback writing the request.
+	 *
+	 * @return {@code CachedToken} - generated token and its expiry.
+	 *
+	 * @throws ResponseSchemaMappingException       exception thrown in case of
+	 *                                              failure when parsing the
+	 *                                              response body.
+	 * @throws TokenGenerationUnavailableException exception thrown when the call
+	 *                                              is not executed because the
+	 *                                              token generation API is not
+	 *                                              available at the moment.
+	 */
+	private CachedToken exchange(TokenProvider tokenProvider, RequestCallback requestCallback)
+			throws ResponseSchemaMappingException, TokenGenerationUnavailableException {
+		
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+		
+		tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+		
+		try {
+			tokenBulkhead.acquire(tokenGenerationSchema);
+		}
+		catch(TokenBulkheadFullException e) {
+			tokenCircuitBreaker.releasePermission(tokenGenerationSchema);
+			throw e;
+		}
+		
+		long start = tokenGenerationMetrics.startCall(tokenGenerationSchema);
+		Throwable failure = null;
+		
+		try {
+			CachedToken cachedToken = restTemplate.execute(tokenProvider.getUrl(), 
+										tokenProvider.getMethod(),
+										requestCallback, 
+										new ResponseBodyExtractor<>(body -> this.readCachedToken(tokenGenerationSchema, 
+												tokenGenerationObjectMapper.getObjectMapper().getFactory().createParser(body)), maxResponseSize));
+			tokenCircuitBreaker.onSuccess(tokenGenerationSchema);
+			
+			return cachedToken;
+		}
+		catch(UncheckedIOException e) {
+			failure = e;
+			tokenCircuitBreaker.onSuccess(tokenGenerationSchema);
+			tokenGenerationMetrics.recordDeserializationFailure(tokenGenerationSchema);
+			LOGGER.error(FALHA_DESSERIALIZACAO_RESPONSE, e);
+			throw new ResponseSchemaMappingException(FALHA_DESSERIALIZACAO_RESPONSE);
+		}
+		catch(RuntimeException | Error e) {
+			failure = e;
+			tokenCircuitBreaker.onFailure(tokenGenerationSchema, e);
+			throw e;
+		}
+		finally {
+			tokenBulkhead.release(tokenGenerationSchema);
+			tokenGenerationMetrics.endCall(tokenGenerationSchema, start, failure);
+		}
+	}
+
+	/**
+	 * Waits before retrying a failed attempt.
+	 *
+	 * @param millis  - delay in millis.
+	 * @param failure - failure of the attempt, thrown when the wait is
+	 *                interrupted.
+	 */
+	private void sleep(long millis, RestClientException failure) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw failure;
+		}
+	}
+
+	/**
+	 * Parses the raw response body of the token generation call and maps it into
+	 * the response schema.
+	 *
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * @param responseBody          - raw response body.
+	 *
+	 * @return {@code CachedToken} - generated token and its expiry.
+	 *
+	 * @throws ResponseSchemaMappingException exception thrown in case of failure
+	 *                                        when unmarshalling the response body
+	 *                                        into the response schema.
+	 */
+	private CachedToken createCachedToken(TokenGenerationSchema tokenGenerationSchema, byte[] responseBody)
+			throws ResponseSchemaMappingException {
+		try {
+			return this.readCachedToken(tokenGenerationSchema, tokenGenerationObjectMapper.getObjectMapper().getFactory().createParser(responseBody));
+		}
+		catch(IOException e) {
+			tokenGenerationMetrics.recordDeserializationFailure(tokenGenerationSchema);
+			LOGGER.error(FALHA_DESSERIALIZACAO_RESPONSE, e);
+			throw new ResponseSchemaMappingException(FALHA_DESSERIALIZACAO_RESPONSE);
+		}
+	}
+
+	/**
+	 * Binds the response body of the token generation call straight into the
+	 * response schema and resolves the token expiry from the lifetime fields read
+	 * in the same pass, without building a tree of the body.
+	 *
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * @param parser                - parser of the response body.
+	 *
+	 * @return {@code CachedToken} - generated token and its expiry.
+	 *
+	 * @throws IOException exception thrown when the body can't be read, with a
+	 *                     {@link JsonProcessingException} when it can't be
+	 *                     mapped into the response schema.
+	 */
+	private CachedToken readCachedToken(TokenGenerationSchema tokenGenerationSchema, JsonParser parser) throws IOException {
+		long issuedAt = System.currentTimeMillis();
+		
+		try(ExpiryFieldsParser expiryFields = tokenExpiryResolver.createParser(parser)) {
+			try {
+				ResponseSchema responseSchema = tokenGenerationObjectMapper.getReader(tokenGenerationSchema.getResponseSchema()).readValue(expiryFields);
+				
+				if(Objects.isNull(responseSchema)) {
+					throw JsonMappingException.from(expiryFields, RESPONSE_VAZIO);
+				}
+				
+				return new CachedToken(responseSchema, issuedAt, tokenExpiryResolver.resolveExpiresAt(expiryFields, responseSchema, issuedAt));
+			}
+			catch(RuntimeException e) {
+				// a schema that can't be bound (no response schema, failing resolver) is a mapping failure
+				throw JsonMappingException.from(expiryFields, e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Validates if the authentication url of the given provider is provided, as
+	 * checked on startup.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * 
+	 * @throws UrlNotProvidedException thrown when the authentication url is null or
+	 *                                 black (filled with spaces).
+	 */
+	private void validateUrl(TokenProvider tokenProvider) throws UrlNotProvidedException {
+		if(Objects.isNull(tokenProvider.getUrl())) {
+			throw new UrlNotProvidedException(URL_NOT_PROVIDED);
+		}	
+	}
+
+	/**
+	 * Returns the provider registered under the given name.
+	 * 
+	 * @param name - name of the provider (or of the schema bean).
+	 * 
+	 * @return {@code TokenProvider} - registered provider.
+	 * 
+	 * @throws IllegalArgumentException thrown when no provider is registered under
+	 *                                  the name.
+	 */
+	private TokenProvider getProvider(String name) {
+		TokenProvider tokenProvider = tokenProviderRegistry.getProvider(name);
+
+		if(Objects.isNull(tokenProvider)) {
+			throw new IllegalArgumentException(String.format(PROVIDER_NAO_ENCONTRADO, name));
+		}
+
+		return tokenProvider;
+	}
+
+	/**
+	 * Returns the provider of the given schema. Schemas that are not beans, and so
+	 * have no registered provider, are generated with the global settings.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * 
+	 * @return {@code TokenProvider} - provider of the schema.
+	 */
+	private TokenProvider getProvider(TokenGenerationSchema tokenGenerationSchema) {
+		TokenProvider tokenProvider = tokenProviderRegistry.getProvider(tokenGenerationSchema);
+
+		if(Objects.nonNull(tokenProvider)) {
+			return tokenProvider;
+		}
+
+		return new TokenProvider(null, tokenGenerationSchema, urlProvided ? tokenGenerationUrl : null, HttpMethod.POST,
+				TokenProvider.NO_TIMEOUT, cacheEnabled, TimeUnit.SECONDS.toMillis(gracePeriodSeconds), retryAfterSend);
+	}
+
+	/**
+	 * Returns the schema of a call of the given provider. The call of a pipeline
+	 * stage is built from the token of its previous stage.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * 
+	 * @return {@code TokenGenerationSchema} - schema of the call.
+	 * 
+	 * @throws TokenGenerationHeaderManipulationException exception thrown in case of
+	 *                                                   failure when manipulating
+	 *                                                   the headers of the request.
+	 * @throws UrlNotProvidedException                   exception thrown when the
+	 *                                                   request url is not
+	 *                                                   provided.
+	 * @throws ResponseSchemaMappingException            exception thrown in case of
+	 *                                                   failure when unmarshalling
+	 *                                                   the response body into the
+	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
+	 */
+	private TokenGenerationSchema bindRequest(TokenProvider tokenProvider) 
+			throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException,
+			TokenGenerationUnavailableException {
+		
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+
+		if(!(tokenGenerationSchema instanceof TokenPipelineStage)) {
+			return tokenGenerationSchema;
+		}
+
+		TokenPipelineStage<?> pipelineStage = (TokenPipelineStage<?>) tokenGenerationSchema;
+
+		return pipelineStage.bind(this.createToken(this.getProvider(pipelineStage.getPreviousStage())));
+	}
+
+	/**
+	 * Non-blocking counterpart of {@link #bindRequest(TokenProvider)}.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * 
+	 * @return {@code CompletableFuture} - future completed with the schema of the
+	 *         call.
+	 */
+	private CompletableFuture<TokenGenerationSchema> bindRequestAsync(TokenProvider tokenProvider) {
+		TokenGenerationSchema tokenGenerationSchema = tokenProvider.getSchema();
+
+		if(!(tokenGenerationSchema instanceof TokenPipelineStage)) {
+			return CompletableFuture.completedFuture(tokenGenerationSchema);
+		}
+
+		TokenPipelineStage<?> pipelineStage = (TokenPipelineStage<?>) tokenGenerationSchema;
+
+		return this.createTokenAsync(this.getProvider(pipelineStage.getPreviousStage())).thenApply(pipelineStage::bind);
+	}
+
+	/**
+	 * Returns the deadline of a call of the given provider starting at the given
+	 * instant, bounded by the timeout of the provider.
+	 * 
+	 * @param tokenProvider - provider of the token.
+	 * @param now           - instant (epoch millis) the call starts.
+	 * 
+	 * @return {@code long} - deadline (epoch millis) or
+	 *         {@link TokenCallDeadline#NONE}.
+	 */
+	private long getDeadline(TokenProvider tokenProvider, long now) {
+		long deadline = tokenRetryPolicy.getDeadline(now);
+
+		return tokenProvider.getTimeout() > 0 ? Math.min(deadline, now + tokenProvider.getTimeout()) : deadline;
+	}
+
+	/**
+	 * Creates the callback writing the headers and the body of the token
+	 * generation call. Immutable request bodies are written from their cached
+	 * serialized bytes.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * @param headers               - headers of the request.
+	 * 
+	 * @return {@code RequestCallback} - request callback.
+	 */
+	private RequestCallback createRequestCallback(TokenGenerationSchema tokenGenerationSchema, HttpHeaders headers) {
+		TokenModelRequest tokenModelRequest = tokenGenerationSchema.getTokenModelRequest();
+		
+		if(!tokenGenerationSchema.isImmutableRequest() || Objects.isNull(tokenModelRequest)) {
+			return restTemplate.httpEntityCallback(new HttpEntity<>(tokenModelRequest, headers), JsonNode.class);
+		}
+		
+		return this.serializeRequest(tokenGenerationSchema, headers).requestCallback(restTemplate, headers);
+	}
+
+	/**
+	 * Serializes the request body of the given schema with the content type
+	 * declared by its headers. Immutable request bodies are serialized on the
+	 * first call only and their bytes are reused afterwards.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * @param headers               - headers of the request.
+	 * 
+	 * @return {@code SerializedRequestBody} - serialized body or {@code null} when
+	 *         the schema has no request body.
+	 */
+	private SerializedRequestBody serializeRequest(TokenGenerationSchema tokenGenerationSchema, HttpHeaders headers) {
+		TokenModelRequest tokenModelRequest = tokenGenerationSchema.getTokenModelRequest();
+		
+		if(Objects.isNull(tokenModelRequest)) {
+			return null;
+		}
+		if(!tokenGenerationSchema.isImmutableRequest()) {
+			return this.serializeRequest(tokenModelRequest, headers.getContentType());
+		}
+		
+		return serializedRequestBodies.computeIfAbsent(tokenGenerationSchema, schema -> this.serializeRequest(tokenModelRequest, headers.getContentType()));
+	}
+
+	/**
+	 * Serializes the given request body with the converters of the template.
+	 * 
+	 * @param tokenModelRequest - request body.
+	 * @param contentType       - content type declared by the request headers or
+	 *                          {@code null}.
+	 * 
+	 * @return {@code SerializedRequestBody} - serialized body.
+	 */
+	private SerializedRequestBody serializeRequest(TokenModelRequest tokenModelRequest, MediaType contentType) {
+		try {
+			return SerializedRequestBody.serialize(restTemplate, tokenModelRequest, contentType);
+		}
+		catch(IOException e) {
+			throw new HttpMessageNotWritableException(FALHA_SERIALIZACAO_REQUEST, e);
+		}
+	}
+
+	/**
+	 * Converts the {@link HeaderModelRequest} instance of the given schema into
+	 * {@link HttpHeaders}. Immutable headers are extracted on the first call only.
+	 * 
+	 * @param tokenGenerationSchema - schema of the request/response call.
+	 * 
+	 * @return {@code HttpHeaders} - headers based on the header schema.
+	 * @throws TokenGenerationHeaderManipulationException
+	 */
+	private HttpHeaders createHeaders(TokenGenerationSchema tokenGenerationSchema) throws TokenGenerationHeaderManipulationException {
+		try {
+			return headerExtractor.extract(tokenGenerationSchema.getHeaderModelRequest(), tokenGenerationSchema.isImmutableHeaders());
+		}
+		catch (Throwable e) {
+			LOGGER.error(FALHA_MANIPULACAO_HEADERS, e);
+			throw new TokenGenerationHeaderManipulationException(FALHA_MANIPULACAO_HEADERS);
+		}
 	}
 }
@@ -1,43 +1,231 @@
 package com.mauriciosc.interceptor;
 
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.handler.AbstractHandlerMethodMapping;
 
+import com.mauriciosc.core.annotation.RequiresToken;
+import com.mauriciosc.core.model.response.DeferredResponse;
 import com.mauriciosc.core.model.response.TokenModelResponse;
 import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
 import com.mauriciosc.core.schema.ResponseSchema;
 import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+import com.mauriciosc.metrics.TokenGenerationMetrics;
 
 /**
  * Interceptor designed to generate a token when requests are received.
+ * <p>
+ * In lazy mode the token is not generated up front: the request is bound to a
+ * {@link DeferredResponse} and the token is only generated when the request
+ * first reads it, so requests that never read it do not trigger a call.
+ * <p>
+ * In annotation mode only the requests handled by {@link RequiresToken}
+ * handlers get a token. The handler methods are scanned once, at startup, into
+ * an immutable table resolving each handler method to its schema, so a request
+ * costs a single lookup.
+ * <p>
+ * Requests (or {@link RequiresToken} handlers) that do not name a schema get
+ * the token of the default provider of the {@link TokenProviderRegistry}. The
+ * startup fails when such a token is needed and there is no default provider.
  * 
  * @author Mauricio Souza Couto
  * @since 2020-07-24
  *
  */
 @Component
-public class TokenGeneratorInterceptor implements HandlerInterceptor {
+public class TokenGeneratorInterceptor implements HandlerInterceptor, SmartInitializingSingleton {
+
+	private static final String PROVIDER_PADRAO_NAO_DEFINIDO = "Não foi possível identificar o token provider padrão. Declare um único bean TokenGenerationSchema, "
+			+ "marque um deles com @Primary ou informe a propriedade 'token.generation.default-provider'.";
 
 	@Autowired
-	private TokenGenerationSchema tokenGenerationSchema;
+	private TokenProviderRegistry tokenProviderRegistry;
 	
 	@Autowired
 	private TokenModelResponse tokenModelResponse;
 	
 	@Autowired
 	private TokenGenerationDataProvider tokenGenerationDataProvider;
+	
+	@Autowired
+	private ApplicationContext applicationContext;
+	
+	@Autowired
+	private TokenGenerationMetrics tokenGenerationMetrics;
+	
+	@Value("${token.generation.lazy.enabled:false}")
+	private boolean lazyEnabled;
+	
+	@Value("${token.generation.annotation.enabled:false}")
+	private boolean annotationEnabled;
+	
+	private final AtomicLong deferredRequests = new AtomicLong();
+	private final AtomicLong unresolvedRequests = new AtomicLong();
+	private volatile TokenGenerationSchema tokenGenerationSchema;
+	private volatile Map<Method, TokenGenerationSchema> requiredSchemas = Collections.emptyMap();
+
+	/**
+	 * Resolves the default schema and builds the table resolving the handler
+	 * methods annotated with {@link RequiresToken} to their schemas, once every
+	 * handler mapping is initialized.
+	 * 
+	 * @throws IllegalStateException thrown when the default schema is needed and
+	 *                               there is no default provider.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		TokenProvider defaultProvider = tokenProviderRegistry.getDefaultProvider();
+		tokenGenerationSchema = Objects.isNull(defaultProvider) ? null : defaultProvider.getSchema();
+		
+		if (!annotationEnabled) {
+			this.getDefaultSchema();
+			return;
+		}
+		
+		Map<Method, TokenGenerationSchema> schemas = new HashMap<>();
+		
+		for (AbstractHandlerMethodMapping<?> handlerMapping : applicationContext.getBeansOfType(AbstractHandlerMethodMapping.class).values()) {
+			for (HandlerMethod handlerMethod : handlerMapping.getHandlerMethods().values()) {
+				RequiresToken requiresToken = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RequiresToken.class);
+				
+				if (Objects.isNull(requiresToken)) {
+					requiresToken = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequiresToken.class);
+				}
+				if (Objects.nonNull(requiresToken)) {
+					schemas.put(handlerMethod.getMethod(), this.getSchema(requiresToken));
+				}
+			}
+		}
+		
+		requiredSchemas = Collections.unmodifiableMap(schemas);
+	}
 
 	@Override
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
 			throws Exception {
 		
-		ResponseSchema responseSchema = tokenGenerationDataProvider.createToken(tokenGenerationSchema);
-		tokenModelResponse.setResponse(responseSchema);
+		TokenGenerationSchema requiredSchema = this.getRequiredSchema(handler);
+		
+		if (Objects.isNull(requiredSchema)) {
+			return true;
+		}
 		
-		return true;
+		long start = System.nanoTime();
+		boolean defaultSchema = requiredSchema == tokenGenerationSchema;
+		
+		try {
+			if (lazyEnabled) {
+				tokenModelResponse.bind(request, new DeferredResponse(() -> tokenGenerationDataProvider.createToken(requiredSchema)), defaultSchema);
+				deferredRequests.incrementAndGet();
+				
+				return true;
+			}
+			
+			ResponseSchema responseSchema = tokenGenerationDataProvider.createToken(requiredSchema);
+			tokenModelResponse.bind(request, responseSchema, defaultSchema);
+			
+			return true;
+		}
+		finally {
+			tokenGenerationMetrics.recordInterception(requiredSchema, lazyEnabled, start);
+		}
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
+			throws Exception {
+		
+		Object boundResponse = request.getAttribute(TokenModelResponse.RESPONSE_ATTRIBUTE);
+		
+		if (boundResponse instanceof DeferredResponse && !((DeferredResponse) boundResponse).isResolved()) {
+			unresolvedRequests.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the schema the token of the given handler is generated with.
+	 * 
+	 * @param handler - handler of the request.
+	 * 
+	 * @return {@code TokenGenerationSchema} - schema or {@code null} when the
+	 *         handler does not require a token.
+	 */
+	private TokenGenerationSchema getRequiredSchema(Object handler) {
+		if (!annotationEnabled) {
+			return this.getDefaultSchema();
+		}
+		if (!(handler instanceof HandlerMethod)) {
+			return null;
+		}
+		
+		return requiredSchemas.get(((HandlerMethod) handler).getMethod());
+	}
+
+	/**
+	 * Returns the schema named by the given annotation.
+	 * 
+	 * @param requiresToken - annotation of the handler.
+	 * 
+	 * @return {@code TokenGenerationSchema} - named schema or the default one.
+	 */
+	private TokenGenerationSchema getSchema(RequiresToken requiresToken) {
+		if (StringUtils.isEmpty(requiresToken.value())) {
+			return this.getDefaultSchema();
+		}
+		
+		return applicationContext.getBean(requiresToken.value(), TokenGenerationSchema.class);
+	}
+
+	/**
+	 * Returns the schema of the default provider.
+	 * 
+	 * @return {@code TokenGenerationSchema} - default schema.
+	 * 
+	 * @throws IllegalStateException thrown when there is no default provider.
+	 */
+	private TokenGenerationSchema getDefaultSchema() {
+		if (Objects.isNull(tokenGenerationSchema)) {
+			throw new IllegalStateException(PROVIDER_PADRAO_NAO_DEFINIDO);
+		}
+		
+		return tokenGenerationSchema;
+	}
+
+	/**
+	 * Returns the number of requests bound to a deferred token (lazy mode).
+	 * 
+	 * @return {@code long} - deferred requests count.
+	 */
+	public long getDeferredRequests() {
+		return deferredRequests.get();
+	}
+
+	/**
+	 * Returns the number of requests completed without reading their deferred
+	 * token, i.e. the token generations saved by the lazy mode.
+	 * 
+	 * @return {@code long} - unresolved requests count.
+	 */
+	public long getUnresolvedRequests() {
+		return unresolvedRequests.get();
 	}
 }
@@ -0,0 +1,111 @@
+package com.mauriciosc.metrics;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.context.ApplicationContext;
+
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.cache.TokenCache;
+import com.mauriciosc.core.resilience.TokenCircuitBreaker;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+
+/**
+ * Actuator endpoint ({@code /actuator/tokencache}) summarizing the cached token
+ * of each {@link TokenGenerationSchema} bean. Token values are never exposed,
+ * only their timestamps and the state of the calls of the schema.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-24
+ *
+ */
+@Endpoint(id = "tokencache")
+public class TokenCacheEndpoint {
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private TokenCache tokenCache;
+
+	@Autowired
+	private TokenCircuitBreaker tokenCircuitBreaker;
+
+	@Autowired
+	private TokenGenerationDataProvider tokenGenerationDataProvider;
+
+	/**
+	 * Returns the cache state of every schema, by bean name.
+	 *
+	 * @return {@code Map} - cache state of the schemas.
+	 */
+	@ReadOperation
+	public Map<String, SchemaCacheState> cache() {
+		Map<String, SchemaCacheState> states = new TreeMap<>();
+		long now = System.currentTimeMillis();
+
+		applicationContext.getBeansOfType(TokenGenerationSchema.class).forEach((name, schema) -> 
+			states.put(name, new SchemaCacheState(tokenCache.peek(schema), now, 
+					tokenGenerationDataProvider.getRefreshLag(schema), tokenCircuitBreaker.getState(schema))));
+
+		return states;
+	}
+
+	/**
+	 * Cache state of a single schema.
+	 */
+	public static final class SchemaCacheState {
+
+		private final boolean cached;
+		private final boolean expired;
+		private final Instant issuedAt;
+		private final Instant expiresAt;
+		private final long staleness;
+		private final long refreshLag;
+		private final TokenCircuitBreaker.State circuitState;
+
+		SchemaCacheState(CachedToken cachedToken, long now, long refreshLag, TokenCircuitBreaker.State circuitState) {
+			this.cached = Objects.nonNull(cachedToken);
+			this.expired = cached && cachedToken.isExpired(now);
+			this.issuedAt = cached ? Instant.ofEpochMilli(cachedToken.getIssuedAt()) : null;
+			this.expiresAt = cached ? Instant.ofEpochMilli(cachedToken.getExpiresAt()) : null;
+			this.staleness = cached ? cachedToken.getStaleness(now) : -1L;
+			this.refreshLag = refreshLag;
+			this.circuitState = circuitState;
+		}
+
+		public boolean isCached() {
+			return cached;
+		}
+
+		public boolean isExpired() {
+			return expired;
+		}
+
+		public Instant getIssuedAt() {
+			return issuedAt;
+		}
+
+		public Instant getExpiresAt() {
+			return expiresAt;
+		}
+
+		public long getStaleness() {
+			return staleness;
+		}
+
+		public long getRefreshLag() {
+			return refreshLag;
+		}
+
+		public TokenCircuitBreaker.State getCircuitState() {
+			return circuitState;
+		}
+	}
+}
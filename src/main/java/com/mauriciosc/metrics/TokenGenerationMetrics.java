@@ -0,0 +1,384 @@
+package com.mauriciosc.metrics;
+
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.mauriciosc.core.exception.ResponseSchemaMappingException;
+import com.mauriciosc.core.exception.TokenGenerationUnavailableException;
+import com.mauriciosc.core.resilience.TokenBulkhead;
+import com.mauriciosc.core.resilience.TokenCircuitBreaker;
+import com.mauriciosc.core.resilience.TokenRetryPolicy;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+import com.mauriciosc.interceptor.TokenGeneratorInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Micrometer instrumentation of the token generation. Meters are tagged with
+ * the schema (bean name of the {@link TokenGenerationSchema}) and, where it
+ * applies, with the outcome of the operation.
+ * <p>
+ * Nothing is recorded until a {@link MeterRegistry} binds this component, which
+ * Spring Boot does on its own when the actuator is on the classpath. The
+ * meters of a schema are created on its first call and kept, so recording an
+ * event is a map lookup and an increment.
+ * <p>
+ * The bean names of the schemas are resolved once, after the singletons are
+ * instantiated. Schemas that are not beans are named after their response
+ * schema, suffixed with a sequence when another schema already has that name,
+ * so that two schemas never share meters.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-24
+ *
+ */
+@Component
+public class TokenGenerationMetrics implements MeterBinder, SmartInitializingSingleton {
+
+	public static final String CALLS = "token.generation.calls";
+	public static final String CALLS_IN_FLIGHT = "token.generation.calls.in.flight";
+	public static final String CACHE_ACCESSES = "token.generation.cache.accesses";
+	public static final String REFRESHES = "token.generation.refreshes";
+	public static final String DESERIALIZATION_FAILURES = "token.generation.deserialization.failures";
+	public static final String INTERCEPTOR = "token.generation.interceptor";
+	public static final String STALENESS = "token.generation.cache.staleness";
+	public static final String REFRESH_LAG = "token.generation.refresh.lag";
+	public static final String CIRCUIT_STATE = "token.generation.circuit.state";
+	public static final String SHORT_CIRCUITED_CALLS = "token.generation.circuit.short.circuited";
+	public static final String BULKHEAD_REJECTED_CALLS = "token.generation.bulkhead.rejected";
+	public static final String RETRIES = "token.generation.retries";
+	public static final String STALE_RESPONSES = "token.generation.stale.responses";
+	public static final String DEFERRED_REQUESTS = "token.generation.lazy.deferred";
+	public static final String UNRESOLVED_REQUESTS = "token.generation.lazy.unresolved";
+
+	public static final String CACHE_HIT = "hit";
+	public static final String CACHE_MISS = "miss";
+	public static final String CACHE_STALE = "stale";
+
+	private static final String TAG_SCHEMA = "schema";
+	private static final String TAG_OUTCOME = "outcome";
+	private static final String TAG_RESULT = "result";
+	private static final String TAG_MODE = "mode";
+	private static final String TAG_STATE = "state";
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private TokenBulkhead tokenBulkhead;
+
+	@Autowired
+	private TokenCircuitBreaker tokenCircuitBreaker;
+
+	@Autowired
+	private TokenRetryPolicy tokenRetryPolicy;
+
+	@Autowired
+	private ObjectProvider<TokenGenerationDataProvider> tokenGenerationDataProvider;
+
+	@Autowired
+	private ObjectProvider<TokenGeneratorInterceptor> tokenGeneratorInterceptor;
+
+	@Value("${token.generation.metrics.enabled:true}")
+	private boolean enabled;
+
+	@Value("${token.generation.metrics.percentile-histogram:false}")
+	private boolean percentileHistogram;
+
+	private volatile MeterRegistry meterRegistry;
+	private final Map<TokenGenerationSchema, SchemaMeters> schemaMeters = new ConcurrentHashMap<>();
+	private volatile Map<TokenGenerationSchema, String> schemaNames = Collections.emptyMap();
+	private final Map<TokenGenerationSchema, String> unnamedSchemaNames = Collections.synchronizedMap(new WeakHashMap<>());
+	private final Map<String, AtomicInteger> unnamedSchemaCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * Resolves the bean names of the schemas.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		Map<TokenGenerationSchema, String> names = new IdentityHashMap<>();
+		applicationContext.getBeansOfType(TokenGenerationSchema.class).forEach((name, schema) -> names.put(schema, name));
+
+		schemaNames = Collections.unmodifiableMap(names);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		if (!enabled) {
+			return;
+		}
+
+		FunctionCounter.builder(BULKHEAD_REJECTED_CALLS, tokenBulkhead, TokenBulkhead::getRejectedCalls)
+				.description("Token generation calls rejected by a full bulkhead")
+				.register(registry);
+		FunctionCounter.builder(SHORT_CIRCUITED_CALLS, tokenCircuitBreaker, TokenCircuitBreaker::getShortCircuitedCalls)
+				.description("Token generation calls rejected by an open circuit")
+				.register(registry);
+		FunctionCounter.builder(RETRIES, tokenRetryPolicy, TokenRetryPolicy::getRetries)
+				.description("Retried token generation calls")
+				.register(registry);
+
+		tokenGenerationDataProvider.ifAvailable(dataProvider ->
+			FunctionCounter.builder(STALE_RESPONSES, dataProvider, TokenGenerationDataProvider::getStaleResponses)
+					.description("Expired tokens served during outages of the token generation API")
+					.register(registry));
+
+		tokenGeneratorInterceptor.ifAvailable(interceptor -> {
+			FunctionCounter.builder(DEFERRED_REQUESTS, interceptor, TokenGeneratorInterceptor::getDeferredRequests)
+					.description("Requests bound to a deferred token")
+					.register(registry);
+			FunctionCounter.builder(UNRESOLVED_REQUESTS, interceptor, TokenGeneratorInterceptor::getUnresolvedRequests)
+					.description("Requests completed without reading their deferred token")
+					.register(registry);
+		});
+
+		meterRegistry = registry;
+	}
+
+	/**
+	 * Records the start of a call to the token generation API.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 *
+	 * @return {@code long} - start instant (nanos) to be passed to
+	 *         {@link #endCall}.
+	 */
+	public long startCall(TokenGenerationSchema tokenGenerationSchema) {
+		SchemaMeters meters = this.getSchemaMeters(tokenGenerationSchema);
+
+		if (Objects.nonNull(meters)) {
+			meters.inFlight.incrementAndGet();
+		}
+
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the end of a call to the token generation API.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 * @param start                 - start instant (nanos) returned by
+	 *                              {@link #startCall}.
+	 * @param failure               - failure of the call or {@code null}.
+	 */
+	public void endCall(TokenGenerationSchema tokenGenerationSchema, long start, Throwable failure) {
+		SchemaMeters meters = this.getSchemaMeters(tokenGenerationSchema);
+
+		if (Objects.nonNull(meters)) {
+			meters.inFlight.decrementAndGet();
+			meters.getTimer(CALLS, TAG_OUTCOME, this.getOutcome(failure)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Records a token read served from the cache ({@link #CACHE_HIT}), a token
+	 * read that had to generate a token ({@link #CACHE_MISS}) or an expired token
+	 * served during an outage ({@link #CACHE_STALE}).
+	 *
+	 * @param tokenGenerationSchema - schema of the token.
+	 * @param result                - result of the read.
+	 */
+	public void recordCacheAccess(TokenGenerationSchema tokenGenerationSchema, String result) {
+		SchemaMeters meters = this.getSchemaMeters(tokenGenerationSchema);
+
+		if (Objects.nonNull(meters)) {
+			meters.getCounter(CACHE_ACCESSES, TAG_RESULT, result).increment();
+		}
+	}
+
+	/**
+	 * Records the outcome of an ahead-of-expiry refresh.
+	 *
+	 * @param tokenGenerationSchema - schema of the token.
+	 * @param failure               - failure of the refresh or {@code null}.
+	 */
+	public void recordRefresh(TokenGenerationSchema tokenGenerationSchema, Throwable failure) {
+		SchemaMeters meters = this.getSchemaMeters(tokenGenerationSchema);
+
+		if (Objects.nonNull(meters)) {
+			meters.getCounter(REFRESHES, TAG_OUTCOME, this.getOutcome(failure)).increment();
+		}
+	}
+
+	/**
+	 * Records a response body that could not be mapped into the response schema.
+	 *
+	 * @param tokenGenerationSchema - schema of the call.
+	 */
+	public void recordDeserializationFailure(TokenGenerationSchema tokenGenerationSchema) {
+		SchemaMeters meters = this.getSchemaMeters(tokenGenerationSchema);
+
+		if (Objects.nonNull(meters)) {
+			meters.deserializationFailures.increment();
+		}
+	}
+
+	/**
+	 * Records the time a request spent in the token generator interceptor.
+	 *
+	 * @param tokenGenerationSchema - schema of the request token.
+	 * @param lazy                  - indicates if the token was deferred.
+	 * @param start                 - instant (nanos) the interception started.
+	 */
+	public void recordInterception(TokenGenerationSchema tokenGenerationSchema, boolean lazy, long start) {
+		SchemaMeters meters = this.getSchemaMeters(tokenGenerationSchema);
+
+		if (Objects.nonNull(meters)) {
+			meters.getTimer(INTERCEPTOR, TAG_MODE, lazy ? "lazy" : "eager").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Returns the name the given schema is tagged with: its bean name or, when
+	 * it is not a bean, the name of its response schema (suffixed with a sequence
+	 * from the second schema of the same response schema on).
+	 *
+	 * @param tokenGenerationSchema - schema of the calls.
+	 *
+	 * @return {@code String} - schema name, unique per schema.
+	 */
+	public String getSchemaName(TokenGenerationSchema tokenGenerationSchema) {
+		String name = schemaNames.get(tokenGenerationSchema);
+
+		if (Objects.nonNull(name)) {
+			return name;
+		}
+
+		return unnamedSchemaNames.computeIfAbsent(tokenGenerationSchema, schema -> {
+			String responseName = schema.getResponseSchema().getSimpleName();
+			int count = unnamedSchemaCounts.computeIfAbsent(responseName, key -> new AtomicInteger()).incrementAndGet();
+
+			return count == 1 ? responseName : responseName + '-' + count;
+		});
+	}
+
+	/**
+	 * Returns the outcome tag of the given failure.
+	 *
+	 * @param failure - failure of the operation or {@code null}.
+	 *
+	 * @return {@code String} - outcome.
+	 */
+	private String getOutcome(Throwable failure) {
+		if (Objects.isNull(failure)) {
+			return "success";
+		}
+		if (failure instanceof ResponseSchemaMappingException || failure instanceof UncheckedIOException) {
+			return "mapping_error";
+		}
+		if (failure instanceof HttpClientErrorException) {
+			return "client_error";
+		}
+		if (failure instanceof HttpServerErrorException) {
+			return "server_error";
+		}
+		if (failure instanceof ResourceAccessException) {
+			return "io_error";
+		}
+		if (failure instanceof TokenGenerationUnavailableException) {
+			return "unavailable";
+		}
+		return "error";
+	}
+
+	/**
+	 * Returns the meters of the given schema, registering them on first use.
+	 *
+	 * @param tokenGenerationSchema - schema of the calls.
+	 *
+	 * @return {@code SchemaMeters} - meters of the schema or {@code null} when no
+	 *         registry is bound.
+	 */
+	private SchemaMeters getSchemaMeters(TokenGenerationSchema tokenGenerationSchema) {
+		MeterRegistry registry = meterRegistry;
+
+		if (Objects.isNull(registry)) {
+			return null;
+		}
+
+		return schemaMeters.computeIfAbsent(tokenGenerationSchema, schema -> new SchemaMeters(registry, schema));
+	}
+
+	/**
+	 * Meters of a single schema.
+	 */
+	private class SchemaMeters {
+
+		private final MeterRegistry registry;
+		private final Tags tags;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final Counter deserializationFailures;
+		private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+		private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+		SchemaMeters(MeterRegistry registry, TokenGenerationSchema tokenGenerationSchema) {
+			this.registry = registry;
+			this.tags = Tags.of(TAG_SCHEMA, getSchemaName(tokenGenerationSchema));
+
+			Gauge.builder(CALLS_IN_FLIGHT, inFlight, AtomicInteger::get)
+					.description("Token generation calls in progress")
+					.tags(tags)
+					.register(registry);
+			deserializationFailures = Counter.builder(DESERIALIZATION_FAILURES)
+					.description("Token generation responses that could not be mapped")
+					.tags(tags)
+					.register(registry);
+
+			for (TokenCircuitBreaker.State state : TokenCircuitBreaker.State.values()) {
+				Gauge.builder(CIRCUIT_STATE, tokenCircuitBreaker, circuitBreaker -> circuitBreaker.getState(tokenGenerationSchema) == state ? 1 : 0)
+						.description("Current state of the circuit (1 for the current state)")
+						.tags(tags.and(TAG_STATE, state.name().toLowerCase()))
+						.register(registry);
+			}
+
+			tokenGenerationDataProvider.ifAvailable(dataProvider -> {
+				TimeGauge.builder(STALENESS, dataProvider, TimeUnit.MILLISECONDS, provider -> provider.getStaleness(tokenGenerationSchema))
+						.description("Time the cached token has been expired (-1 when none is cached)")
+						.tags(tags)
+						.register(registry);
+				TimeGauge.builder(REFRESH_LAG, dataProvider, TimeUnit.MILLISECONDS, provider -> provider.getRefreshLag(tokenGenerationSchema))
+						.description("Delay of the last refresh after it was due (-1 when never refreshed)")
+						.tags(tags)
+						.register(registry);
+			});
+		}
+
+		Timer getTimer(String name, String tag, String value) {
+			return timers.computeIfAbsent(name + '.' + value, key -> Timer.builder(name)
+					.tags(tags.and(tag, value))
+					.publishPercentileHistogram(percentileHistogram)
+					.register(registry));
+		}
+
+		Counter getCounter(String name, String tag, String value) {
+			return counters.computeIfAbsent(name + '.' + value, key -> Counter.builder(name)
+					.tags(tags.and(tag, value))
+					.register(registry));
+		}
+	}
+}
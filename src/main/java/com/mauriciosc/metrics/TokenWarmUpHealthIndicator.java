@@ -0,0 +1,33 @@
+package com.mauriciosc.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import com.mauriciosc.scheduler.TokenWarmUp;
+
+/**
+ * Health indicator ({@code tokenWarmUp}) kept {@code DOWN} while the tokens are
+ * being warmed up, meant to be included in the readiness group so that traffic
+ * is only routed to the application once its tokens are generated or the
+ * warm-up timeout elapses.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-30
+ *
+ */
+public class TokenWarmUpHealthIndicator implements HealthIndicator {
+
+	@Autowired
+	private TokenWarmUp tokenWarmUp;
+
+	@Override
+	public Health health() {
+		TokenWarmUp.State state = tokenWarmUp.getState();
+		Health.Builder builder = state == TokenWarmUp.State.PENDING || state == TokenWarmUp.State.WARMING_UP
+				? Health.down()
+				: Health.up();
+
+		return builder.withDetail("state", state).build();
+	}
+}
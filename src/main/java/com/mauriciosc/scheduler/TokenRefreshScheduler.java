@@ -0,0 +1,183 @@
+package com.mauriciosc.scheduler;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.cache.TokenCache;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+
+/**
+ * Renews the tokens of every registered {@link TokenProvider} with the cache
+ * enabled in background, ahead of their expiry, so that request threads only
+ * read the current token from the cache.
+ * <p>
+ * Each schema is refreshed once {@code token.generation.refresh.fraction} of
+ * its lifetime has elapsed, shifted by a random jitter of up to
+ * {@code token.generation.refresh.jitter} of the lifetime so that several
+ * instances do not refresh in lockstep. Failed refreshes are retried after
+ * {@code token.generation.refresh.retry-delay} seconds. Schemas already holding
+ * a valid token at startup (e.g. restored from the snapshot) are first
+ * refreshed according to that token.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-05
+ *
+ */
+@Component
+public class TokenRefreshScheduler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenRefreshScheduler.class);
+
+	private static final long MIN_REFRESH_INTERVAL = 1000L;
+
+	private static final String CACHE_DESABILITADO = "Renovação antecipada de tokens ignorada: o cache de tokens está desabilitado em todos os token providers.";
+
+	@Autowired
+	private TokenGenerationDataProvider tokenGenerationDataProvider;
+
+	@Autowired
+	private TokenProviderRegistry tokenProviderRegistry;
+
+	@Autowired
+	private TokenCache tokenCache;
+
+	@Value("${token.generation.refresh.enabled:false}")
+	private boolean refreshEnabled;
+
+	@Value("${token.generation.refresh.fraction:0.75}")
+	private double refreshFraction;
+
+	@Value("${token.generation.refresh.jitter:0.1}")
+	private double refreshJitter;
+
+	@Value("${token.generation.refresh.retry-delay:5}")
+	private long retryDelaySeconds;
+
+	private ScheduledExecutorService executorService;
+
+	/**
+	 * Starts refreshing the schemas of the providers with the cache enabled once
+	 * the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!refreshEnabled) {
+			return;
+		}
+
+		List<TokenGenerationSchema> cachedSchemas = tokenProviderRegistry.getProviders().values().stream()
+				.filter(TokenProvider::isCacheEnabled)
+				.map(TokenProvider::getSchema)
+				.collect(Collectors.toList());
+
+		if (cachedSchemas.isEmpty()) {
+			LOGGER.warn(CACHE_DESABILITADO);
+			return;
+		}
+
+		executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "token-refresh");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		long now = System.currentTimeMillis();
+		cachedSchemas.forEach(schema -> this.schedule(schema, this.firstRefreshAt(schema, now)));
+	}
+
+	/**
+	 * Stops the scheduled refreshes.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (Objects.nonNull(executorService)) {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Computes the instant (epoch millis) when the given token should be renewed.
+	 * 
+	 * @param cachedToken - token to be renewed.
+	 * 
+	 * @return {@code long} - refresh instant, between the issue and the expiry
+	 *         instants of the token.
+	 */
+	long nextRefreshAt(CachedToken cachedToken) {
+		long lifetime = Math.max(0L, cachedToken.getExpiresAt() - cachedToken.getIssuedAt());
+		double jitter = refreshJitter > 0 ? ThreadLocalRandom.current().nextDouble(-refreshJitter, refreshJitter) : 0;
+		double fraction = Math.min(1D, Math.max(0D, refreshFraction + jitter));
+
+		return cachedToken.getIssuedAt() + (long) (lifetime * fraction);
+	}
+
+	/**
+	 * Computes the instant (epoch millis) of the first refresh of the given schema:
+	 * immediately, unless a valid token is already cached for it.
+	 * 
+	 * @param tokenGenerationSchema - schema to be refreshed.
+	 * @param now                   - current instant (epoch millis).
+	 * 
+	 * @return {@code long} - refresh instant.
+	 */
+	private long firstRefreshAt(TokenGenerationSchema tokenGenerationSchema, long now) {
+		CachedToken cachedToken = tokenCache.get(tokenGenerationSchema, now);
+
+		return Objects.isNull(cachedToken) ? now : this.nextRefreshAt(cachedToken);
+	}
+
+	/**
+	 * Schedules the refresh of the given schema.
+	 * 
+	 * @param tokenGenerationSchema - schema to be refreshed.
+	 * @param dueAt                 - instant (epoch millis) when the refresh is due.
+	 */
+	private void schedule(TokenGenerationSchema tokenGenerationSchema, long dueAt) {
+		if (executorService.isShutdown()) {
+			return;
+		}
+
+		long delay = Math.max(0L, dueAt - System.currentTimeMillis());
+
+		executorService.schedule(() -> this.refresh(tokenGenerationSchema, dueAt), delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Refreshes the given schema and schedules its next refresh.
+	 * 
+	 * @param tokenGenerationSchema - schema to be refreshed.
+	 * @param dueAt                 - instant (epoch millis) when the refresh was due.
+	 */
+	private void refresh(TokenGenerationSchema tokenGenerationSchema, long dueAt) {
+		long nextDueAt;
+
+		try {
+			CachedToken cachedToken = tokenGenerationDataProvider.refreshToken(tokenGenerationSchema, dueAt);
+			nextDueAt = Math.max(this.nextRefreshAt(cachedToken), System.currentTimeMillis() + MIN_REFRESH_INTERVAL);
+		}
+		catch (Exception e) {
+			nextDueAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(retryDelaySeconds);
+		}
+
+		this.schedule(tokenGenerationSchema, nextDueAt);
+	}
+}
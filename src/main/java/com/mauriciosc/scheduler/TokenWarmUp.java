@@ -0,0 +1,190 @@
+package com.mauriciosc.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+
+/**
+ * Generates the tokens of every registered {@link TokenGenerationSchema} once
+ * the application is ready, so that the first requests do not pay for the
+ * first token generation call, the first connection to the token generation
+ * API and the first mapping of the responses.
+ * <p>
+ * Only the providers with the cache enabled have their token generated: the
+ * token of a provider without cache would be thrown away, costing an extra call
+ * to the token generation API on every start. Those only have the mapping of
+ * their responses prepared.
+ * <p>
+ * The warm-up runs in background and retries the schemas that failed until
+ * {@code token.generation.warm-up.timeout} seconds have elapsed. Its state is
+ * exposed by the {@code tokenWarmUp} health indicator, so the readiness of the
+ * application can wait for it.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-30
+ *
+ */
+@Component
+public class TokenWarmUp {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenWarmUp.class);
+
+	private static final long RETRY_DELAY = 1000L;
+
+	private static final String AQUECIMENTO_CONCLUIDO = "Aquecimento dos tokens concluído em %d ms.";
+	private static final String FALHA_AQUECIMENTO = "Falha no aquecimento do token, nova tentativa em %d ms.";
+	private static final String AQUECIMENTO_EXPIRADO = "Aquecimento dos tokens interrompido: o tempo limite de %d segundos foi atingido.";
+
+	/**
+	 * State of the warm-up.
+	 */
+	public enum State {
+		/** Warm-up disabled. */
+		DISABLED,
+		/** Waiting for the application to be ready. */
+		PENDING,
+		/** Generating the tokens. */
+		WARMING_UP,
+		/** Tokens of every schema generated. */
+		WARMED_UP,
+		/** Timeout elapsed before the tokens of every schema were generated. */
+		TIMED_OUT
+	}
+
+	@Autowired
+	private TokenGenerationDataProvider tokenGenerationDataProvider;
+
+	@Autowired
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	@Autowired
+	private TokenProviderRegistry tokenProviderRegistry;
+
+	@Value("${token.generation.warm-up.enabled:false}")
+	private boolean warmUpEnabled;
+
+	@Value("${token.generation.warm-up.timeout:30}")
+	private long timeoutSeconds;
+
+	private volatile State state = State.PENDING;
+	private volatile long deadline = Long.MAX_VALUE;
+	private Thread thread;
+
+	/**
+	 * Starts the warm-up once the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		if (!warmUpEnabled) {
+			return;
+		}
+
+		deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+		state = State.WARMING_UP;
+
+		thread = new Thread(this::warmUp, "token-warm-up");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the warm-up in progress.
+	 */
+	@PreDestroy
+	public void stop() {
+		if (Objects.nonNull(thread)) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Returns the current state of the warm-up.
+	 *
+	 * @return {@code State} - warm-up state.
+	 */
+	public State getState() {
+		if (!warmUpEnabled) {
+			return State.DISABLED;
+		}
+
+		State current = state;
+
+		return current == State.WARMING_UP && System.currentTimeMillis() >= deadline ? State.TIMED_OUT : current;
+	}
+
+	/**
+	 * Prepares the response mapping of each schema and generates the tokens of
+	 * the cached ones, retrying the failed schemas until the deadline.
+	 */
+	void warmUp() {
+		long startedAt = System.currentTimeMillis();
+
+		Collection<TokenProvider> providers = tokenProviderRegistry.getProviders().values();
+		providers.forEach(provider -> tokenGenerationObjectMapper.getReader(provider.getSchema().getResponseSchema()));
+
+		List<TokenGenerationSchema> pending = providers.stream()
+				.filter(TokenProvider::isCacheEnabled)
+				.map(TokenProvider::getSchema)
+				.collect(Collectors.toCollection(ArrayList::new));
+		pending.removeIf(this::generate);
+
+		while (!pending.isEmpty()) {
+			long delay = Math.min(RETRY_DELAY, deadline - System.currentTimeMillis());
+
+			if (delay <= 0) {
+				LOGGER.warn(String.format(AQUECIMENTO_EXPIRADO, timeoutSeconds));
+				return;
+			}
+
+			try {
+				Thread.sleep(delay);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			pending.removeIf(this::generate);
+		}
+
+		state = State.WARMED_UP;
+		LOGGER.info(String.format(AQUECIMENTO_CONCLUIDO, System.currentTimeMillis() - startedAt));
+	}
+
+	/**
+	 * Generates the token of the given schema.
+	 *
+	 * @param tokenGenerationSchema - schema to be warmed up.
+	 *
+	 * @return {@code boolean} - indicates if the token was generated.
+	 */
+	private boolean generate(TokenGenerationSchema tokenGenerationSchema) {
+		try {
+			tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+			return true;
+		}
+		catch (Exception e) {
+			LOGGER.warn(String.format(FALHA_AQUECIMENTO, RETRY_DELAY), e);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.mauriciosc.benchmark;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.FilterType;
+
+import com.mauriciosc.TokenFactoryApplication;
+
+/**
+ * Application of the benchmarks and load tests: the library beans, without the
+ * test configurations and mocks sharing their packages.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-26
+ *
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = TokenFactoryApplication.class, excludeFilters = {
+		@Filter(type = FilterType.ASSIGNABLE_TYPE, classes = TokenFactoryApplication.class),
+		@Filter(type = FilterType.ANNOTATION, classes = TestConfiguration.class),
+		@Filter(type = FilterType.REGEX, pattern = "com\\.mauriciosc\\..*(Test|Mock|benchmark\\.).*")})
+public class BenchmarkApplication {
+}
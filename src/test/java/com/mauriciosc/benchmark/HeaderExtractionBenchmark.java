@@ -0,0 +1,107 @@
+package com.mauriciosc.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mauriciosc.core.header.HeaderExtractor;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.model.request.HeaderModelRequest;
+import com.mauriciosc.core.model.request.HeaderModelRequestMock;
+import com.mauriciosc.core.model.request.ImmutableHeaderModelRequestMock;
+
+/**
+ * Compares the header extraction through {@link HeaderExtractor} with the
+ * former {@code ObjectMapper.convertValue} path.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-08
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeaderExtractionBenchmark {
+
+	private final HeaderExtractor headerExtractor = new HeaderExtractor();
+	private final HeaderModelRequest mutableHeaders = new HeaderModelRequestMock("x-header-mock", 2);
+	private final HeaderModelRequest immutableHeaders = new ImmutableHeaderModelRequestMock("x-header-mock", 2);
+
+	/**
+	 * Wires the shared mapper into the extractor.
+	 */
+	@Setup
+	public void setUp() {
+		ReflectionTestUtils.setField(headerExtractor, "tokenGenerationObjectMapper", new TokenGenerationObjectMapper());
+	}
+
+	/**
+	 * Former path: a new mapper and a reflective conversion on every call.
+	 * 
+	 * @return {@code MultiValueMap} - extracted headers.
+	 */
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public MultiValueMap<String, String> convertValue() {
+		ObjectMapper mapper = new ObjectMapper();
+		MultiValueMap<String, String> multiValueMap = new LinkedMultiValueMap<>();
+		Map<String, Object> objectMap = mapper.convertValue(mutableHeaders, Map.class);
+
+		objectMap.forEach((key, value) -> multiValueMap.add(key, String.valueOf(value)));
+
+		return multiValueMap;
+	}
+
+	/**
+	 * Compiled plan applied to a mutable instance.
+	 * 
+	 * @return {@code HttpHeaders} - extracted headers.
+	 * @throws Throwable
+	 */
+	@Benchmark
+	public HttpHeaders compiledPlan() throws Throwable {
+		return headerExtractor.extract(mutableHeaders, false);
+	}
+
+	/**
+	 * Headers of an immutable instance, served from the cache.
+	 * 
+	 * @return {@code HttpHeaders} - extracted headers.
+	 * @throws Throwable
+	 */
+	@Benchmark
+	public HttpHeaders cachedImmutable() throws Throwable {
+		return headerExtractor.extract(immutableHeaders, true);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args - input arguments.
+	 * @throws RunnerException
+	 */
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(HeaderExtractionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,143 @@
+package com.mauriciosc.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process identity provider answering every token request with the same
+ * precomputed response, so measurements only include the client side and the
+ * loopback transfer. A fraction of the requests can be failed with
+ * {@code 503 Service Unavailable} to exercise the resilience of the client.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-25
+ *
+ */
+public class StubTokenServer implements AutoCloseable {
+
+	private static final String PATH = "/token";
+	private static final String RESPONSE_TEMPLATE = "{\"token\": \"%s\", \"expires_in\": %d}";
+
+	private final HttpServer httpServer;
+	private final ExecutorService executor;
+	private final byte[] responseBody;
+	private final long latencyMillis;
+	private final double errorRate;
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+
+	/**
+	 * Starts a server on a free loopback port.
+	 *
+	 * @param responseSize  - approximate size in bytes of the response body.
+	 * @param expiresIn     - lifetime in seconds of the issued tokens.
+	 * @param latencyMillis - time each response is delayed by.
+	 * @param errorRate     - fraction of the requests answered with an error.
+	 * @param threads       - number of threads serving the requests.
+	 *
+	 * @throws IOException thrown when the server cannot be started.
+	 */
+	public StubTokenServer(int responseSize, long expiresIn, long latencyMillis, double errorRate, int threads) throws IOException {
+		String emptyResponse = String.format(RESPONSE_TEMPLATE, "", expiresIn);
+		String token = StringUtils.repeat('x', Math.max(1, responseSize - emptyResponse.length()));
+
+		this.responseBody = String.format(RESPONSE_TEMPLATE, token, expiresIn).getBytes(StandardCharsets.UTF_8);
+		this.latencyMillis = latencyMillis;
+		this.errorRate = errorRate;
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+		this.httpServer.setExecutor(executor);
+		this.httpServer.createContext(PATH, this::respond);
+		this.httpServer.start();
+	}
+
+	/**
+	 * Returns the url of the token endpoint.
+	 *
+	 * @return {@code String} - url.
+	 */
+	public String getUrl() {
+		return "http://localhost:" + httpServer.getAddress().getPort() + PATH;
+	}
+
+	/**
+	 * Returns the number of token requests answered.
+	 *
+	 * @return {@code long} - calls count.
+	 */
+	public long getCalls() {
+		return calls.get();
+	}
+
+	/**
+	 * Returns the number of token requests answered with an error.
+	 *
+	 * @return {@code long} - errors count.
+	 */
+	public long getErrors() {
+		return errors.get();
+	}
+
+	@Override
+	public void close() {
+		httpServer.stop(0);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Discards the request body and writes the token response, or an error for
+	 * the configured fraction of the requests.
+	 *
+	 * @param exchange - server exchange.
+	 *
+	 * @throws IOException
+	 */
+	private void respond(HttpExchange exchange) throws IOException {
+		try (InputStream requestBody = exchange.getRequestBody()) {
+			StreamUtils.drain(requestBody);
+		}
+
+		calls.incrementAndGet();
+
+		if (latencyMillis > 0) {
+			try {
+				Thread.sleep(latencyMillis);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+			errors.incrementAndGet();
+			exchange.sendResponseHeaders(HttpStatus.SERVICE_UNAVAILABLE.value(), -1);
+			exchange.close();
+
+			return;
+		}
+
+		exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+		exchange.sendResponseHeaders(200, responseBody.length);
+
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(responseBody);
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package com.mauriciosc.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.cache.ExpiryFieldsParser;
+import com.mauriciosc.core.cache.TokenExpiryResolver;
+import com.mauriciosc.core.header.HeaderExtractor;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.model.request.HeaderModelRequest;
+import com.mauriciosc.core.model.request.TokenModelRequest;
+import com.mauriciosc.core.schema.ResponseSchema;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+import com.mauriciosc.interceptor.TokenGeneratorInterceptor;
+
+/**
+ * Measures the hot paths of the token generation against a
+ * {@link StubTokenServer}: the whole {@code createToken} call with and without
+ * the cache, the header extraction, the response mapping and the interceptor.
+ * Request values and response payloads are sized by parameters.
+ * <p>
+ * Run with the {@code benchmark} profile, which adds the GC profiler to report
+ * the allocation per operation.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-25
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+	@Param({"true", "false"})
+	private boolean cacheEnabled;
+
+	@Param({"16", "1024"})
+	private int requestSize;
+
+	@Param({"256", "8192"})
+	private int responseSize;
+
+	private StubTokenServer stubTokenServer;
+	private ConfigurableApplicationContext applicationContext;
+	private TokenGenerationDataProvider tokenGenerationDataProvider;
+	private TokenGeneratorInterceptor tokenGeneratorInterceptor;
+	private HeaderExtractor headerExtractor;
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+	private TokenExpiryResolver tokenExpiryResolver;
+	private TokenGenerationSchema tokenGenerationSchema;
+	private MockHttpServletRequest request;
+	private byte[] responseBody;
+
+	/**
+	 * Starts the stub server and the application context wired to it.
+	 *
+	 * @throws Exception
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		stubTokenServer = new StubTokenServer(responseSize, 3600, 0, 0, 4);
+		applicationContext = new SpringApplicationBuilder(BenchmarkApplication.class)
+				.web(WebApplicationType.NONE)
+				.logStartupInfo(false)
+				.properties("spring.main.banner-mode=off",
+						"logging.level.root=warn",
+						"token.generation.url=" + stubTokenServer.getUrl(),
+						"token.generation.cache.enabled=" + cacheEnabled)
+				.initializers(context -> context.getBeanFactory().registerSingleton("benchmarkTokenGenerationSchema", this.createSchema()))
+				.run();
+
+		tokenGenerationDataProvider = applicationContext.getBean(TokenGenerationDataProvider.class);
+		tokenGeneratorInterceptor = applicationContext.getBean(TokenGeneratorInterceptor.class);
+		headerExtractor = applicationContext.getBean(HeaderExtractor.class);
+		tokenGenerationObjectMapper = applicationContext.getBean(TokenGenerationObjectMapper.class);
+		tokenExpiryResolver = applicationContext.getBean(TokenExpiryResolver.class);
+		tokenGenerationSchema = applicationContext.getBean(TokenGenerationSchema.class);
+		request = new MockHttpServletRequest();
+		responseBody = String.format("{\"token\": \"%s\", \"expires_in\": 3600}", StringUtils.repeat('x', responseSize))
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Stops the application context and the stub server.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		applicationContext.close();
+		stubTokenServer.close();
+	}
+
+	/**
+	 * Whole token generation call, served from the cache when it is enabled.
+	 *
+	 * @return {@code ResponseSchema} - token.
+	 * @throws Exception
+	 */
+	@Benchmark
+	public ResponseSchema createToken() throws Exception {
+		return tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+	}
+
+	/**
+	 * Extraction of the headers of the call.
+	 *
+	 * @return {@code HttpHeaders} - headers.
+	 * @throws Throwable
+	 */
+	@Benchmark
+	public HttpHeaders createHeaders() throws Throwable {
+		return headerExtractor.extract(tokenGenerationSchema.getHeaderModelRequest(), tokenGenerationSchema.isImmutableHeaders());
+	}
+
+	/**
+	 * Mapping of a response body into the response schema and its expiry, as
+	 * done for every generated token.
+	 *
+	 * @return {@code CachedToken} - mapped token.
+	 * @throws Exception
+	 */
+	@Benchmark
+	public CachedToken deserializeResponse() throws Exception {
+		long issuedAt = System.currentTimeMillis();
+
+		try (ExpiryFieldsParser expiryFields = tokenExpiryResolver.createParser(tokenGenerationObjectMapper.getObjectMapper().getFactory().createParser(responseBody))) {
+			ResponseSchema response = tokenGenerationObjectMapper.getReader(BenchmarkResponseSchema.class).readValue(expiryFields);
+
+			return new CachedToken(response, issuedAt, tokenExpiryResolver.resolveExpiresAt(expiryFields, response, issuedAt));
+		}
+	}
+
+	/**
+	 * Interception of a request, binding its token.
+	 *
+	 * @return {@code boolean} - interceptor result.
+	 * @throws Exception
+	 */
+	@Benchmark
+	public boolean preHandle() throws Exception {
+		return tokenGeneratorInterceptor.preHandle(request, null, null);
+	}
+
+	/**
+	 * Creates the schema of the calls, with values of the request size.
+	 *
+	 * @return {@code TokenGenerationSchema} - schema.
+	 */
+	private TokenGenerationSchema createSchema() {
+		String value = StringUtils.repeat('x', requestSize);
+
+		return new TokenGenerationSchema(new BenchmarkHeaderModelRequest(value), new BenchmarkTokenModelRequest(value), BenchmarkResponseSchema.class);
+	}
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args - input arguments.
+	 * @throws RunnerException
+	 */
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TokenGenerationBenchmark.class.getSimpleName())
+				.addProfiler("gc")
+				.build()).run();
+	}
+
+	/**
+	 * Headers of the benchmark calls.
+	 */
+	public static class BenchmarkHeaderModelRequest implements HeaderModelRequest {
+
+		private final String clientId;
+		private final String correlationId;
+
+		BenchmarkHeaderModelRequest(String value) {
+			this.clientId = value;
+			this.correlationId = value;
+		}
+
+		public String getClientId() {
+			return clientId;
+		}
+
+		public String getCorrelationId() {
+			return correlationId;
+		}
+	}
+
+	/**
+	 * Request body of the benchmark calls.
+	 */
+	public static class BenchmarkTokenModelRequest implements TokenModelRequest {
+
+		private final String login;
+		private final String secret;
+
+		BenchmarkTokenModelRequest(String value) {
+			this.login = value;
+			this.secret = value;
+		}
+
+		public String getLogin() {
+			return login;
+		}
+
+		public String getSecret() {
+			return secret;
+		}
+	}
+
+	/**
+	 * Response of the stub server.
+	 */
+	public static class BenchmarkResponseSchema implements ResponseSchema {
+
+		private String token;
+
+		@JsonProperty("expires_in")
+		private long expiresIn;
+
+		public String getToken() {
+			return token;
+		}
+
+		public long getExpiresIn() {
+			return expiresIn;
+		}
+	}
+}
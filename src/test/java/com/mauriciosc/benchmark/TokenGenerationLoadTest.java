@@ -0,0 +1,242 @@
+package com.mauriciosc.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mauriciosc.benchmark.TokenGenerationBenchmark.BenchmarkHeaderModelRequest;
+import com.mauriciosc.benchmark.TokenGenerationBenchmark.BenchmarkResponseSchema;
+import com.mauriciosc.benchmark.TokenGenerationBenchmark.BenchmarkTokenModelRequest;
+import com.mauriciosc.core.model.response.TokenModelResponse;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * End-to-end load test: a Spring MVC application with the
+ * {@code TokenGeneratorInterceptor} registered, calling a
+ * {@link StubTokenServer}, is driven by an increasing number of concurrent
+ * clients. Each stage reports the latency percentiles, the throughput and the
+ * token generation calls per 1000 requests.
+ * <p>
+ * The defaults keep the test short enough for every build. Before a release the
+ * load can be raised (see the {@code loadtest.*} system properties below) to find where the service falls over, e.g.
+ * {@code mvn test -Dtest=TokenGenerationLoadTest -Dloadtest.concurrency=16,64,256 -Dloadtest.requests=50000}.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-26
+ *
+ */
+public class TokenGenerationLoadTest {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TokenGenerationLoadTest.class);
+
+	private static final String REPORT = "concurrency={} requests={} failures={} p50={}ms p99={}ms p999={}ms throughput={}/s upstream-calls-per-1k={} upstream-errors={}";
+
+	private final int[] concurrency = Arrays.stream(System.getProperty("loadtest.concurrency", "4,16,64").split(","))
+			.mapToInt(stage -> Integer.parseInt(stage.trim()))
+			.toArray();
+	private final int requests = Integer.getInteger("loadtest.requests", 2000);
+	private final int warmupRequests = Integer.getInteger("loadtest.warmup", 5000);
+	private final long latencyMillis = Long.getLong("loadtest.latency", 20L);
+	private final double errorRate = Double.parseDouble(System.getProperty("loadtest.error-rate", "0.02"));
+	private final long ttlSeconds = Long.getLong("loadtest.ttl", 2L);
+	private final int responseSize = Integer.getInteger("loadtest.response-size", 1024);
+
+	private StubTokenServer stubTokenServer;
+	private ConfigurableApplicationContext applicationContext;
+	private URL url;
+
+	/**
+	 * Starts the stub server and the web application wired to it.
+	 *
+	 * @throws Exception
+	 */
+	@BeforeEach
+	public void setUp() throws Exception {
+		stubTokenServer = new StubTokenServer(responseSize, ttlSeconds, latencyMillis, errorRate, 8);
+		applicationContext = new SpringApplicationBuilder(BenchmarkApplication.class, LoadTestController.class)
+				.web(WebApplicationType.SERVLET)
+				.logStartupInfo(false)
+				.properties("spring.main.banner-mode=off",
+						"logging.level.root=warn",
+						"logging.level.com.mauriciosc.benchmark=info",
+						"server.port=0",
+						"token.generation.url=" + stubTokenServer.getUrl(),
+						"token.generation.cache.safety-margin=0",
+						"token.generation.retry.enabled=true")
+				.initializers(context -> context.getBeanFactory().registerSingleton("loadTestTokenGenerationSchema", new TokenGenerationSchema(
+						new BenchmarkHeaderModelRequest("client"), new BenchmarkTokenModelRequest("secret"), BenchmarkResponseSchema.class)))
+				.run();
+
+		int port = ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+		url = new URL("http://localhost:" + port + "/resource");
+	}
+
+	/**
+	 * Stops the web application and the stub server.
+	 */
+	@AfterEach
+	public void tearDown() {
+		applicationContext.close();
+		stubTokenServer.close();
+	}
+
+	/**
+	 * Runs every stage after an unreported warm-up, validating that requests are
+	 * served while the cache spares the token generation API.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoad() throws Exception {
+		this.runStage(concurrency[0], warmupRequests);
+
+		for (int threads : concurrency) {
+			long upstreamCalls = stubTokenServer.getCalls();
+			long upstreamErrors = stubTokenServer.getErrors();
+			long start = System.nanoTime();
+
+			long[] latencies = new long[requests];
+			long failures = this.runStage(threads, latencies.length, latencies);
+
+			long elapsed = System.nanoTime() - start;
+			upstreamCalls = stubTokenServer.getCalls() - upstreamCalls;
+			upstreamErrors = stubTokenServer.getErrors() - upstreamErrors;
+			Arrays.sort(latencies);
+
+			LOGGER.info(REPORT, threads, requests, failures,
+					this.percentile(latencies, 0.5), this.percentile(latencies, 0.99), this.percentile(latencies, 0.999),
+					requests * TimeUnit.SECONDS.toNanos(1) / elapsed, upstreamCalls * 1000.0 / requests, upstreamErrors);
+
+			// validating the failures stay within the error rate of the token generation API
+			assertTrue(failures <= requests * errorRate, String.valueOf(failures));
+
+			// validating the cached token spares the token generation API
+			assertTrue(upstreamCalls < requests, String.valueOf(upstreamCalls));
+		}
+	}
+
+	/**
+	 * Sends the given number of requests from the given number of threads,
+	 * discarding their latencies.
+	 *
+	 * @param threads - number of concurrent clients.
+	 * @param count   - number of requests.
+	 *
+	 * @return {@code long} - number of failed requests.
+	 * @throws InterruptedException
+	 */
+	private long runStage(int threads, int count) throws InterruptedException {
+		return this.runStage(threads, count, new long[count]);
+	}
+
+	/**
+	 * Sends the given number of requests from the given number of threads.
+	 *
+	 * @param threads   - number of concurrent clients.
+	 * @param count     - number of requests.
+	 * @param latencies - array receiving the latency in nanos of each request.
+	 *
+	 * @return {@code long} - number of failed requests.
+	 * @throws InterruptedException
+	 */
+	private long runStage(int threads, int count, long[] latencies) throws InterruptedException {
+		AtomicInteger next = new AtomicInteger();
+		AtomicLong failures = new AtomicLong();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		for (int i = 0; i < threads; i++) {
+			executor.execute(() -> {
+				for (int request = next.getAndIncrement(); request < count; request = next.getAndIncrement()) {
+					long requestStart = System.nanoTime();
+
+					if (!this.call()) {
+						failures.incrementAndGet();
+					}
+
+					latencies[request] = System.nanoTime() - requestStart;
+				}
+			});
+		}
+
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+
+		return failures.get();
+	}
+
+	/**
+	 * Calls the application, reading the whole response.
+	 *
+	 * @return {@code boolean} - {@code true} when the call succeeded.
+	 */
+	private boolean call() {
+		try {
+			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+			int status = connection.getResponseCode();
+			InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+
+			if (body != null) {
+				try (InputStream input = body) {
+					StreamUtils.drain(input);
+				}
+			}
+
+			return status == 200;
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the given percentile of the sorted latencies.
+	 *
+	 * @param latencies  - sorted latencies in nanos.
+	 * @param percentile - percentile between 0 and 1.
+	 *
+	 * @return {@code double} - latency in millis.
+	 */
+	private double percentile(long[] latencies, double percentile) {
+		int index = Math.min(latencies.length - 1, (int) Math.ceil(percentile * latencies.length) - 1);
+
+		return latencies[Math.max(0, index)] / 1_000_000.0;
+	}
+
+	/**
+	 * Resource of the application, reading the token of each request.
+	 */
+	@RestController
+	public static class LoadTestController {
+
+		@Autowired
+		private TokenModelResponse tokenModelResponse;
+
+		@GetMapping("/resource")
+		public int resource() {
+			return ((BenchmarkResponseSchema) tokenModelResponse.getTokenModelResponse()).getToken().length();
+		}
+	}
+}
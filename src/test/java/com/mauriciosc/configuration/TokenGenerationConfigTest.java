@@ -0,0 +1,123 @@
+package com.mauriciosc.configuration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.function.Supplier;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.mauriciosc.core.resilience.TokenCallDeadline;
+
+/**
+ * Suite of tests for the class {@link TokenGenerationConfig}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-16
+ *
+ */
+public class TokenGenerationConfigTest {
+
+	private TokenGenerationConfig tokenGenerationConfig;
+	private ObjectProvider<HttpClient> applicationHttpClient;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@SuppressWarnings("unchecked")
+	@BeforeEach
+	public void setUp() {
+		tokenGenerationConfig = new TokenGenerationConfig();
+		applicationHttpClient = mock(ObjectProvider.class);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "applicationHttpClient", applicationHttpClient);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "maxConnections", 10);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "maxConnectionsPerRoute", 5);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "idleEvictionSeconds", 30L);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "connectTimeout", 100);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "readTimeout", 200);
+		ReflectionTestUtils.setField(tokenGenerationConfig, "poolAcquireTimeout", 300);
+	}
+
+	/**
+	 * Closes the clients created by the tests.
+	 * 
+	 * @throws Exception
+	 */
+	@AfterEach
+	public void tearDown() throws Exception {
+		tokenGenerationConfig.closeHttpClient();
+	}
+
+	/**
+	 * Tests the pooled client and the configured timeouts are used when the
+	 * application does not supply a client.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testPooledRestTemplate() {
+		when(applicationHttpClient.getIfAvailable(any(Supplier.class)))
+			.thenAnswer(invocation -> ((Supplier<HttpClient>) invocation.getArgument(0)).get());
+
+		RestTemplate restTemplate = tokenGenerationConfig.getRestTemplate();
+
+		assertTrue(restTemplate.getRequestFactory() instanceof HttpComponentsClientHttpRequestFactory);
+		RequestConfig requestConfig = (RequestConfig) ReflectionTestUtils.getField(restTemplate.getRequestFactory(), "requestConfig");
+		assertNotNull(ReflectionTestUtils.getField(tokenGenerationConfig, "pooledHttpClient"));
+		assertTrue(requestConfig.getConnectTimeout() == 100 && requestConfig.getSocketTimeout() == 200 
+				&& requestConfig.getConnectionRequestTimeout() == 300);
+	}
+
+	/**
+	 * Tests the timeouts of a request are bounded by the deadline of the call.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDeadlineBoundsTimeouts() {
+		when(applicationHttpClient.getIfAvailable(any(Supplier.class)))
+			.thenAnswer(invocation -> ((Supplier<HttpClient>) invocation.getArgument(0)).get());
+		DeadlineAwareRequestFactory requestFactory = (DeadlineAwareRequestFactory) tokenGenerationConfig.getRestTemplate().getRequestFactory();
+
+		try {
+			TokenCallDeadline.set(System.currentTimeMillis() + 150);
+			RequestConfig requestConfig = requestFactory.createRequestConfig(null);
+
+			assertEquals(100, requestConfig.getConnectTimeout());
+			assertTrue(requestConfig.getSocketTimeout() > 0 && requestConfig.getSocketTimeout() <= 150);
+			assertTrue(requestConfig.getConnectionRequestTimeout() > 0 && requestConfig.getConnectionRequestTimeout() <= 150);
+		}
+		finally {
+			TokenCallDeadline.clear();
+		}
+
+		// validating the configured timeouts are kept without a deadline
+		assertEquals(200, requestFactory.createRequestConfig(null).getSocketTimeout());
+	}
+
+	/**
+	 * Tests the client supplied by the application is used.
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testApplicationHttpClient() {
+		HttpClient httpClient = HttpClients.createDefault();
+		when(applicationHttpClient.getIfAvailable(any(Supplier.class))).thenReturn(httpClient);
+
+		RestTemplate restTemplate = tokenGenerationConfig.getRestTemplate();
+
+		assertSame(httpClient, ((HttpComponentsClientHttpRequestFactory) restTemplate.getRequestFactory()).getHttpClient());
+	}
+}
@@ -0,0 +1,99 @@
+package com.mauriciosc.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+
+/**
+ * Suite of tests for the class {@link JwtClaimsExtractor}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-29
+ *
+ */
+public class JwtClaimsExtractorTest {
+
+	private JwtClaimsExtractor jwtClaimsExtractor;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		jwtClaimsExtractor = this.createExtractor("token");
+	}
+
+	/**
+	 * Tests the time claims read from the JWT held by the response, skipping the
+	 * other claims.
+	 */
+	@Test
+	public void testExtract() {
+		ResponseSchemaMock response = new ResponseSchemaMock();
+		ReflectionTestUtils.setField(response, "token",
+				createJwt("{\"sub\":\"client\",\"aud\":[\"a\",\"b\"],\"ctx\":{\"exp\":1},\"iat\":1600000000,\"exp\":1600003600}"));
+
+		JwtClaims claims = jwtClaimsExtractor.extract(response);
+
+		assertEquals(1_600_003_600L, claims.getExpiration());
+		assertEquals(1_600_000_000L, claims.getIssuedAt());
+		assertNull(claims.getNotBefore());
+	}
+
+	/**
+	 * Tests responses without a JWT, or not mapping the token field, have no
+	 * claims.
+	 */
+	@Test
+	public void testExtractNotJwt() {
+		ResponseSchemaMock response = new ResponseSchemaMock();
+
+		assertNull(jwtClaimsExtractor.extract(null));
+		assertNull(jwtClaimsExtractor.extract(response));
+
+		ReflectionTestUtils.setField(response, "token", "opaqueToken");
+		assertNull(jwtClaimsExtractor.extract(response));
+		assertNull(jwtClaimsExtractor.parse("header.%%%.signature"));
+		assertNull(jwtClaimsExtractor.parse(createJwt("[1600003600]")));
+		assertNull(jwtClaimsExtractor.parse(createJwt("{\"exp\":")));
+		assertNull(this.createExtractor("access_token").extract(response));
+	}
+
+	/**
+	 * Creates an extractor reading the given field.
+	 * 
+	 * @param tokenField - field holding the token.
+	 * 
+	 * @return {@code JwtClaimsExtractor} - extractor instance.
+	 */
+	private JwtClaimsExtractor createExtractor(String tokenField) {
+		JwtClaimsExtractor extractor = new JwtClaimsExtractor();
+		ReflectionTestUtils.setField(extractor, "tokenGenerationObjectMapper", new TokenGenerationObjectMapper());
+		ReflectionTestUtils.setField(extractor, "tokenField", tokenField);
+
+		return extractor;
+	}
+
+	/**
+	 * Creates an unsigned JWT with the given payload.
+	 * 
+	 * @param payload - JSON payload of the token.
+	 * 
+	 * @return {@code String} - compact serialization of the token.
+	 */
+	static String createJwt(String payload) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+		return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+				+ encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".";
+	}
+}
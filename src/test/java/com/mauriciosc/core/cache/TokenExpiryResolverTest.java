@@ -0,0 +1,176 @@
+package com.mauriciosc.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+
+/**
+ * Suite of tests for the class {@link TokenExpiryResolver}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-03
+ *
+ */
+public class TokenExpiryResolverTest {
+
+	private static final long ISSUED_AT = 1_600_000_000_000L;
+
+	private TokenExpiryResolver tokenExpiryResolver;
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		tokenExpiryResolver = new TokenExpiryResolver();
+		objectMapper = new ObjectMapper();
+		ReflectionTestUtils.setField(tokenExpiryResolver, "expiresInField", "expires_in");
+		ReflectionTestUtils.setField(tokenExpiryResolver, "expiresAtField", "expires_at");
+		ReflectionTestUtils.setField(tokenExpiryResolver, "safetyMarginSeconds", 30L);
+		ReflectionTestUtils.setField(tokenExpiryResolver, "fallbackTtlSeconds", 60L);
+		ReflectionTestUtils.setField(tokenExpiryResolver, "maxClockSkewSeconds", 60L);
+
+		JwtClaimsExtractor jwtClaimsExtractor = new JwtClaimsExtractor();
+		ReflectionTestUtils.setField(jwtClaimsExtractor, "tokenGenerationObjectMapper", new TokenGenerationObjectMapper());
+		ReflectionTestUtils.setField(jwtClaimsExtractor, "tokenField", "token");
+		ReflectionTestUtils.setField(tokenExpiryResolver, "jwtClaimsExtractor", jwtClaimsExtractor);
+	}
+
+	/**
+	 * Tests the expiry read from the {@code expires_in} field.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testResolveExpiresIn() throws Exception {
+		long expiresAt = tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree("{\"expires_in\": 3600}"), ISSUED_AT);
+
+		assertEquals(ISSUED_AT + 3_570_000L, expiresAt);
+	}
+
+	/**
+	 * Tests the expiry read from the {@code expires_at} field given as text.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testResolveExpiresAt() throws Exception {
+		long expiresAt = tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree("{\"expires_at\": \"1600000600\"}"), ISSUED_AT);
+
+		assertEquals(ISSUED_AT + 570_000L, expiresAt);
+	}
+
+	/**
+	 * Tests the expiry read from the lifetime fields captured while the body is
+	 * bound to the response schema, ignoring the fields of nested objects.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testResolveExpiresInWhileBinding() throws Exception {
+		String body = "{\"details\": {\"expires_in\": 10}, \"token\": \"mock_token\", \"expires_in\": 3600}";
+		TokenGenerationObjectMapper tokenGenerationObjectMapper = new TokenGenerationObjectMapper();
+
+		try (ExpiryFieldsParser expiryFields = tokenExpiryResolver.createParser(tokenGenerationObjectMapper.getObjectMapper().getFactory().createParser(body))) {
+			ResponseSchemaMock response = tokenGenerationObjectMapper.getReader(LenientResponseSchemaMock.class).readValue(expiryFields);
+
+			assertEquals("mock_token", response.getToken());
+			assertEquals(ISSUED_AT + 3_570_000L, tokenExpiryResolver.resolveExpiresAt(expiryFields, response, ISSUED_AT));
+		}
+	}
+
+	/**
+	 * Tests the fallback lifetime when the response has no expiry field and that
+	 * the safety margin never moves the expiry before the issue instant.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testResolveFallback() throws Exception {
+		assertEquals(ISSUED_AT + 30_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree("{\"token\": \"t\"}"), ISSUED_AT));
+		assertEquals(ISSUED_AT, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree("{\"expires_in\": 10}"), ISSUED_AT));
+	}
+
+	/**
+	 * Tests the expiry read from the {@code exp} claim, taking precedence over the
+	 * fields, moved by the clock offset estimated from the {@code iat} claim.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testResolveJwtExpiry() throws Exception {
+		ReflectionTestUtils.setField(tokenExpiryResolver, "jwtEnabled", true);
+		String body = "{\"expires_in\": 3600}";
+
+		// identity provider clock 10 seconds ahead
+		ResponseSchemaMock response = this.createResponse("{\"iat\":1600000010,\"exp\":1600000610}");
+		assertEquals(ISSUED_AT + 570_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+
+		// identity provider clock 20 seconds behind
+		response = this.createResponse("{\"iat\":1599999980,\"exp\":1600000580}");
+		assertEquals(ISSUED_AT + 570_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+
+		// disabled, the fields are used
+		ReflectionTestUtils.setField(tokenExpiryResolver, "jwtEnabled", false);
+		assertEquals(ISSUED_AT + 3_570_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+	}
+
+	/**
+	 * Tests the clock offset is bounded by the maximum clock skew, which is
+	 * assumed when the token has no {@code iat} claim, and that tokens without
+	 * the {@code exp} claim fall back to the fields.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testResolveJwtClockSkew() throws Exception {
+		ReflectionTestUtils.setField(tokenExpiryResolver, "jwtEnabled", true);
+		String body = "{\"expires_in\": 3600}";
+
+		// identity provider clock one hour behind, offset bounded to 60 seconds
+		ResponseSchemaMock response = this.createResponse("{\"iat\":1599996400,\"exp\":1600000000}");
+		assertEquals(ISSUED_AT + 30_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+
+		// without iat, the identity provider clock is assumed 60 seconds ahead
+		response = this.createResponse("{\"exp\":1600000600}");
+		assertEquals(ISSUED_AT + 510_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+
+		// not before the local issue instant, the identity provider clock is ahead
+		response = this.createResponse("{\"iat\":1600000000,\"nbf\":1600000020,\"exp\":1600000600}");
+		assertEquals(ISSUED_AT + 550_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+
+		// without exp
+		response = this.createResponse("{\"iat\":1600000000}");
+		assertEquals(ISSUED_AT + 3_570_000L, tokenExpiryResolver.resolveExpiresAt(objectMapper.readTree(body), response, ISSUED_AT));
+	}
+
+	/**
+	 * Creates a response holding a JWT with the given payload.
+	 * 
+	 * @param payload - JSON payload of the token.
+	 * 
+	 * @return {@code ResponseSchemaMock} - response.
+	 */
+	private ResponseSchemaMock createResponse(String payload) {
+		ResponseSchemaMock response = new ResponseSchemaMock();
+		ReflectionTestUtils.setField(response, "token", JwtClaimsExtractorTest.createJwt(payload));
+
+		return response;
+	}
+
+	/**
+	 * Response schema ignoring the fields it doesn't map, such as the lifetime
+	 * fields.
+	 */
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	private static class LenientResponseSchemaMock extends ResponseSchemaMock {
+	}
+}
@@ -0,0 +1,160 @@
+package com.mauriciosc.core.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Suite of tests for the class {@link TokenSnapshotStore}.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-27
+ *
+ */
+public class TokenSnapshotStoreTest {
+
+	private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+	@TempDir
+	Path directory;
+
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+	private Path snapshotPath;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		snapshotPath = directory.resolve("tokens.snapshot");
+	}
+
+	/**
+	 * Tests the valid tokens written by an instance are restored by the next one,
+	 * without the token in clear text on disk.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testWriteAndRestore() throws Exception {
+		long now = System.currentTimeMillis();
+		TokenCache tokenCache = new TokenCache();
+		ResponseSchemaMock response = new ResponseSchemaMock();
+		ReflectionTestUtils.setField(response, "token", "mockToken");
+		tokenCache.put(tokenGenerationSchema, new CachedToken(response, now, now + 60_000L));
+
+		assertTrue(this.createStore(tokenCache, KEY).write());
+		assertFalse(new String(Files.readAllBytes(snapshotPath), StandardCharsets.ISO_8859_1).contains("mockToken"));
+
+		TokenCache restoredCache = new TokenCache();
+		assertEquals(1, this.createStore(restoredCache, KEY).restore(now));
+
+		// validating the restored token and its lifetime
+		CachedToken restoredToken = restoredCache.get(tokenGenerationSchema, now);
+		assertEquals("mockToken", ((ResponseSchemaMock) restoredToken.getResponse()).getToken());
+		assertEquals(now, restoredToken.getIssuedAt());
+		assertEquals(now + 60_000L, restoredToken.getExpiresAt());
+
+		// validating tokens expired in the meantime are not restored
+		TokenCache laterCache = new TokenCache();
+		assertEquals(0, this.createStore(laterCache, KEY).restore(now + 60_000L));
+		assertNull(laterCache.peek(tokenGenerationSchema));
+	}
+
+	/**
+	 * Tests a snapshot encrypted with another key, corrupt or missing is ignored.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testRestoreIgnoresUnreadableSnapshot() throws Exception {
+		long now = System.currentTimeMillis();
+		TokenCache tokenCache = new TokenCache();
+
+		assertEquals(0, this.createStore(tokenCache, KEY).restore(now));
+
+		tokenCache.put(tokenGenerationSchema, new CachedToken(new ResponseSchemaMock(), now, now + 60_000L));
+		this.createStore(tokenCache, KEY).write();
+
+		// validating another key cannot read the snapshot
+		String otherKey = Base64.getEncoder().encodeToString(new byte[16]);
+		assertEquals(0, this.createStore(new TokenCache(), otherKey).restore(now));
+
+		// validating a tampered snapshot is rejected
+		byte[] snapshot = Files.readAllBytes(snapshotPath);
+		snapshot[snapshot.length - 1] ^= 1;
+		Files.write(snapshotPath, snapshot);
+		assertEquals(0, this.createStore(new TokenCache(), KEY).restore(now));
+
+		Files.write(snapshotPath, new byte[] {1, 2, 3});
+		assertEquals(0, this.createStore(new TokenCache(), KEY).restore(now));
+	}
+
+	/**
+	 * Tests the snapshot is only enabled with a valid key, restoring it at startup.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testAfterSingletonsInstantiated() throws Exception {
+		long now = System.currentTimeMillis();
+		TokenCache tokenCache = new TokenCache();
+		tokenCache.put(tokenGenerationSchema, new CachedToken(new ResponseSchemaMock(), now, now + 60_000L));
+		this.createStore(tokenCache, KEY).write();
+
+		TokenCache invalidKeyCache = new TokenCache();
+		TokenSnapshotStore invalidKeyStore = this.createStore(invalidKeyCache, "bm90LWEta2V5");
+		invalidKeyStore.afterSingletonsInstantiated();
+		invalidKeyStore.close();
+		assertNull(invalidKeyCache.peek(tokenGenerationSchema));
+
+		TokenCache restoredCache = new TokenCache();
+		TokenSnapshotStore tokenSnapshotStore = this.createStore(restoredCache, KEY);
+		tokenSnapshotStore.afterSingletonsInstantiated();
+		assertNotNull(restoredCache.get(tokenGenerationSchema, now));
+
+		// validating the shutdown writes the cache state
+		restoredCache.invalidate(tokenGenerationSchema);
+		tokenSnapshotStore.close();
+		assertEquals(0, this.createStore(new TokenCache(), KEY).restore(now));
+	}
+
+	/**
+	 * Creates an enabled store of the given cache.
+	 *
+	 * @param tokenCache - cache to be persisted.
+	 * @param key        - Base64 key of the snapshot.
+	 *
+	 * @return {@code TokenSnapshotStore} - store instance.
+	 */
+	private TokenSnapshotStore createStore(TokenCache tokenCache, String key) {
+		TokenSnapshotStore tokenSnapshotStore = new TokenSnapshotStore();
+		ReflectionTestUtils.setField(tokenSnapshotStore, "tokenCache", tokenCache);
+		ReflectionTestUtils.setField(tokenSnapshotStore, "tokenGenerationObjectMapper", new TokenGenerationObjectMapper());
+		ReflectionTestUtils.setField(tokenSnapshotStore, "tokenGenerationSchemas", Collections.singletonMap("tokenGenerationSchema", tokenGenerationSchema));
+		ReflectionTestUtils.setField(tokenSnapshotStore, "enabled", true);
+		ReflectionTestUtils.setField(tokenSnapshotStore, "cacheEnabled", true);
+		ReflectionTestUtils.setField(tokenSnapshotStore, "path", snapshotPath.toString());
+		ReflectionTestUtils.setField(tokenSnapshotStore, "key", key);
+		tokenSnapshotStore.init();
+
+		return tokenSnapshotStore;
+	}
+}
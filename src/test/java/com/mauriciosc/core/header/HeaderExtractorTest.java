@@ -0,0 +1,114 @@
+package com.mauriciosc.core.header;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.model.request.HeaderModelRequest;
+import com.mauriciosc.core.model.request.HeaderModelRequestMock;
+import com.mauriciosc.core.model.request.ImmutableHeaderModelRequestMock;
+
+/**
+ * Suite of tests for the class {@link HeaderExtractor}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-08
+ *
+ */
+public class HeaderExtractorTest {
+
+	private HeaderExtractor headerExtractor;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		headerExtractor = new HeaderExtractor();
+		ReflectionTestUtils.setField(headerExtractor, "tokenGenerationObjectMapper", new TokenGenerationObjectMapper());
+	}
+
+	/**
+	 * Tests the compiled plan extracts the same headers as the mapper conversion.
+	 * 
+	 * @throws Throwable
+	 */
+	@Test
+	public void testExtractCompiled() throws Throwable {
+		HeaderModelRequestMock headerSchema = new HeaderModelRequestMock("x-header-mock", null);
+
+		HttpHeaders httpHeaders = headerExtractor.extract(headerSchema, false);
+
+		assertTrue(HeaderExtractionPlan.compile(HeaderModelRequestMock.class, new ObjectMapper()).isCompiled());
+		assertEquals(headerExtractor.convert(headerSchema), httpHeaders);
+		assertEquals("x-header-mock", httpHeaders.getFirst("headerA"));
+		assertEquals("null", httpHeaders.getFirst("headerB"));
+	}
+
+	/**
+	 * Tests the headers are extracted on every call unless the instance is
+	 * flagged as immutable, whatever the layout of its class.
+	 * 
+	 * @throws Throwable
+	 */
+	@Test
+	public void testExtractImmutableCached() throws Throwable {
+		HeaderModelRequestMock mutableSchema = new HeaderModelRequestMock("x-header-mock", 2);
+		ImmutableHeaderModelRequestMock immutableSchema = new ImmutableHeaderModelRequestMock("x-header-mock", 2);
+
+		assertNotSame(headerExtractor.extract(mutableSchema, false), headerExtractor.extract(mutableSchema, false));
+		assertNotSame(headerExtractor.extract(immutableSchema, false), headerExtractor.extract(immutableSchema, false));
+		assertSame(headerExtractor.extract(mutableSchema, true), headerExtractor.extract(mutableSchema, true));
+		assertSame(headerExtractor.extract(immutableSchema, true), headerExtractor.extract(immutableSchema, true));
+		assertEquals(headerExtractor.convert(immutableSchema), headerExtractor.extract(immutableSchema, true));
+	}
+
+	/**
+	 * Tests renamed properties and unsupported layouts keep the mapper semantics.
+	 * 
+	 * @throws Throwable
+	 */
+	@Test
+	public void testExtractMapperSemantics() throws Throwable {
+		RenamedHeaderMock renamedSchema = new RenamedHeaderMock();
+		DateHeaderMock dateSchema = new DateHeaderMock();
+
+		assertEquals("renamed", headerExtractor.extract(renamedSchema, false).getFirst("x-renamed"));
+		assertFalse(HeaderExtractionPlan.compile(DateHeaderMock.class, new ObjectMapper()).isCompiled());
+		assertEquals("0", headerExtractor.extract(dateSchema, false).getFirst("date"));
+		assertTrue(headerExtractor.extract(null, false).isEmpty());
+	}
+
+	/**
+	 * Header mock with a renamed property.
+	 */
+	public static class RenamedHeaderMock implements HeaderModelRequest {
+
+		@JsonProperty("x-renamed")
+		public String getRenamed() {
+			return "renamed";
+		}
+	}
+
+	/**
+	 * Header mock with a non scalar property.
+	 */
+	public static class DateHeaderMock implements HeaderModelRequest {
+
+		public Date getDate() {
+			return new Date(0);
+		}
+	}
+}
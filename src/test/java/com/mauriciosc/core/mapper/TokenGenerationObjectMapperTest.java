@@ -0,0 +1,51 @@
+package com.mauriciosc.core.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+
+/**
+ * Suite of tests for the class {@link TokenGenerationObjectMapper}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-10
+ *
+ */
+public class TokenGenerationObjectMapperTest {
+
+	/**
+	 * Tests the registered customizers are applied and readers are reused.
+	 * 
+	 * @throws Exception
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testCustomizeAndReaders() throws Exception {
+		TokenGenerationObjectMapper tokenGenerationObjectMapper = new TokenGenerationObjectMapper();
+		ObjectProvider<ObjectMapperCustomizer> customizers = mock(ObjectProvider.class);
+		ObjectMapperCustomizer customizer = objectMapper -> objectMapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		when(customizers.orderedStream()).thenReturn(Stream.of(customizer));
+		ReflectionTestUtils.setField(tokenGenerationObjectMapper, "customizers", customizers);
+
+		tokenGenerationObjectMapper.customize();
+
+		ResponseSchemaMock responseSchema = tokenGenerationObjectMapper.getReader(ResponseSchemaMock.class)
+				.readValue("{\"token\": \"mock_token\", \"expires_in\": 300}");
+
+		// validating the customization and the reader reuse
+		assertFalse(tokenGenerationObjectMapper.getObjectMapper().isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+		assertEquals("mock_token", responseSchema.getToken());
+		assertSame(tokenGenerationObjectMapper.getReader(ResponseSchemaMock.class), tokenGenerationObjectMapper.getReader(ResponseSchemaMock.class));
+	}
+}
@@ -0,0 +1,39 @@
+package com.mauriciosc.core.model.request;
+
+/**
+ * Mock immutable implementation of {@link HeaderModelRequest} class.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-08
+ *
+ */
+public class ImmutableHeaderModelRequestMock implements HeaderModelRequest {
+	
+	private final String headerA;
+	private final Integer headerB;
+	
+	/**
+	 * Parameterized constructor.
+	 * 
+	 * @param headerA - headerA parameter
+	 * @param headerB - headerB parameter
+	 */
+	public ImmutableHeaderModelRequestMock(String headerA, Integer headerB) {
+		this.headerA = headerA;
+		this.headerB = headerB;
+	}
+
+	/**
+	 * @return headerA field.
+	 */
+	public String getHeaderA() {
+		return headerA;
+	}
+	
+	/**
+	 * @return headerB field.
+	 */
+	public Integer getHeaderB() {
+		return headerB;
+	}
+}
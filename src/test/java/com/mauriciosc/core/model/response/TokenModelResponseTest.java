@@ -0,0 +1,201 @@
+package com.mauriciosc.core.model.response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.mauriciosc.core.schema.ResponseSchema;
+
+/**
+ * Suite of tests for the class {@link TokenModelResponse} under concurrency.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-06
+ *
+ */
+public class TokenModelResponseTest {
+
+	private static final int READERS = 8;
+	private static final int WRITES = 200_000;
+
+	/**
+	 * Tests that readers never observe a torn response nor a response older than
+	 * one they have already observed while a writer keeps replacing it.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testConcurrentSnapshotReads() throws Exception {
+		TokenModelResponse tokenModelResponse = new TokenModelResponse();
+		tokenModelResponse.setResponse(new VersionedResponseSchema(0));
+		
+		ExecutorService executorService = Executors.newFixedThreadPool(READERS + 1);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Future<Long>> readers = new ArrayList<>();
+		
+		try {
+			for (int i = 0; i < READERS; i++) {
+				readers.add(executorService.submit(() -> {
+					startSignal.await();
+					long lastVersion = 0;
+					long reads = 0;
+					
+					do {
+						VersionedResponseSchema response = (VersionedResponseSchema) tokenModelResponse.getTokenModelResponse();
+						
+						// validating consistent (not torn) and not stale reads
+						assertEquals("token-" + response.getVersion(), response.getToken());
+						assertTrue(response.getVersion() >= lastVersion);
+						
+						lastVersion = response.getVersion();
+						reads++;
+					} while (writing.get());
+					
+					return reads;
+				}));
+			}
+			
+			Future<?> writer = executorService.submit(() -> {
+				startSignal.await();
+				
+				for (int version = 1; version <= WRITES; version++) {
+					tokenModelResponse.setResponse(new VersionedResponseSchema(version));
+				}
+				
+				writing.set(false);
+				return null;
+			});
+			
+			startSignal.countDown();
+			writer.get(30, TimeUnit.SECONDS);
+			
+			for (Future<Long> reader : readers) {
+				assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+			}
+			
+			assertEquals(WRITES, ((VersionedResponseSchema) tokenModelResponse.getTokenModelResponse()).getVersion());
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that each request keeps reading the response bound to it while other
+	 * requests bind their own responses.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testConcurrentRequestBoundReads() throws Exception {
+		TokenModelResponse tokenModelResponse = new TokenModelResponse();
+		
+		ExecutorService executorService = Executors.newFixedThreadPool(READERS);
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Future<?>> requests = new ArrayList<>();
+		
+		try {
+			for (int i = 0; i < READERS; i++) {
+				long version = i;
+				
+				requests.add(executorService.submit(() -> {
+					MockHttpServletRequest request = new MockHttpServletRequest();
+					RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+					startSignal.await();
+					
+					try {
+						for (int read = 0; read < WRITES / READERS; read++) {
+							tokenModelResponse.bind(request, new VersionedResponseSchema(version));
+							
+							// validating the request reads its own response
+							assertEquals(version, ((VersionedResponseSchema) tokenModelResponse.getTokenModelResponse()).getVersion());
+						}
+					}
+					finally {
+						RequestContextHolder.resetRequestAttributes();
+					}
+					
+					return null;
+				}));
+			}
+			
+			startSignal.countDown();
+			
+			for (Future<?> request : requests) {
+				request.get(30, TimeUnit.SECONDS);
+			}
+		}
+		finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	/**
+	 * Tests that only the responses of the default schema, eager or deferred, are
+	 * read outside of a request.
+	 */
+	@Test
+	public void testDefaultSchemaSnapshot() {
+		TokenModelResponse tokenModelResponse = new TokenModelResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		
+		tokenModelResponse.bind(request, new VersionedResponseSchema(1), true);
+		tokenModelResponse.bind(new MockHttpServletRequest(), new VersionedResponseSchema(2), false);
+		
+		// validating the response of another schema does not replace the snapshot
+		assertEquals(1, ((VersionedResponseSchema) tokenModelResponse.getTokenModelResponse()).getVersion());
+		
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		
+		try {
+			tokenModelResponse.bind(request, new DeferredResponse(() -> new VersionedResponseSchema(3)), false);
+			assertEquals(3, ((VersionedResponseSchema) tokenModelResponse.getTokenModelResponse()).getVersion());
+			
+			tokenModelResponse.bind(request, new DeferredResponse(() -> new VersionedResponseSchema(4)), true);
+			assertEquals(4, ((VersionedResponseSchema) tokenModelResponse.getTokenModelResponse()).getVersion());
+		}
+		finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+		
+		// validating only the deferred response of the default schema replaced the snapshot
+		assertEquals(4, ((VersionedResponseSchema) tokenModelResponse.getTokenModelResponse()).getVersion());
+	}
+
+	/**
+	 * Response whose token is derived from its version, so a torn read is
+	 * detectable.
+	 */
+	private static class VersionedResponseSchema implements ResponseSchema {
+		
+		private final long version;
+		private final String token;
+		
+		VersionedResponseSchema(long version) {
+			this.version = version;
+			this.token = "token-" + version;
+		}
+		
+		long getVersion() {
+			return version;
+		}
+		
+		String getToken() {
+			return token;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.mauriciosc.core.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mauriciosc.core.exception.TokenBulkheadFullException;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Suite of tests for the class {@link TokenBulkhead}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-21
+ *
+ */
+public class TokenBulkheadTest {
+
+	private TokenBulkhead tokenBulkhead;
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		tokenBulkhead = new TokenBulkhead();
+		ReflectionTestUtils.setField(tokenBulkhead, "enabled", true);
+		ReflectionTestUtils.setField(tokenBulkhead, "maxConcurrentCalls", 1);
+		ReflectionTestUtils.setField(tokenBulkhead, "maxQueuedCalls", 1);
+		ReflectionTestUtils.setField(tokenBulkhead, "acquireTimeout", 100L);
+	}
+
+	/**
+	 * Tests that callers beyond the queue are rejected right away and that a freed
+	 * slot is taken again.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testAcquireQueueFull() throws Exception {
+		ReflectionTestUtils.setField(tokenBulkhead, "maxQueuedCalls", 0);
+		ReflectionTestUtils.setField(tokenBulkhead, "acquireTimeout", 10_000L);
+
+		tokenBulkhead.acquire(tokenGenerationSchema);
+		long start = System.nanoTime();
+
+		// validating the rejection does not wait for the acquire timeout
+		assertThrows(TokenBulkheadFullException.class, () -> tokenBulkhead.acquire(tokenGenerationSchema));
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+		assertThrows(TokenBulkheadFullException.class, () -> tokenBulkhead.tryAcquire(tokenGenerationSchema));
+
+		tokenBulkhead.release(tokenGenerationSchema);
+		tokenBulkhead.acquire(tokenGenerationSchema);
+
+		assertEquals(2, tokenBulkhead.getRejectedCalls());
+	}
+
+	/**
+	 * Tests that queued callers are rejected once the acquire timeout elapses, or
+	 * take the slot when it is freed in time.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testAcquireQueued() throws Exception {
+		tokenBulkhead.acquire(tokenGenerationSchema);
+
+		// validating the acquire timeout
+		assertThrows(TokenBulkheadFullException.class, () -> tokenBulkhead.acquire(tokenGenerationSchema));
+
+		ReflectionTestUtils.setField(tokenBulkhead, "acquireTimeout", 10_000L);
+		CompletableFuture<Void> queued = CompletableFuture.runAsync(() -> {
+			try {
+				tokenBulkhead.acquire(tokenGenerationSchema);
+			}
+			catch (TokenBulkheadFullException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		Thread.sleep(50);
+		tokenBulkhead.release(tokenGenerationSchema);
+
+		// validating the queued caller takes the freed slot
+		queued.get(5, TimeUnit.SECONDS);
+		assertEquals(1, tokenBulkhead.getRejectedCalls());
+	}
+
+	/**
+	 * Tests that the limits apply to each schema separately.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testAcquirePerSchema() throws Exception {
+		TokenGenerationSchema otherSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+		tokenBulkhead.acquire(tokenGenerationSchema);
+		tokenBulkhead.acquire(otherSchema);
+
+		assertThrows(TokenBulkheadFullException.class, () -> tokenBulkhead.tryAcquire(tokenGenerationSchema));
+		assertThrows(TokenBulkheadFullException.class, () -> tokenBulkhead.tryAcquire(otherSchema));
+	}
+}
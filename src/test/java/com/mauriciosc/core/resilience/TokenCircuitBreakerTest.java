@@ -0,0 +1,135 @@
+package com.mauriciosc.core.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.mauriciosc.core.exception.TokenCircuitOpenException;
+import com.mauriciosc.core.resilience.TokenCircuitBreaker.State;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Suite of tests for the class {@link TokenCircuitBreaker}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-22
+ *
+ */
+public class TokenCircuitBreakerTest {
+
+	private static final HttpServerErrorException SERVER_ERROR = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+
+	private TokenCircuitBreaker tokenCircuitBreaker;
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		tokenCircuitBreaker = new TokenCircuitBreaker();
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "enabled", true);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "failureThreshold", 3);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "failureRateThreshold", 0.5);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "windowSize", 4);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "minimumCalls", 4);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "openDurationSeconds", 60L);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "halfOpenCalls", 1);
+	}
+
+	/**
+	 * Tests that the circuit opens after consecutive failures and rejects calls
+	 * while open.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testOpenAfterConsecutiveFailures() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+			tokenCircuitBreaker.onFailure(tokenGenerationSchema, new ResourceAccessException("mock timeout"));
+		}
+
+		// validating the open circuit short-circuits the calls
+		assertEquals(State.OPEN, tokenCircuitBreaker.getState(tokenGenerationSchema));
+		assertThrows(TokenCircuitOpenException.class, () -> tokenCircuitBreaker.acquirePermission(tokenGenerationSchema));
+		assertEquals(1, tokenCircuitBreaker.getShortCircuitedCalls());
+
+		// validating client errors do not count as failures
+		TokenGenerationSchema otherSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		for (int i = 0; i < 10; i++) {
+			tokenCircuitBreaker.acquirePermission(otherSchema);
+			tokenCircuitBreaker.onFailure(otherSchema, new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+		}
+		assertEquals(State.CLOSED, tokenCircuitBreaker.getState(otherSchema));
+	}
+
+	/**
+	 * Tests that the circuit opens when the failure rate of the latest calls
+	 * reaches the threshold, even without consecutive failures.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testOpenOnFailureRate() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+			tokenCircuitBreaker.onSuccess(tokenGenerationSchema);
+			assertEquals(State.CLOSED, tokenCircuitBreaker.getState(tokenGenerationSchema));
+
+			tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+			tokenCircuitBreaker.onFailure(tokenGenerationSchema, SERVER_ERROR);
+		}
+
+		assertEquals(State.OPEN, tokenCircuitBreaker.getState(tokenGenerationSchema));
+	}
+
+	/**
+	 * Tests that, after the open duration, a single probe call is let through and
+	 * its outcome closes or opens the circuit again.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testHalfOpenProbes() throws Exception {
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "openDurationSeconds", 0L);
+		this.open();
+
+		// validating a failed probe opens the circuit again
+		tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+		assertEquals(State.HALF_OPEN, tokenCircuitBreaker.getState(tokenGenerationSchema));
+		assertThrows(TokenCircuitOpenException.class, () -> tokenCircuitBreaker.acquirePermission(tokenGenerationSchema));
+		tokenCircuitBreaker.onFailure(tokenGenerationSchema, SERVER_ERROR);
+		assertEquals(State.OPEN, tokenCircuitBreaker.getState(tokenGenerationSchema));
+
+		// validating a released probe permission can be taken again
+		tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+		tokenCircuitBreaker.releasePermission(tokenGenerationSchema);
+		tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+
+		// validating a successful probe closes the circuit
+		tokenCircuitBreaker.onSuccess(tokenGenerationSchema);
+		assertEquals(State.CLOSED, tokenCircuitBreaker.getState(tokenGenerationSchema));
+		tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+	}
+
+	/**
+	 * Opens the circuit through consecutive failures.
+	 * 
+	 * @throws Exception
+	 */
+	private void open() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			tokenCircuitBreaker.acquirePermission(tokenGenerationSchema);
+			tokenCircuitBreaker.onFailure(tokenGenerationSchema, SERVER_ERROR);
+		}
+	}
+}
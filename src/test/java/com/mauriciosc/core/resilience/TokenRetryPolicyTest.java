@@ -0,0 +1,138 @@
+package com.mauriciosc.core.resilience;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Suite of tests for the class {@link TokenRetryPolicy}.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-23
+ *
+ */
+public class TokenRetryPolicyTest {
+
+	private static final long NOW = 1_000_000L;
+	private static final long DEADLINE = NOW + 3000L;
+
+	private TokenRetryPolicy tokenRetryPolicy;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		tokenRetryPolicy = new TokenRetryPolicy();
+		ReflectionTestUtils.setField(tokenRetryPolicy, "enabled", true);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "maxAttempts", 3);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "initialBackoff", 100L);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "multiplier", 2.0);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "maxBackoff", 150L);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "jitter", 0.5);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "deadline", 3000L);
+	}
+
+	/**
+	 * Tests that unavailable responses and connection failures are retried with a
+	 * jittered exponential backoff, up to the maximum attempts.
+	 */
+	@Test
+	public void testGetRetryDelayBackoff() {
+		HttpServerErrorException unavailable = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+
+		long firstDelay = tokenRetryPolicy.getRetryDelay(1, unavailable, NOW, DEADLINE, false);
+		long secondDelay = tokenRetryPolicy.getRetryDelay(2, new ResourceAccessException("mock refused", new ConnectException()), NOW, DEADLINE, false);
+
+		// validating the delays are within the jitter of the capped backoff
+		assertTrue(firstDelay >= 50 && firstDelay <= 100, String.valueOf(firstDelay));
+		assertTrue(secondDelay >= 75 && secondDelay <= 150, String.valueOf(secondDelay));
+		assertEquals(2, tokenRetryPolicy.getRetries());
+
+		// validating the last attempt is not retried
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(3, unavailable, NOW, DEADLINE, false));
+
+		// validating retries are disabled by default
+		ReflectionTestUtils.setField(tokenRetryPolicy, "enabled", false);
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, unavailable, NOW, DEADLINE, false));
+		assertEquals(TokenCallDeadline.NONE, tokenRetryPolicy.getDeadline(NOW));
+	}
+
+	/**
+	 * Tests that throttled responses are only retried after the delay they ask
+	 * for, and only when it fits the deadline.
+	 */
+	@Test
+	public void testGetRetryDelayRetryAfter() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.RETRY_AFTER, "2");
+
+		// validating the requested delay is honored
+		assertEquals(2000L, tokenRetryPolicy.getRetryDelay(1,
+				HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", headers, null, null), NOW, DEADLINE, false));
+
+		// validating the requested delay beyond the deadline is not retried
+		headers.set(HttpHeaders.RETRY_AFTER, "5");
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1,
+				HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "", headers, null, null), NOW, DEADLINE, false));
+
+		// validating throttling without the header is not retried
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS), NOW, DEADLINE, false));
+
+		// validating an unavailable response waits at least the requested delay
+		headers.set(HttpHeaders.RETRY_AFTER, "1");
+		assertEquals(1000L, tokenRetryPolicy.getRetryDelay(1,
+				HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "", headers, null, null), NOW, DEADLINE, false));
+	}
+
+	/**
+	 * Tests that connections failing after the request was sent are only retried
+	 * when the provider opts in, unlike the ones failing to connect.
+	 */
+	@Test
+	public void testGetRetryDelayAfterSend() {
+		ResourceAccessException reset = new ResourceAccessException("mock reset", new SocketException());
+		ResourceAccessException noResponse = new ResourceAccessException("mock no response", new NoHttpResponseException("mock"));
+		ResourceAccessException connectTimeout = new ResourceAccessException("mock connect timeout", new ConnectTimeoutException());
+
+		// validating the failures after send are not retried by default
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, reset, NOW, DEADLINE, false));
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, noResponse, NOW, DEADLINE, false));
+		assertTrue(tokenRetryPolicy.getRetryDelay(1, connectTimeout, NOW, DEADLINE, false) >= 0);
+
+		// validating the failures after send are retried once the provider opts in
+		assertTrue(tokenRetryPolicy.getRetryDelay(1, reset, NOW, DEADLINE, true) >= 0);
+		assertTrue(tokenRetryPolicy.getRetryDelay(1, noResponse, NOW, DEADLINE, true) >= 0);
+		assertEquals(3, tokenRetryPolicy.getRetries());
+	}
+
+	/**
+	 * Tests that failures which may have reached the token generation API, or
+	 * that will fail again, are not retried.
+	 */
+	@Test
+	public void testGetRetryDelayNotRetried() {
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, new HttpClientErrorException(HttpStatus.UNAUTHORIZED), NOW, DEADLINE, false));
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR), NOW, DEADLINE, false));
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, new ResourceAccessException("mock timeout", new SocketTimeoutException()), NOW, DEADLINE, false));
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, new IllegalStateException(), NOW, DEADLINE, false));
+
+		// validating no retry is scheduled once the deadline is exhausted
+		assertEquals(-1L, tokenRetryPolicy.getRetryDelay(1, new HttpServerErrorException(HttpStatus.BAD_GATEWAY), DEADLINE - 10, DEADLINE, false));
+		assertEquals(0, tokenRetryPolicy.getRetries());
+	}
+}
@@ -0,0 +1,147 @@
+package com.mauriciosc.core.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Suite of tests for the class {@link TokenProviderRegistry}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-31
+ *
+ */
+public class TokenProviderRegistryTest {
+
+	private static final String MOCK_URL = "http://localhost/mock_url";
+
+	private TokenProviderRegistry tokenProviderRegistry;
+	private MockEnvironment environment;
+	private TokenGenerationSchema billingSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+	private TokenGenerationSchema defaultSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+	private ObjectProvider<TokenGenerationSchema> uniqueTokenGenerationSchema;
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		Map<String, TokenGenerationSchema> schemas = new HashMap<>();
+		schemas.put("billingTokenGenerationSchema", billingSchema);
+		schemas.put("tokenGenerationSchema", defaultSchema);
+
+		uniqueTokenGenerationSchema = this.mockObjectProvider();
+		environment = new MockEnvironment();
+		tokenProviderRegistry = new TokenProviderRegistry();
+		ReflectionTestUtils.setField(tokenProviderRegistry, "environment", environment);
+		ReflectionTestUtils.setField(tokenProviderRegistry, "tokenGenerationSchemas", schemas);
+		ReflectionTestUtils.setField(tokenProviderRegistry, "uniqueTokenGenerationSchema", uniqueTokenGenerationSchema);
+		ReflectionTestUtils.setField(tokenProviderRegistry, "tokenGenerationUrl", MOCK_URL);
+		ReflectionTestUtils.setField(tokenProviderRegistry, "cacheEnabled", true);
+		ReflectionTestUtils.setField(tokenProviderRegistry, "gracePeriodSeconds", 0L);
+	}
+
+	/**
+	 * Tests the declared providers, completed with the global settings, and the
+	 * providers of the remaining schema beans.
+	 */
+	@Test
+	public void testInit() {
+		environment.setProperty("token.generation.providers.billing.schema", "billingTokenGenerationSchema");
+		environment.setProperty("token.generation.providers.billing.url", "http://localhost/billing_url");
+		environment.setProperty("token.generation.providers.billing.method", "put");
+		environment.setProperty("token.generation.providers.billing.timeout", "1500");
+		environment.setProperty("token.generation.providers.billing.cache-enabled", "false");
+		environment.setProperty("token.generation.providers.billing.grace-period", "60");
+		environment.setProperty("token.generation.providers.billing.retry-after-send", "true");
+
+		tokenProviderRegistry.init();
+
+		// validating the declared provider
+		TokenProvider billing = tokenProviderRegistry.getProvider("billing");
+		assertSame(billing, tokenProviderRegistry.getProvider(billingSchema));
+		assertEquals("http://localhost/billing_url", billing.getUrl());
+		assertEquals(HttpMethod.PUT, billing.getMethod());
+		assertEquals(1500L, billing.getTimeout());
+		assertFalse(billing.isCacheEnabled());
+		assertEquals(60_000L, billing.getGracePeriod());
+		assertTrue(billing.isRetryAfterSend());
+		assertNull(tokenProviderRegistry.getProvider("billingTokenGenerationSchema"));
+
+		// validating the provider of the remaining schema bean
+		TokenProvider defaultProvider = tokenProviderRegistry.getProvider("tokenGenerationSchema");
+		assertSame(defaultProvider, tokenProviderRegistry.getProvider(defaultSchema));
+		assertEquals(MOCK_URL, defaultProvider.getUrl());
+		assertEquals(HttpMethod.POST, defaultProvider.getMethod());
+		assertEquals(TokenProvider.NO_TIMEOUT, defaultProvider.getTimeout());
+		assertTrue(defaultProvider.isCacheEnabled());
+		assertFalse(defaultProvider.isRetryAfterSend());
+		assertEquals(2, tokenProviderRegistry.getProviders().size());
+
+		// validating schemas that are not beans have no provider
+		assertNull(tokenProviderRegistry.getProvider(new TokenGenerationSchema(null, null, ResponseSchemaMock.class)));
+	}
+
+	/**
+	 * Tests providers referencing a missing schema bean or one already used by
+	 * another provider fail the startup.
+	 */
+	@Test
+	public void testInitInvalidSchema() {
+		environment.setProperty("token.generation.providers.billing.url", "http://localhost/billing_url");
+		assertThrows(IllegalStateException.class, tokenProviderRegistry::init);
+
+		environment.setProperty("token.generation.providers.billing.schema", "billingTokenGenerationSchema");
+		environment.setProperty("token.generation.providers.invoices.schema", "billingTokenGenerationSchema");
+		assertThrows(IllegalStateException.class, tokenProviderRegistry::init);
+	}
+
+	/**
+	 * Tests the default provider is the one named by the property or, when it is
+	 * not set, the one of the unique (or primary) schema bean.
+	 */
+	@Test
+	public void testDefaultProvider() {
+		tokenProviderRegistry.init();
+
+		// validating there is no default provider among several schema beans
+		assertNull(tokenProviderRegistry.getDefaultProvider());
+
+		when(uniqueTokenGenerationSchema.getIfUnique()).thenReturn(defaultSchema);
+		tokenProviderRegistry.init();
+		assertSame(tokenProviderRegistry.getProvider(defaultSchema), tokenProviderRegistry.getDefaultProvider());
+
+		ReflectionTestUtils.setField(tokenProviderRegistry, "defaultProviderName", "billingTokenGenerationSchema");
+		tokenProviderRegistry.init();
+		assertSame(tokenProviderRegistry.getProvider(billingSchema), tokenProviderRegistry.getDefaultProvider());
+
+		// validating an unknown default provider fails the startup
+		ReflectionTestUtils.setField(tokenProviderRegistry, "defaultProviderName", "unknown");
+		assertThrows(IllegalStateException.class, tokenProviderRegistry::init);
+	}
+
+	/**
+	 * Returns a mock of the provider of the unique schema bean.
+	 *
+	 * @return {@code ObjectProvider} - mock instance.
+	 */
+	@SuppressWarnings("unchecked")
+	private ObjectProvider<TokenGenerationSchema> mockObjectProvider() {
+		return mock(ObjectProvider.class);
+	}
+}
@@ -0,0 +1,215 @@
+package com.mauriciosc.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+/**
+ * Suite of tests for the class {@link MappedFileTokenStore}. Each store stands
+ * for a process sharing the directory.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-28
+ *
+ */
+public class MappedFileTokenStoreTest {
+
+	private static final String NAME = "tokenGenerationSchema";
+
+	@TempDir
+	Path directory;
+
+	private MappedFileTokenStore firstStore;
+	private MappedFileTokenStore secondStore;
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		firstStore = this.createStore(1024);
+		secondStore = this.createStore(1024);
+	}
+
+	/**
+	 * Closes the stores.
+	 */
+	@AfterEach
+	public void tearDown() {
+		firstStore.close();
+		secondStore.close();
+	}
+
+	/**
+	 * Tests the token loaded by a process is read by the others without loading
+	 * it again, until it is older than the token being refreshed.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoadShared() throws Exception {
+		long now = System.currentTimeMillis();
+		AtomicInteger loads = new AtomicInteger();
+		CachedToken cachedToken = new CachedToken(this.createResponse("mockToken"), now, now + 60_000L);
+
+		assertNull(secondStore.get(NAME, tokenGenerationSchema, now));
+		assertSame(cachedToken, firstStore.load(NAME, tokenGenerationSchema, Long.MIN_VALUE, () -> {
+			loads.incrementAndGet();
+			return cachedToken;
+		}));
+
+		// validating the other process reads the shared token
+		CachedToken sharedToken = secondStore.get(NAME, tokenGenerationSchema, now);
+		assertEquals("mockToken", ((ResponseSchemaMock) sharedToken.getResponse()).getToken());
+		assertEquals(now, sharedToken.getIssuedAt());
+		assertEquals(now + 60_000L, sharedToken.getExpiresAt());
+
+		// validating the other process reuses the shared token instead of loading it
+		assertEquals(now, secondStore.load(NAME, tokenGenerationSchema, Long.MIN_VALUE, () -> fail("token loaded again")).getIssuedAt());
+
+		// validating a refresh of the shared token loads a new one, shared as well
+		CachedToken refreshedToken = new CachedToken(this.createResponse("refreshedToken"), now + 1, now + 60_001L);
+		secondStore.load(NAME, tokenGenerationSchema, now, () -> {
+			loads.incrementAndGet();
+			return refreshedToken;
+		});
+		assertEquals("refreshedToken", ((ResponseSchemaMock) firstStore.get(NAME, tokenGenerationSchema, now).getResponse()).getToken());
+		assertEquals(2, loads.get());
+
+		// validating expired tokens are not read
+		assertNull(firstStore.get(NAME, tokenGenerationSchema, now + 60_001L));
+	}
+
+	/**
+	 * Tests tokens whose response exceeds the capacity of the file are not shared.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPutExceedingCapacity() throws Exception {
+		long now = System.currentTimeMillis();
+		MappedFileTokenStore smallStore = this.createStore(8);
+
+		try {
+			smallStore.put("smallSchema", tokenGenerationSchema, new CachedToken(this.createResponse("mockToken"), now, now + 60_000L));
+
+			assertNull(smallStore.get("smallSchema", tokenGenerationSchema, now));
+		}
+		finally {
+			smallStore.close();
+		}
+	}
+
+	/**
+	 * Tests the directory must be informed and is created accessible only by the
+	 * user of the process.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testInitDirectory() throws Exception {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+		MappedFileTokenStore mappedFileTokenStore = this.createStore(1024);
+		ReflectionTestUtils.setField(mappedFileTokenStore, "directory", "");
+		assertThrows(IllegalStateException.class, mappedFileTokenStore::init);
+
+		assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory.resolve("store"))));
+	}
+
+	/**
+	 * Tests a directory accessible by other users is refused.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testInitUnsafeDirectory() throws Exception {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+		Path sharedDirectory = Files.createDirectory(directory.resolve("shared"));
+		Files.setPosixFilePermissions(sharedDirectory, PosixFilePermissions.fromString("rwxrwxrwx"));
+		MappedFileTokenStore mappedFileTokenStore = new MappedFileTokenStore();
+		ReflectionTestUtils.setField(mappedFileTokenStore, "directory", sharedDirectory.toString());
+
+		assertThrows(IllegalStateException.class, mappedFileTokenStore::init);
+	}
+
+	/**
+	 * Tests a file created beforehand readable by other users, or a symbolic link
+	 * in its place, is refused instead of holding the tokens.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testOpenUnsafeFile() throws Exception {
+		assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+
+		long now = System.currentTimeMillis();
+		Path storeDirectory = directory.resolve("store");
+		Path readableFile = Files.createFile(storeDirectory.resolve("readableSchema.token"));
+		Files.setPosixFilePermissions(readableFile, PosixFilePermissions.fromString("rw-r--r--"));
+		Files.createSymbolicLink(storeDirectory.resolve("linkedSchema.token"), Files.createFile(directory.resolve("target.token")));
+
+		assertThrows(IOException.class, () -> firstStore.get("readableSchema", tokenGenerationSchema, now));
+		assertThrows(IOException.class, () -> firstStore.put("linkedSchema", tokenGenerationSchema, 
+				new CachedToken(this.createResponse("mockToken"), now, now + 60_000L)));
+		assertEquals(0, Files.size(directory.resolve("target.token")));
+
+		// validating the files created by the store are readable only by their owner
+		firstStore.put(NAME, tokenGenerationSchema, new CachedToken(this.createResponse("mockToken"), now, now + 60_000L));
+		assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(storeDirectory.resolve(NAME + ".token"))));
+	}
+
+	/**
+	 * Creates a store on the shared directory.
+	 *
+	 * @param capacity - capacity in bytes of the responses.
+	 *
+	 * @return {@code MappedFileTokenStore} - store instance.
+	 */
+	private MappedFileTokenStore createStore(int capacity) {
+		MappedFileTokenStore mappedFileTokenStore = new MappedFileTokenStore();
+		ReflectionTestUtils.setField(mappedFileTokenStore, "tokenGenerationObjectMapper", new TokenGenerationObjectMapper());
+		ReflectionTestUtils.setField(mappedFileTokenStore, "directory", directory.resolve("store").toString());
+		ReflectionTestUtils.setField(mappedFileTokenStore, "capacity", capacity);
+		mappedFileTokenStore.init();
+
+		return mappedFileTokenStore;
+	}
+
+	/**
+	 * Creates a response holding the given token.
+	 *
+	 * @param token - token of the response.
+	 *
+	 * @return {@code ResponseSchemaMock} - response.
+	 */
+	private ResponseSchemaMock createResponse(String token) {
+		ResponseSchemaMock response = new ResponseSchemaMock();
+		ReflectionTestUtils.setField(response, "token", token);
+
+		return response;
+	}
+}
@@ -0,0 +1,236 @@
+package com.mauriciosc.dataprovider;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.mauriciosc.core.model.request.TokenModelRequestMock;
+import com.mauriciosc.core.resilience.TokenCallDeadline;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Suite of tests for the class {@link TokenGenerationAsyncClient}, run against
+ * an in-process HTTP server.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-18
+ *
+ */
+public class TokenGenerationAsyncClientTest {
+
+	private static final String RESPONSE_MOCK = "{\"token\": \"mock_token_retorno\"}";
+
+	private TokenGenerationAsyncClient tokenGenerationAsyncClient;
+	private HttpServer httpServer;
+	private ExecutorService serverExecutor;
+	private final Map<String, String> receivedRequest = new ConcurrentHashMap<>();
+
+	/**
+	 * Init method of the test suite.
+	 *
+	 * @throws Exception
+	 */
+	@BeforeEach
+	public void setUp() throws Exception {
+		tokenGenerationAsyncClient = new TokenGenerationAsyncClient();
+		ReflectionTestUtils.setField(tokenGenerationAsyncClient, "maxConnections", 1000);
+		ReflectionTestUtils.setField(tokenGenerationAsyncClient, "maxConnectionsPerRoute", 1000);
+		ReflectionTestUtils.setField(tokenGenerationAsyncClient, "connectTimeout", 2000);
+		ReflectionTestUtils.setField(tokenGenerationAsyncClient, "readTimeout", 5000);
+		ReflectionTestUtils.setField(tokenGenerationAsyncClient, "poolAcquireTimeout", 5000);
+		ReflectionTestUtils.setField(tokenGenerationAsyncClient, "ioThreads", 1);
+
+		serverExecutor = Executors.newCachedThreadPool();
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1000);
+		httpServer.setExecutor(serverExecutor);
+		httpServer.createContext("/token", exchange -> this.respond(exchange, 200, RESPONSE_MOCK));
+		httpServer.createContext("/slow", exchange -> {
+			this.sleep(200);
+			this.respond(exchange, 200, RESPONSE_MOCK);
+		});
+		httpServer.createContext("/unavailable", exchange -> this.respond(exchange, 503, "{}"));
+		httpServer.createContext("/unauthorized", exchange -> this.respond(exchange, 401, "{}"));
+		httpServer.start();
+	}
+
+	/**
+	 * Stops the server and the client.
+	 *
+	 * @throws Exception
+	 */
+	@AfterEach
+	public void tearDown() throws Exception {
+		tokenGenerationAsyncClient.close();
+		httpServer.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	/**
+	 * This scenario tests that the headers and the body are sent and the response
+	 * body is returned.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPost() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("headerA", "x-header-mock");
+		SerializedRequestBody requestBody = SerializedRequestBody.serialize(new RestTemplate(), new TokenModelRequestMock("mock-login", 1, "mock-senha"), null);
+
+		byte[] responseBody = tokenGenerationAsyncClient.execute(HttpMethod.POST, this.url("/token"), headers, requestBody, 1024, TokenCallDeadline.NONE).get(5, TimeUnit.SECONDS);
+
+		// validating the request
+		assertEquals("x-header-mock", receivedRequest.get("headera"));
+		assertEquals("application/json", receivedRequest.get("content-type"));
+		assertEquals(new String(requestBody.getBody(), StandardCharsets.UTF_8), receivedRequest.get("body"));
+
+		// validating the response
+		assertArrayEquals(RESPONSE_MOCK.getBytes(StandardCharsets.UTF_8), responseBody);
+	}
+
+	/**
+	 * This scenario tests that failures are reported with the exceptions of the
+	 * {@code RestTemplate}.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPostFailures() throws Exception {
+		HttpServerErrorException serverError = this.assertFails(HttpServerErrorException.class,
+				tokenGenerationAsyncClient.execute(HttpMethod.POST, this.url("/unavailable"), HttpHeaders.EMPTY, null, 1024, TokenCallDeadline.NONE));
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, serverError.getStatusCode());
+
+		HttpClientErrorException clientError = this.assertFails(HttpClientErrorException.class,
+				tokenGenerationAsyncClient.execute(HttpMethod.POST, this.url("/unauthorized"), HttpHeaders.EMPTY, null, 1024, TokenCallDeadline.NONE));
+		assertEquals(HttpStatus.UNAUTHORIZED, clientError.getStatusCode());
+
+		// validating the maximum body size
+		this.assertFails(UncheckedIOException.class, tokenGenerationAsyncClient.execute(HttpMethod.POST, this.url("/token"), HttpHeaders.EMPTY, null, 16, TokenCallDeadline.NONE));
+
+		// validating connection failures
+		String url = this.url("/token");
+		httpServer.stop(0);
+		this.assertFails(ResourceAccessException.class, tokenGenerationAsyncClient.execute(HttpMethod.POST, url, HttpHeaders.EMPTY, null, 1024, TokenCallDeadline.NONE));
+	}
+
+	/**
+	 * This scenario tests that a single I/O thread drives many concurrent calls
+	 * without waiting for each one to complete.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPostConcurrentCallsOnSingleIoThread() throws Exception {
+		int calls = 500;
+		List<CompletableFuture<byte[]>> responses = new ArrayList<>();
+		long start = System.nanoTime();
+
+		for (int i = 0; i < calls; i++) {
+			responses.add(tokenGenerationAsyncClient.execute(HttpMethod.POST, this.url("/slow"), HttpHeaders.EMPTY, null, 1024, TokenCallDeadline.NONE));
+		}
+
+		CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// validating every call succeeded in a fraction of the sequential latency
+		for (CompletableFuture<byte[]> response : responses) {
+			assertArrayEquals(RESPONSE_MOCK.getBytes(StandardCharsets.UTF_8), response.get());
+		}
+		assertTrue(elapsedMillis < calls * 200L / 10, "elapsed " + elapsedMillis + "ms");
+	}
+
+	/**
+	 * Asserts the given future fails with the given exception.
+	 *
+	 * @param expectedType - expected exception type.
+	 * @param future       - future to be verified.
+	 *
+	 * @return {@code Throwable} - exception the future failed with.
+	 */
+	private <T extends Throwable> T assertFails(Class<T> expectedType, CompletableFuture<?> future) {
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertTrue(expectedType.isInstance(exception.getCause()), exception.getCause().toString());
+		return expectedType.cast(exception.getCause());
+	}
+
+	/**
+	 * Records the request and writes the given response.
+	 *
+	 * @param exchange - server exchange.
+	 * @param status   - response status.
+	 * @param body     - response body.
+	 *
+	 * @throws IOException
+	 */
+	private void respond(HttpExchange exchange, int status, String body) throws IOException {
+		try (InputStream requestBody = exchange.getRequestBody()) {
+			exchange.getRequestHeaders().forEach((name, values) -> receivedRequest.put(name.toLowerCase(), values.get(0)));
+			receivedRequest.put("body", StreamUtils.copyToString(requestBody, StandardCharsets.UTF_8));
+		}
+
+		byte[] responseBody = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+		exchange.sendResponseHeaders(status, responseBody.length);
+
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(responseBody);
+		}
+	}
+
+	/**
+	 * Returns the url of the given path on the in-process server.
+	 *
+	 * @param path - path of the url.
+	 *
+	 * @return {@code String} - url.
+	 */
+	private String url(String path) {
+		return "http://localhost:" + httpServer.getAddress().getPort() + path;
+	}
+
+	/**
+	 * Simulates the latency of the token generation call.
+	 *
+	 * @param millis - latency in millis.
+	 */
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
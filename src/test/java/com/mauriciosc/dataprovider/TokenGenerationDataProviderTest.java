@@ -1,38 +1,103 @@
 package com.mauriciosc.dataprovider;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.manyTimes;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.cache.TokenCache;
+import com.mauriciosc.core.cache.TokenExpiryResolver;
 import com.mauriciosc.core.exception.ResponseSchemaMappingException;
+import com.mauriciosc.core.exception.TokenBulkheadFullException;
+import com.mauriciosc.core.exception.TokenCircuitOpenException;
 import com.mauriciosc.core.exception.TokenGenerationHeaderManipulationException;
+import com.mauriciosc.core.exception.TokenGenerationUnavailableException;
 import com.mauriciosc.core.exception.UrlNotProvidedException;
+import com.mauriciosc.core.header.HeaderExtractor;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.model.request.HeaderModelRequest;
 import com.mauriciosc.core.model.request.HeaderModelRequestMock;
 import com.mauriciosc.core.model.request.TokenModelRequest;
 import com.mauriciosc.core.model.request.TokenModelRequestMock;
+import com.mauriciosc.core.model.response.TokenBatchResponse;
+import com.mauriciosc.core.resilience.TokenBulkhead;
+import com.mauriciosc.core.resilience.TokenCallDeadline;
+import com.mauriciosc.core.resilience.TokenCircuitBreaker;
+import com.mauriciosc.core.resilience.TokenRetryPolicy;
 import com.mauriciosc.core.schema.ResponseSchema;
 import com.mauriciosc.core.schema.ResponseSchemaMock;
 import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenPipelineStage;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
+import com.mauriciosc.core.store.TokenStore;
+import com.mauriciosc.metrics.TokenGenerationMetrics;
 
 /**
  * Suite of tests for the class  {@link TokenGenerationDataProvider}.
@@ -47,9 +112,46 @@ public class TokenGenerationDataProviderTest {
 	@InjectMocks
 	private TokenGenerationDataProvider tokenGenerationDataProvider;
 	
+	@Spy
+	private RestTemplate restTemplate = new RestTemplate();
+	
+	@Spy
+	private TokenCache tokenCache;
+	
+	@Spy
+	private TokenExpiryResolver tokenExpiryResolver;
+	
+	@Spy
+	private HeaderExtractor headerExtractor;
+	
+	@Spy
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+	
 	@Mock
-	private RestTemplate restTemplate;
-	private static final String MOCK_URL = "mock_url";
+	private TokenGenerationAsyncClient tokenGenerationAsyncClient;
+	
+	@Spy
+	private TokenBulkhead tokenBulkhead;
+	
+	@Spy
+	private TokenCircuitBreaker tokenCircuitBreaker;
+	
+	@Spy
+	private TokenRetryPolicy tokenRetryPolicy;
+	
+	@Spy
+	private TokenGenerationMetrics tokenGenerationMetrics;
+	
+	@Mock
+	private ObjectProvider<TokenStore> tokenStore;
+	
+	@Mock
+	private TokenProviderRegistry tokenProviderRegistry;
+	
+	private MockRestServiceServer mockServer;
+	
+	private static final String MOCK_URL = "http://localhost/mock_url";
+	private static final String MOCK_REQUEST_BODY = "{\"campoA\": \"mock-login\", \"campoB\": 1, \"campoC\": \"mock-senha\"}";
 	
 	/**
 	 * Init method of the test suite.
@@ -58,7 +160,14 @@ public class TokenGenerationDataProviderTest {
 	@BeforeEach
 	public void setUp() throws Exception {		
 		MockitoAnnotations.initMocks(this);
+		mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
 		ReflectionTestUtils.setField(tokenGenerationDataProvider, "tokenGenerationUrl", MOCK_URL);
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "maxResponseSize", 1024L);
+		ReflectionTestUtils.setField(tokenExpiryResolver, "expiresInField", "expires_in");
+		ReflectionTestUtils.setField(tokenExpiryResolver, "expiresAtField", "expires_at");
+		ReflectionTestUtils.setField(tokenExpiryResolver, "fallbackTtlSeconds", 60L);
+		ReflectionTestUtils.setField(headerExtractor, "tokenGenerationObjectMapper", tokenGenerationObjectMapper);
+		tokenGenerationDataProvider.init();
 	}
 
 	/**
@@ -75,10 +184,14 @@ public class TokenGenerationDataProviderTest {
 	 *                                                   unmarshalling the
 	 *                                                   response body into the
 	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
 	 */
-	@SuppressWarnings("unchecked")
 	@Test
-	public void testCreateToken() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException {
+	public void testCreateToken() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException, TokenGenerationUnavailableException {
 		TokenGenerationSchema tokenGenerationSchema = 
 				new TokenGenerationSchema(
 						new HeaderModelRequestMock("x-header-mock", 2), new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
@@ -86,21 +199,12 @@ public class TokenGenerationDataProviderTest {
 		HeaderModelRequestMock headersSchemaMock = (HeaderModelRequestMock) tokenGenerationSchema.getHeaderModelRequest();
 		TokenModelRequestMock requestSchemaMock = (TokenModelRequestMock) tokenGenerationSchema.getTokenModelRequest();
 		
-		MultiValueMap<String, String> multiValueMap = new LinkedMultiValueMap<>();
-		multiValueMap.add("headerA", headersSchemaMock.getHeaderA());
-		multiValueMap.add("headerB", String.valueOf(headersSchemaMock.getHeaderB()));
-		
-		HttpEntity<TokenModelRequest> httpEntityMock = new HttpEntity<>(tokenGenerationSchema.getTokenModelRequest(), multiValueMap);
-		
-		ResponseEntity<String> responseEntity = new ResponseEntity<>(getResponseMock(), HttpStatus.OK);
-			
-		when(
-			restTemplate.exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class)))
-		.thenReturn(responseEntity);
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andExpect(method(HttpMethod.POST))
+			.andExpect(header("headerA", headersSchemaMock.getHeaderA()))
+			.andExpect(header("headerB", String.valueOf(headersSchemaMock.getHeaderB())))
+			.andExpect(content().json(MOCK_REQUEST_BODY))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
 		
 		ResponseSchemaMock responseSchema = (ResponseSchemaMock) tokenGenerationDataProvider.createToken(tokenGenerationSchema);
 		
@@ -117,11 +221,7 @@ public class TokenGenerationDataProviderTest {
 		assertEquals("mock_token_retorno", responseSchema.getToken());
 		
 		// validating url call
-		verify(restTemplate).exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class));
+		mockServer.verify();
 	}
 	
 	/**
@@ -143,34 +243,20 @@ public class TokenGenerationDataProviderTest {
 	@Test
 	public void testCreateTokenNullUrl() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException {
 		ReflectionTestUtils.setField(tokenGenerationDataProvider, "tokenGenerationUrl", null);
+		tokenGenerationDataProvider.init();
 		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
 		
-		HeaderModelRequestMock headersSchemaMock = (HeaderModelRequestMock) tokenGenerationSchema.getHeaderModelRequest();
-		
-		MultiValueMap<String, String> multiValueMap = new LinkedMultiValueMap<>();
-		multiValueMap.add("headerA", headersSchemaMock.getHeaderA());
-		multiValueMap.add("headerB", String.valueOf(headersSchemaMock.getHeaderB()));
-		
-		HttpEntity<TokenModelRequest> httpEntityMock = new HttpEntity<>(tokenGenerationSchema.getTokenModelRequest(), multiValueMap);
-		
-		when(
-			restTemplate.exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class)))
-		.thenCallRealMethod();
-		
 		// validating exception when request url is not provided
 		assertThrows(UrlNotProvidedException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
 		
 		// validating client call is not executed
 		verify(restTemplate, never())
-			.exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class));
+			.execute(
+				Mockito.anyString(), 
+				Mockito.any(HttpMethod.class), 
+				Mockito.any(RequestCallback.class), 
+				Mockito.any(ResponseExtractor.class));
+		mockServer.verify();
 	}
 
 	/**
@@ -188,27 +274,26 @@ public class TokenGenerationDataProviderTest {
 	 *                                                   unmarshalling the
 	 *                                                   response body into the
 	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
 	 */
-	@SuppressWarnings("unchecked")
 	@Test
-	public void testCreateTokenNullHeader() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException {
+	public void testCreateTokenNullHeader() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException, TokenGenerationUnavailableException {
 		ReflectionTestUtils.setField(tokenGenerationDataProvider, "tokenGenerationUrl", MOCK_URL);
 		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
 
 		HeaderModelRequestMock headersSchemaMock = (HeaderModelRequestMock) tokenGenerationSchema.getHeaderModelRequest();
 		TokenModelRequestMock requestSchemaMock = (TokenModelRequestMock) tokenGenerationSchema.getTokenModelRequest();
 		
-		HttpEntity<TokenModelRequest> httpEntityMock = new HttpEntity<>(tokenGenerationSchema.getTokenModelRequest(), new LinkedMultiValueMap<>());
-		
-		ResponseEntity<String> responseEntity = new ResponseEntity<>(getResponseMock(), HttpStatus.OK);
-		
-		when(
-			restTemplate.exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class)))
-		.thenReturn(responseEntity);
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andExpect(method(HttpMethod.POST))
+			.andExpect(headerDoesNotExist("headerA"))
+			.andExpect(headerDoesNotExist("headerB"))
+			.andExpect(content().json(MOCK_REQUEST_BODY))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
 		
 		ResponseSchemaMock responseSchema = (ResponseSchemaMock) tokenGenerationDataProvider.createToken(tokenGenerationSchema);
 		
@@ -224,11 +309,7 @@ public class TokenGenerationDataProviderTest {
 		assertEquals("mock_token_retorno", responseSchema.getToken());
 		
 		// validating url call
-		verify(restTemplate).exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class));
+		mockServer.verify();
 	}
 
 	/**
@@ -246,31 +327,26 @@ public class TokenGenerationDataProviderTest {
 	 *                                                   unmarshalling the
 	 *                                                   response body into the
 	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
 	 */
-	@SuppressWarnings("unchecked")
 	@Test
-	public void testCreateTokenNullRequest() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException {
+	public void testCreateTokenNullRequest() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException, TokenGenerationUnavailableException {
 		ReflectionTestUtils.setField(tokenGenerationDataProvider, "tokenGenerationUrl", MOCK_URL);
 		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), null, ResponseSchemaMock.class);
 		
 		HeaderModelRequestMock headersSchemaMock = (HeaderModelRequestMock) tokenGenerationSchema.getHeaderModelRequest();
 		TokenModelRequestMock requestSchemaMock = (TokenModelRequestMock) tokenGenerationSchema.getTokenModelRequest();
 		
-		MultiValueMap<String, String> multiValueMap = new LinkedMultiValueMap<>();
-		multiValueMap.add("headerA", headersSchemaMock.getHeaderA());
-		multiValueMap.add("headerB", String.valueOf(headersSchemaMock.getHeaderB()));
-		
-		HttpEntity<TokenModelRequest> httpEntityMock = new HttpEntity<>(null, multiValueMap);
-		
-		ResponseEntity<String> responseEntity = new ResponseEntity<>(getResponseMock(), HttpStatus.OK);
-		
-		when(
-			restTemplate.exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class)))
-		.thenReturn(responseEntity);
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andExpect(method(HttpMethod.POST))
+			.andExpect(header("headerA", headersSchemaMock.getHeaderA()))
+			.andExpect(header("headerB", String.valueOf(headersSchemaMock.getHeaderB())))
+			.andExpect(content().string(""))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
 		
 		ResponseSchemaMock responseSchema = (ResponseSchemaMock) tokenGenerationDataProvider.createToken(tokenGenerationSchema);
 		
@@ -285,11 +361,7 @@ public class TokenGenerationDataProviderTest {
 		assertEquals("mock_token_retorno", responseSchema.getToken());
 		
 		// validating url call		
-		verify(restTemplate).exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class));
+		mockServer.verify();
 	}
 	
 	/**
@@ -306,31 +378,26 @@ public class TokenGenerationDataProviderTest {
 	 *                                                   failure when unmarshalling
 	 *                                                   the response body into the
 	 *                                                   response schema.
+	 * @throws TokenGenerationUnavailableException       exception thrown when the
+	 *                                                   call is not executed
+	 *                                                   because the token
+	 *                                                   generation API is not
+	 *                                                   available at the moment.
 	 */
-	@SuppressWarnings("unchecked")
 	@Test
-	public void testCreateTokenNullResponse() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException {
+	public void testCreateTokenNullResponse() throws TokenGenerationHeaderManipulationException, UrlNotProvidedException, ResponseSchemaMappingException, TokenGenerationUnavailableException {
 		ReflectionTestUtils.setField(tokenGenerationDataProvider, "tokenGenerationUrl", MOCK_URL);
 		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), new TokenModelRequestMock("mock-login", 1, "mock-senha"), null);
 		
 		HeaderModelRequestMock headersSchemaMock = (HeaderModelRequestMock) tokenGenerationSchema.getHeaderModelRequest();
 		TokenModelRequestMock requestSchemaMock = (TokenModelRequestMock) tokenGenerationSchema.getTokenModelRequest();
 		
-		MultiValueMap<String, String> multiValueMap = new LinkedMultiValueMap<>();
-		multiValueMap.add("headerA", headersSchemaMock.getHeaderA());
-		multiValueMap.add("headerB", String.valueOf(headersSchemaMock.getHeaderB()));
-		
-		HttpEntity<TokenModelRequest> httpEntityMock = new HttpEntity<>(tokenGenerationSchema.getTokenModelRequest(), multiValueMap);
-		
-		ResponseEntity<String> responseEntity = new ResponseEntity<>(getResponseMock(), HttpStatus.OK);
-			
-		when(
-			restTemplate.exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class)))
-		.thenReturn(responseEntity);
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andExpect(method(HttpMethod.POST))
+			.andExpect(header("headerA", headersSchemaMock.getHeaderA()))
+			.andExpect(header("headerB", String.valueOf(headersSchemaMock.getHeaderB())))
+			.andExpect(content().json(MOCK_REQUEST_BODY))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
 		
 		// validating exception when response schema is not provided
 		assertThrows(ResponseSchemaMappingException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
@@ -345,11 +412,725 @@ public class TokenGenerationDataProviderTest {
 		assertEquals("mock-senha", requestSchemaMock.getCampoC());
 					
 		// validating url call
-		verify(restTemplate).exchange(
-				Mockito.eq(MOCK_URL), 
-				Mockito.eq(HttpMethod.POST), 
-				Mockito.eq(httpEntityMock), 
-				Mockito.any(ParameterizedTypeReference.class));
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that responses larger than the maximum body size are
+	 * rejected as mapping failures.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenResponseTooLarge() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "maxResponseSize", 16L);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		// validating exception when the response exceeds the maximum size
+		assertThrows(ResponseSchemaMappingException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that malformed and empty responses are rejected as
+	 * mapping failures.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenMalformedResponse() throws Exception {
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess("{\"token\": ", MediaType.APPLICATION_JSON));
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess("", MediaType.APPLICATION_JSON));
+		
+		// validating exception when the response is malformed or empty
+		assertThrows(ResponseSchemaMappingException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertThrows(ResponseSchemaMappingException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		verify(tokenGenerationMetrics, Mockito.times(2)).recordDeserializationFailure(tokenGenerationSchema);
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that an immutable request body is serialized only once
+	 * and sent with its precomputed length on every call.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenImmutableRequest() throws Exception {
+		CountingTokenModelRequest tokenModelRequest = new CountingTokenModelRequest();
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), tokenModelRequest, ResponseSchemaMock.class, true);
+		
+		mockServer.expect(times(2), requestTo(MOCK_URL))
+			.andExpect(method(HttpMethod.POST))
+			.andExpect(header("headerA", "x-header-mock"))
+			.andExpect(header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+			.andExpect(header(HttpHeaders.CONTENT_LENGTH, "22"))
+			.andExpect(content().json("{\"login\": \"mock-login\"}"))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		
+		// validating the body was serialized once and sent twice
+		assertEquals(1, tokenModelRequest.getSerializations());
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a request body is written with the content type
+	 * declared by the header schema, and that it is kept on the request, sending
+	 * an immutable request body the same way as a regular one.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenDeclaredContentType() throws Exception {
+		TokenGenerationSchema immutableSchema = new TokenGenerationSchema(new ContentTypeHeaderMock(), new CountingTokenModelRequest(), ResponseSchemaMock.class, true);
+		TokenGenerationSchema regularSchema = new TokenGenerationSchema(new ContentTypeHeaderMock(), new CountingTokenModelRequest(), ResponseSchemaMock.class);
+		
+		mockServer.expect(times(2), requestTo(MOCK_URL))
+			.andExpect(header(HttpHeaders.CONTENT_TYPE, ContentTypeHeaderMock.CONTENT_TYPE))
+			.andExpect(content().json("{\"login\": \"mock-login\"}"))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		tokenGenerationDataProvider.createToken(immutableSchema);
+		tokenGenerationDataProvider.createToken(regularSchema);
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a valid token is served from the cache instead of
+	 * generating a new one.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenCached() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		ResponseSchema firstResponse = tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		ResponseSchema secondResponse = tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		
+		// validating the cached response is served
+		assertSame(firstResponse, secondResponse);
+		verify(tokenGenerationMetrics).recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_MISS);
+		verify(tokenGenerationMetrics).recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+		
+		// validating a single url call
+		verify(tokenGenerationMetrics).endCall(eq(tokenGenerationSchema), anyLong(), Mockito.isNull());
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a token missing from the cache is read from the
+	 * shared store by its provider name, generated without it when the store
+	 * fails, and that the schemas without a provider name skip the store.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenSharedStore() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		TokenGenerationSchema failingSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		TokenGenerationSchema adHocSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		TokenStore store = Mockito.mock(TokenStore.class);
+		CachedToken sharedToken = new CachedToken(new ResponseSchemaMock(), System.currentTimeMillis(), System.currentTimeMillis() + 60_000L);
+		
+		when(tokenProviderRegistry.getProvider(tokenGenerationSchema))
+			.thenReturn(new TokenProvider("shared", tokenGenerationSchema, MOCK_URL, HttpMethod.POST, TokenProvider.NO_TIMEOUT, true, 0L, false));
+		when(tokenProviderRegistry.getProvider(failingSchema))
+			.thenReturn(new TokenProvider("failing", failingSchema, MOCK_URL, HttpMethod.POST, TokenProvider.NO_TIMEOUT, true, 0L, false));
+		when(tokenStore.getIfAvailable()).thenReturn(store);
+		when(store.load(eq("shared"), eq(tokenGenerationSchema), eq(Long.MIN_VALUE), any())).thenReturn(sharedToken);
+		when(store.load(eq("failing"), eq(failingSchema), eq(Long.MIN_VALUE), any())).thenThrow(new IOException("mock lock failure"));
+		mockServer.expect(times(2), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		// validating the shared token is served without a call
+		assertSame(sharedToken.getResponse(), tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertSame(sharedToken, tokenCache.peek(tokenGenerationSchema));
+		
+		// validating the token is generated when the store fails
+		tokenGenerationDataProvider.createToken(failingSchema);
+		verify(tokenGenerationMetrics).startCall(failingSchema);
+		verify(tokenGenerationMetrics, never()).startCall(tokenGenerationSchema);
+		
+		// validating the token of a schema without provider name is not shared
+		tokenGenerationDataProvider.createToken(adHocSchema);
+		verify(store, never()).load(any(), eq(adHocSchema), Mockito.anyLong(), any());
+		verify(store, never()).put(any(), eq(adHocSchema), any());
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a named provider is called with its own url and
+	 * method, and its token cached even though the global cache is disabled.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenNamedProvider() throws Exception {
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
+		TokenProvider tokenProvider = new TokenProvider("billing", tokenGenerationSchema, "http://localhost/billing_url", HttpMethod.PUT, 
+				TokenProvider.NO_TIMEOUT, true, 0L, false);
+		
+		when(tokenProviderRegistry.getProvider("billing")).thenReturn(tokenProvider);
+		when(tokenProviderRegistry.getProvider(tokenGenerationSchema)).thenReturn(tokenProvider);
+		mockServer.expect(once(), requestTo("http://localhost/billing_url"))
+			.andExpect(method(HttpMethod.PUT))
+			.andExpect(content().json(MOCK_REQUEST_BODY))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		ResponseSchema firstResponse = tokenGenerationDataProvider.createToken("billing");
+		
+		// validating the token of the schema is the cached token of the provider
+		assertSame(firstResponse, tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertSame(firstResponse, tokenGenerationDataProvider.createTokenAsync("billing").get());
+		mockServer.verify();
+		
+		// validating unknown providers
+		assertThrows(IllegalArgumentException.class, () -> tokenGenerationDataProvider.createToken("unknown"));
+		assertAsyncThrows(IllegalArgumentException.class, tokenGenerationDataProvider.createTokenAsync("unknown"));
+	}
+	
+	/**
+	 * This scenario tests that the tokens of a batch are generated in parallel,
+	 * that the failures are returned along with the tokens and that cached tokens
+	 * are not generated again.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokens() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "batchThreads", 2);
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "batchQueueSize", 1);
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		
+		for(String name : Arrays.asList("billing", "orders", "payments")) {
+			TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+			TokenProvider tokenProvider = new TokenProvider(name, tokenGenerationSchema, "http://localhost/" + name + "_url", HttpMethod.POST, 
+					TokenProvider.NO_TIMEOUT, true, 0L, false);
+			
+			when(tokenProviderRegistry.getProvider(name)).thenReturn(tokenProvider);
+			when(tokenProviderRegistry.getProvider(tokenGenerationSchema)).thenReturn(tokenProvider);
+			mockServer.expect(manyTimes(), requestTo("http://localhost/" + name + "_url"))
+				.andRespond(request -> {
+					upstreamCalls.incrementAndGet();
+					this.sleep(300);
+					
+					if("payments".equals(name)) {
+						return withServerError().createResponse(request);
+					}
+					return withSuccess(getResponseMock(), MediaType.APPLICATION_JSON).createResponse(request);
+				});
+		}
+		
+		long start = System.currentTimeMillis();
+		TokenBatchResponse<String> batchResponse = tokenGenerationDataProvider.createTokens("billing", "orders", "payments", "unknown");
+		
+		// validating the calls were not made one after another
+		assertTrue(System.currentTimeMillis() - start < 800);
+		assertFalse(batchResponse.isComplete());
+		assertEquals(Arrays.asList("billing", "orders"), new ArrayList<>(batchResponse.getResponses().keySet()));
+		assertTrue(batchResponse.getFailures().get("payments") instanceof HttpServerErrorException);
+		assertTrue(batchResponse.getFailures().get("unknown") instanceof IllegalArgumentException);
+		assertEquals(3, upstreamCalls.get());
+		
+		// validating cached tokens are served without new calls
+		TokenBatchResponse<TokenGenerationSchema> cachedResponse = tokenGenerationDataProvider.createTokens(
+				Arrays.asList(tokenProviderRegistry.getProvider("billing").getSchema(), tokenProviderRegistry.getProvider("orders").getSchema()));
+		
+		assertTrue(cachedResponse.isComplete());
+		assertSame(batchResponse.getResponse("billing"), cachedResponse.getResponse(tokenProviderRegistry.getProvider("billing").getSchema()));
+		assertEquals(3, upstreamCalls.get());
+	}
+	
+	/**
+	 * This scenario tests that a pipeline stage is called with headers built from
+	 * the token of the previous stage, that only the stages whose tokens are not
+	 * cached are called again, and that the headers built for each call are not
+	 * cached.
+	 * 
+	 * @throws Throwable
+	 */
+	@Test
+	public void testCreateTokenPipeline() throws Throwable {
+		TokenGenerationSchema assertionSchema = new TokenGenerationSchema(null, new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
+		TokenGenerationSchema exchangeSchema = new TokenPipelineStage<ResponseSchemaMock>(assertionSchema, 
+				assertion -> new HeaderModelRequestMock(assertion.getToken(), 1), null, ResponseSchemaMock.class);
+		TokenProvider assertionProvider = new TokenProvider("assertion", assertionSchema, "http://localhost/assertion_url", HttpMethod.POST, 
+				TokenProvider.NO_TIMEOUT, true, 0L, false);
+		TokenProvider exchangeProvider = new TokenProvider("exchange", exchangeSchema, "http://localhost/exchange_url", HttpMethod.POST, 
+				TokenProvider.NO_TIMEOUT, false, 0L, false);
+		
+		when(tokenProviderRegistry.getProvider(assertionSchema)).thenReturn(assertionProvider);
+		when(tokenProviderRegistry.getProvider("exchange")).thenReturn(exchangeProvider);
+		mockServer.expect(once(), requestTo("http://localhost/assertion_url"))
+			.andExpect(content().json(MOCK_REQUEST_BODY))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		mockServer.expect(times(2), requestTo("http://localhost/exchange_url"))
+			.andExpect(header("headerA", "mock_token_retorno"))
+			.andRespond(withSuccess("{\"token\": \"mock_token_troca\"}", MediaType.APPLICATION_JSON));
+		
+		// validating the previous stage is called once and its token cached
+		assertEquals("mock_token_troca", ((ResponseSchemaMock) tokenGenerationDataProvider.createToken("exchange")).getToken());
+		assertEquals("mock_token_troca", ((ResponseSchemaMock) tokenGenerationDataProvider.createToken("exchange")).getToken());
+		mockServer.verify();
+		
+		// validating the non-blocking call of the stage
+		ArgumentCaptor<HttpHeaders> headers = ArgumentCaptor.forClass(HttpHeaders.class);
+		when(tokenGenerationAsyncClient.execute(eq(HttpMethod.POST), eq("http://localhost/exchange_url"), headers.capture(), Mockito.isNull(), anyLong(), anyLong()))
+			.thenReturn(CompletableFuture.completedFuture("{\"token\": \"mock_token_troca\"}".getBytes(StandardCharsets.UTF_8)));
+		
+		assertEquals("mock_token_troca", ((ResponseSchemaMock) tokenGenerationDataProvider.createTokenAsync("exchange").get()).getToken());
+		assertEquals("mock_token_retorno", headers.getValue().getFirst("headerA"));
+		verify(headerExtractor, never()).extract(any(), eq(true));
+	}
+	
+	/**
+	 * This scenario tests that an expired token (response without lifetime and
+	 * no fallback lifetime) is generated again.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenCacheExpired() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		ReflectionTestUtils.setField(tokenExpiryResolver, "fallbackTtlSeconds", 0L);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		
+		mockServer.expect(times(2), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		
+		// validating the expired token is not served
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that concurrent callers of the same schema share a
+	 * single token generation call and its result.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenConcurrentCallsCoalesced() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		
+		mockServer.expect(manyTimes(), requestTo(MOCK_URL))
+			.andRespond(request -> {
+				upstreamCalls.incrementAndGet();
+				this.sleep(200);
+				return withSuccess(getResponseMock(), MediaType.APPLICATION_JSON).createResponse(request);
+			});
+		
+		List<Future<ResponseSchema>> responses = this.callConcurrently(64, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		
+		ResponseSchema firstResponse = responses.get(0).get();
+		
+		// validating every caller received the same response
+		for(Future<ResponseSchema> response : responses) {
+			assertSame(firstResponse, response.get());
+		}
+		
+		// validating a single url call
+		assertEquals(1, upstreamCalls.get());
+	}
+	
+	/**
+	 * This scenario tests that concurrent callers of the same schema share the
+	 * failure of the single token generation call.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenConcurrentCallsShareFailure() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		AtomicInteger upstreamCalls = new AtomicInteger();
+		
+		mockServer.expect(manyTimes(), requestTo(MOCK_URL))
+			.andRespond(request -> {
+				upstreamCalls.incrementAndGet();
+				this.sleep(200);
+				throw new SocketException("mock connection reset");
+			});
+		
+		List<Future<ResponseSchema>> responses = this.callConcurrently(64, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		
+		// validating every caller received the failure
+		for(Future<ResponseSchema> response : responses) {
+			ExecutionException exception = assertThrows(ExecutionException.class, response::get);
+			assertTrue(exception.getCause() instanceof ResourceAccessException);
+		}
+		
+		// validating a single url call
+		assertEquals(1, upstreamCalls.get());
+	}
+	
+	/**
+	 * This scenario tests that the bulkhead bounds the concurrent token generation
+	 * calls and rejects the callers it cannot admit.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenBulkhead() throws Exception {
+		ReflectionTestUtils.setField(tokenBulkhead, "enabled", true);
+		ReflectionTestUtils.setField(tokenBulkhead, "maxConcurrentCalls", 1);
+		ReflectionTestUtils.setField(tokenBulkhead, "maxQueuedCalls", 0);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		AtomicInteger activeCalls = new AtomicInteger();
+		AtomicInteger maxActiveCalls = new AtomicInteger();
+		
+		mockServer.expect(manyTimes(), requestTo(MOCK_URL))
+			.andRespond(request -> {
+				maxActiveCalls.accumulateAndGet(activeCalls.incrementAndGet(), Math::max);
+				this.sleep(500);
+				activeCalls.decrementAndGet();
+				return withSuccess(getResponseMock(), MediaType.APPLICATION_JSON).createResponse(request);
+			});
+		
+		List<Future<ResponseSchema>> responses = this.callConcurrently(8, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		int rejections = 0;
+		
+		for(Future<ResponseSchema> response : responses) {
+			try {
+				response.get();
+			}
+			catch(ExecutionException e) {
+				assertTrue(e.getCause() instanceof TokenBulkheadFullException);
+				rejections++;
+			}
+		}
+		
+		// validating a single call at a time and the rejected callers
+		assertEquals(1, maxActiveCalls.get());
+		assertTrue(rejections > 0 && rejections < 8);
+		assertEquals(rejections, tokenBulkhead.getRejectedCalls());
+	}
+	
+	/**
+	 * This scenario tests that the circuit breaker stops calling the token
+	 * generation API after consecutive server errors.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenCircuitBreaker() throws Exception {
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "enabled", true);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "failureThreshold", 2);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "windowSize", 20);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "minimumCalls", 10);
+		ReflectionTestUtils.setField(tokenCircuitBreaker, "openDurationSeconds", 60L);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		
+		mockServer.expect(times(2), requestTo(MOCK_URL))
+			.andRespond(withServerError());
+		
+		assertThrows(HttpServerErrorException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertThrows(HttpServerErrorException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		
+		// validating the open circuit does not call the url
+		assertThrows(TokenCircuitOpenException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a token expired within the grace period is served
+	 * while the token generation API is unavailable, on both the blocking and the
+	 * non-blocking calls.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenStaleDuringOutage() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "gracePeriodSeconds", 60L);
+		ReflectionTestUtils.setField(tokenExpiryResolver, "fallbackTtlSeconds", 0L);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		CompletableFuture<byte[]> outage = new CompletableFuture<>();
+		outage.completeExceptionally(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withServerError());
+		when(tokenGenerationAsyncClient.execute(any(), any(), any(), any(), anyLong(), anyLong())).thenReturn(outage);
+		
+		ResponseSchema expiredResponse = tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		
+		// validating the expired token is served during the outage
+		assertSame(expiredResponse, tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertSame(expiredResponse, tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema).get(5, TimeUnit.SECONDS));
+		assertEquals(2, tokenGenerationDataProvider.getStaleResponses());
+		assertTrue(tokenGenerationDataProvider.getStaleness(tokenGenerationSchema) >= 0);
+		
+		// validating the expired token is not served beyond the grace period
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "gracePeriodSeconds", 0L);
+		assertAsyncThrows(HttpServerErrorException.class, tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema));
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a refresh generates a new token even when the
+	 * cached one is valid and records the refresh lag.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRefreshToken() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		
+		mockServer.expect(times(2), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		ResponseSchema cachedResponse = tokenGenerationDataProvider.createToken(tokenGenerationSchema);
+		ResponseSchema refreshedResponse = tokenGenerationDataProvider.refreshToken(tokenGenerationSchema, System.currentTimeMillis()).getResponse();
+		
+		// validating the refreshed token replaces the cached one
+		assertNotSame(cachedResponse, refreshedResponse);
+		assertSame(refreshedResponse, tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertTrue(tokenGenerationDataProvider.getRefreshLag(tokenGenerationSchema) >= 0);
+		assertEquals(0, tokenGenerationDataProvider.getFailedRefreshes());
+		
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that failed refreshes are counted.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRefreshTokenFailure() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(request -> {
+				throw new SocketException("mock connection reset");
+			});
+		
+		assertThrows(ResourceAccessException.class, () -> tokenGenerationDataProvider.refreshToken(tokenGenerationSchema, System.currentTimeMillis()));
+		
+		// validating the failure is counted
+		assertEquals(1, tokenGenerationDataProvider.getFailedRefreshes());
+		assertEquals(-1, tokenGenerationDataProvider.getRefreshLag(tokenGenerationSchema));
+	}
+	
+	/**
+	 * This scenario tests that an asynchronous token is generated through the
+	 * non-blocking client and shared with the synchronous callers through the
+	 * cache.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenAsync() throws Exception {
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "cacheEnabled", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(new HeaderModelRequestMock("x-header-mock", 2), new TokenModelRequestMock("mock-login", 1, "mock-senha"), ResponseSchemaMock.class);
+		
+		when(tokenGenerationAsyncClient.execute(eq(HttpMethod.POST), eq(MOCK_URL), any(HttpHeaders.class), any(SerializedRequestBody.class), eq(1024L), eq(TokenCallDeadline.NONE)))
+			.thenReturn(CompletableFuture.completedFuture(getResponseMock().getBytes(StandardCharsets.UTF_8)));
+		
+		CompletableFuture<ResponseSchema> response = tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema);
+		
+		// validating response values
+		assertEquals("mock_token_retorno", ((ResponseSchemaMock) response.get()).getToken());
+		
+		// validating the synchronous call is served from the cache
+		assertSame(response.get(), tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		verify(tokenGenerationAsyncClient, Mockito.times(1)).execute(any(), any(), any(), any(), anyLong(), anyLong());
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that the asynchronous token generation fails with the
+	 * same exceptions as the synchronous one.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenAsyncFailures() throws Exception {
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		CompletableFuture<byte[]> tooLarge = new CompletableFuture<>();
+		tooLarge.completeExceptionally(new UncheckedIOException(new IOException("mock too large")));
+		
+		when(tokenGenerationAsyncClient.execute(eq(HttpMethod.POST), eq(MOCK_URL), any(HttpHeaders.class), Mockito.isNull(), anyLong(), anyLong()))
+			.thenReturn(CompletableFuture.completedFuture("{\"token\": ".getBytes(StandardCharsets.UTF_8)))
+			.thenReturn(tooLarge);
+		
+		// validating exception when the response is malformed or too large
+		assertAsyncThrows(ResponseSchemaMappingException.class, tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema));
+		assertAsyncThrows(ResponseSchemaMappingException.class, tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema));
+		
+		// validating exception when request url is not provided
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "tokenGenerationUrl", null);
+		tokenGenerationDataProvider.init();
+		assertAsyncThrows(UrlNotProvidedException.class, tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema));
+		verify(tokenGenerationAsyncClient, Mockito.times(2)).execute(any(), any(), any(), any(), anyLong(), anyLong());
+	}
+	
+	/**
+	 * This scenario tests that transient failures are retried within the deadline
+	 * of the call, on both the blocking and the non-blocking calls, while
+	 * client errors are not.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenRetry() throws Exception {
+		ReflectionTestUtils.setField(tokenRetryPolicy, "enabled", true);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "maxAttempts", 3);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "initialBackoff", 10L);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "multiplier", 2.0);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "maxBackoff", 100L);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "deadline", 3000L);
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "retryAfterSend", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		CompletableFuture<byte[]> unavailable = new CompletableFuture<>();
+		unavailable.completeExceptionally(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(request -> {
+				throw new SocketException("mock connection reset");
+			});
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withStatus(HttpStatus.UNAUTHORIZED));
+		when(tokenGenerationAsyncClient.execute(eq(HttpMethod.POST), eq(MOCK_URL), any(HttpHeaders.class), Mockito.isNull(), anyLong(), anyLong()))
+			.thenReturn(unavailable)
+			.thenReturn(CompletableFuture.completedFuture(getResponseMock().getBytes(StandardCharsets.UTF_8)));
+		
+		// validating the connection reset (opted in) and the unavailable response are retried
+		assertEquals("mock_token_retorno", ((ResponseSchemaMock) tokenGenerationDataProvider.createToken(tokenGenerationSchema)).getToken());
+		assertEquals("mock_token_retorno", ((ResponseSchemaMock) tokenGenerationDataProvider.createTokenAsync(tokenGenerationSchema).get(5, TimeUnit.SECONDS)).getToken());
+		assertEquals(2, tokenRetryPolicy.getRetries());
+		
+		// validating client errors are not retried
+		assertThrows(HttpClientErrorException.class, () -> tokenGenerationDataProvider.createToken(tokenGenerationSchema));
+		assertEquals(2, tokenRetryPolicy.getRetries());
+		mockServer.verify();
+	}
+	
+	/**
+	 * This scenario tests that a connection dropped while the response body
+	 * streams is a failure of the call, counted by the circuit breaker and
+	 * retried, and not a failure mapping the response.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testCreateTokenConnectionDroppedMidBody() throws Exception {
+		ReflectionTestUtils.setField(tokenRetryPolicy, "enabled", true);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "maxAttempts", 3);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "initialBackoff", 10L);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "multiplier", 2.0);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "maxBackoff", 100L);
+		ReflectionTestUtils.setField(tokenRetryPolicy, "deadline", 3000L);
+		ReflectionTestUtils.setField(tokenGenerationDataProvider, "retryAfterSend", true);
+		TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		byte[] partialBody = "{\"token\": \"mock_tok".getBytes(StandardCharsets.UTF_8);
+		
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(request -> {
+				MockClientHttpResponse response = new MockClientHttpResponse(new SequenceInputStream(new ByteArrayInputStream(partialBody), 
+						new InputStream() {
+							@Override
+							public int read() throws IOException {
+								throw new SocketException("mock connection reset");
+							}
+						}), HttpStatus.OK);
+				response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+				return response;
+			});
+		mockServer.expect(once(), requestTo(MOCK_URL))
+			.andRespond(withSuccess(getResponseMock(), MediaType.APPLICATION_JSON));
+		
+		assertEquals("mock_token_retorno", ((ResponseSchemaMock) tokenGenerationDataProvider.createToken(tokenGenerationSchema)).getToken());
+		assertEquals(1, tokenRetryPolicy.getRetries());
+		verify(tokenCircuitBreaker).onFailure(eq(tokenGenerationSchema), any(ResourceAccessException.class));
+		verify(tokenGenerationMetrics, never()).recordDeserializationFailure(tokenGenerationSchema);
+		mockServer.verify();
+	}
+	
+	/**
+	 * Asserts the given future completes exceptionally with the given exception.
+	 * 
+	 * @param expectedType - expected exception type.
+	 * @param future       - future to be verified.
+	 */
+	private void assertAsyncThrows(Class<? extends Throwable> expectedType, CompletableFuture<?> future) {
+		ExecutionException exception = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertTrue(expectedType.isInstance(exception.getCause()), exception.getCause().toString());
+	}
+	
+	/**
+	 * Executes the given task from several threads released at the same time.
+	 * 
+	 * @param threads - number of concurrent callers.
+	 * @param task    - task executed by each caller.
+	 * 
+	 * @return {@code List} - futures of the executions.
+	 * @throws InterruptedException
+	 */
+	private <T> List<Future<T>> callConcurrently(int threads, Callable<T> task) throws InterruptedException {
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		CountDownLatch readySignal = new CountDownLatch(threads);
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Future<T>> futures = new ArrayList<>();
+		
+		try {
+			for(int i = 0; i < threads; i++) {
+				futures.add(executorService.submit(() -> {
+					readySignal.countDown();
+					startSignal.await();
+					return task.call();
+				}));
+			}
+			
+			readySignal.await();
+			startSignal.countDown();
+		}
+		finally {
+			executorService.shutdown();
+			executorService.awaitTermination(30, TimeUnit.SECONDS);
+		}
+		
+		return futures;
+	}
+	
+	/**
+	 * Simulates the latency of the token generation call.
+	 * 
+	 * @param millis - latency in millis.
+	 */
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 	
 	/**
@@ -360,4 +1141,44 @@ public class TokenGenerationDataProviderTest {
 	private String getResponseMock() {
 		return "{\"token\": \"mock_token_retorno\"}";
 	}
+	
+	/**
+	 * Header schema declaring a vendor content type for the request body.
+	 */
+	public static class ContentTypeHeaderMock implements HeaderModelRequest {
+		
+		private static final String CONTENT_TYPE = "application/vnd.mock.token+json";
+		
+		/**
+		 * @return Content-Type header.
+		 */
+		@JsonProperty(HttpHeaders.CONTENT_TYPE)
+		public String getContentType() {
+			return CONTENT_TYPE;
+		}
+	}
+	
+	/**
+	 * Request body counting how many times it is serialized.
+	 */
+	public static class CountingTokenModelRequest implements TokenModelRequest {
+		
+		private final AtomicInteger serializations = new AtomicInteger();
+		
+		/**
+		 * @return login field.
+		 */
+		public String getLogin() {
+			serializations.incrementAndGet();
+			return "mock-login";
+		}
+		
+		/**
+		 * @return number of serializations.
+		 */
+		@JsonIgnore
+		public int getSerializations() {
+			return serializations.get();
+		}
+	}
 }
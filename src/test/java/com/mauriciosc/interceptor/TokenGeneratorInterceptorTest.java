@@ -1,30 +1,52 @@
 package com.mauriciosc.interceptor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.then;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.BDDMockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.HandlerMapping;
 
 import com.mauriciosc.configuration.TokenGenerationTestConfig;
+import com.mauriciosc.core.annotation.RequiresToken;
+import com.mauriciosc.core.cache.TokenCache;
+import com.mauriciosc.core.model.request.HeaderModelRequestMock;
+import com.mauriciosc.core.model.request.TokenModelRequestMock;
+import com.mauriciosc.core.model.response.DeferredResponse;
 import com.mauriciosc.core.model.response.TokenModelResponse;
 import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.metrics.TokenGenerationMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 
 /**
@@ -45,24 +67,58 @@ public class TokenGeneratorInterceptorTest {
 	@Autowired
 	private TokenModelResponse tokenModelResponse;
 		
-	@MockBean
+	@Autowired
 	private RestTemplate restTemplate;
 	
+	@Autowired
+	private TokenCache tokenCache;
+	
+	@Autowired
+	private TokenGenerationSchema tokenGenerationSchema;
+	
+	@Autowired
+	@Qualifier("secondaryTokenGenerationSchema")
+	private TokenGenerationSchema secondaryTokenGenerationSchema;
+	
+	@Autowired
+	@Qualifier("requestMappingHandlerMapping")
+	private HandlerMapping handlerMapping;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	private MockRestServiceServer mockServer;
+	
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		mockServer = MockRestServiceServer.bindTo(restTemplate).build();
+		tokenCache.invalidate(tokenGenerationSchema);
+		tokenCache.invalidate(secondaryTokenGenerationSchema);
+	}
+	
+	/**
+	 * Restores the eager mode and clears the request context.
+	 */
+	@AfterEach
+	public void tearDown() {
+		ReflectionTestUtils.setField(tokenGeneratorInterceptor, "lazyEnabled", false);
+		ReflectionTestUtils.setField(tokenGeneratorInterceptor, "annotationEnabled", false);
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
 	/**
 	 * Tests the component (application) process to generate a token dynamically.
 	 * 
 	 * @throws Exception
 	 */
-	@SuppressWarnings("unchecked")
 	@Test
 	public void testPreHandle() throws Exception {
-		given(
-			restTemplate.exchange(
-				BDDMockito.eq("http://localhost:8080/api/token"),
-				BDDMockito.eq(HttpMethod.POST), 
-				BDDMockito.any(HttpEntity.class), 
-				BDDMockito.any(ParameterizedTypeReference.class)))
-		.willReturn(this.getMockTokenGenerationResponse());
+		mockServer.expect(once(), requestTo("http://localhost:8080/api/token"))
+			.andExpect(method(HttpMethod.POST))
+			.andRespond(withSuccess(this.getMockTokenGenerationResponse(), MediaType.APPLICATION_JSON));
 		
 		tokenGeneratorInterceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
 
@@ -70,21 +126,189 @@ public class TokenGeneratorInterceptorTest {
 		
 		assertEquals("mock_token", responseSchema.getToken());
 		
-		then(restTemplate)
-			.should()
-			.exchange(BDDMockito.eq("http://localhost:8080/api/token"),
-					BDDMockito.eq(HttpMethod.POST), 
-					BDDMockito.any(HttpEntity.class), 
-					BDDMockito.any(ParameterizedTypeReference.class));
+		// validating the interception and the call are measured
+		assertTrue(meterRegistry.get(TokenGenerationMetrics.INTERCEPTOR).tag("mode", "eager").timer().count() > 0);
+		assertTrue(meterRegistry.get(TokenGenerationMetrics.CALLS).tag("outcome", "success").timer().count() > 0);
+		
+		mockServer.verify();
 	}
 
 	/**
-	 * Returns a {@link ResponseEntity} of success with a mock token.
+	 * Tests that in lazy mode the token is not generated for requests that never
+	 * read it, and that those requests are counted.
 	 * 
-	 * @return {@code ResponseEntity} - response entity
+	 * @throws Exception
 	 */
-	private ResponseEntity<String> getMockTokenGenerationResponse() {
-		return new ResponseEntity<String>("{\"token\":\"mock_token\"}", HttpStatus.OK);
+	@Test
+	public void testPreHandleLazyUnresolved() throws Exception {
+		ReflectionTestUtils.setField(tokenGeneratorInterceptor, "lazyEnabled", true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		long unresolvedRequests = tokenGeneratorInterceptor.getUnresolvedRequests();
+		
+		tokenGeneratorInterceptor.preHandle(request, new MockHttpServletResponse(), null);
+		tokenGeneratorInterceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+		
+		// validating a deferred handle was bound and never resolved
+		assertFalse(((DeferredResponse) request.getAttribute(TokenModelResponse.RESPONSE_ATTRIBUTE)).isResolved());
+		assertEquals(unresolvedRequests + 1, tokenGeneratorInterceptor.getUnresolvedRequests());
+		
+		// validating no url call
+		mockServer.verify();
+	}
+	
+	/**
+	 * Tests that in lazy mode the token is generated once, the first time the
+	 * request reads it.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPreHandleLazyResolved() throws Exception {
+		ReflectionTestUtils.setField(tokenGeneratorInterceptor, "lazyEnabled", true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		long unresolvedRequests = tokenGeneratorInterceptor.getUnresolvedRequests();
+		
+		mockServer.expect(once(), requestTo("http://localhost:8080/api/token"))
+			.andExpect(method(HttpMethod.POST))
+			.andRespond(withSuccess(this.getMockTokenGenerationResponse(), MediaType.APPLICATION_JSON));
+		
+		tokenGeneratorInterceptor.preHandle(request, new MockHttpServletResponse(), null);
+		
+		ResponseSchemaMock responseSchema = (ResponseSchemaMock) tokenModelResponse.getTokenModelResponse();
+		
+		// validating the token is generated on the first read only
+		assertEquals("mock_token", responseSchema.getToken());
+		assertEquals(responseSchema, tokenModelResponse.getTokenModelResponse());
+		assertTrue(((DeferredResponse) request.getAttribute(TokenModelResponse.RESPONSE_ATTRIBUTE)).isResolved());
+		
+		tokenGeneratorInterceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+		
+		// validating the request is not counted as unresolved
+		assertEquals(unresolvedRequests, tokenGeneratorInterceptor.getUnresolvedRequests());
+		mockServer.verify();
 	}
 
+	/**
+	 * Tests that in annotation mode tokens are only generated for annotated
+	 * handlers, with the schema named by the annotation.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testPreHandleAnnotated() throws Exception {
+		ReflectionTestUtils.setField(tokenGeneratorInterceptor, "annotationEnabled", true);
+		tokenGeneratorInterceptor.afterSingletonsInstantiated();
+		
+		mockServer.expect(once(), requestTo("http://localhost:8080/api/token"))
+			.andExpect(content().json("{\"campoA\": \"campoA\", \"campoB\": 2, \"campoC\": \"campoC\"}"))
+			.andRespond(withSuccess(this.getMockTokenGenerationResponse(), MediaType.APPLICATION_JSON));
+		mockServer.expect(once(), requestTo("http://localhost:8080/api/token"))
+			.andExpect(content().json("{\"campoA\": \"secondary\", \"campoB\": 3, \"campoC\": \"secondary\"}"))
+			.andRespond(withSuccess("{\"token\":\"mock_secondary_token\"}", MediaType.APPLICATION_JSON));
+		
+		MockHttpServletRequest publicRequest = this.handle("/mock/public");
+		MockHttpServletRequest classLevelRequest = this.handle("/mock/class-level");
+		MockHttpServletRequest methodLevelRequest = this.handle("/mock/method-level");
+		
+		// validating the token of each handler
+		assertNull(publicRequest.getAttribute(TokenModelResponse.RESPONSE_ATTRIBUTE));
+		assertEquals("mock_token", ((ResponseSchemaMock) classLevelRequest.getAttribute(TokenModelResponse.RESPONSE_ATTRIBUTE)).getToken());
+		assertEquals("mock_secondary_token", ((ResponseSchemaMock) methodLevelRequest.getAttribute(TokenModelResponse.RESPONSE_ATTRIBUTE)).getToken());
+		
+		// validating only the token of the default schema is read outside of a request
+		assertEquals("mock_token", ((ResponseSchemaMock) tokenModelResponse.getTokenModelResponse()).getToken());
+		
+		mockServer.verify();
+	}
+	
+	/**
+	 * Runs the interceptor for the handler mapped to the given path.
+	 * 
+	 * @param path - request path.
+	 * 
+	 * @return {@code MockHttpServletRequest} - handled request.
+	 * @throws Exception
+	 */
+	private MockHttpServletRequest handle(String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		
+		tokenGeneratorInterceptor.preHandle(request, new MockHttpServletResponse(), handlerMapping.getHandler(request).getHandler());
+		
+		return request;
+	}
+
+	/**
+	 * Returns the body of a successful token generation response.
+	 * 
+	 * @return {@code String} - response body
+	 */
+	private String getMockTokenGenerationResponse() {
+		return "{\"token\":\"mock_token\"}";
+	}
+
+	/**
+	 * Declares the handlers and the secondary schema of the annotation mode tests.
+	 */
+	@TestConfiguration
+	public static class RequiresTokenTestConfig {
+		
+		/**
+		 * @return {@code TokenGenerationSchema} - secondary schema bean.
+		 */
+		@Bean
+		public TokenGenerationSchema secondaryTokenGenerationSchema() {
+			return new TokenGenerationSchema(
+					new HeaderModelRequestMock("headerA", 1), 
+					new TokenModelRequestMock("secondary", 3, "secondary"), 
+					ResponseSchemaMock.class);
+		}
+		
+		/**
+		 * @return {@code ClassLevelControllerMock} - controller bean.
+		 */
+		@Bean
+		public ClassLevelControllerMock classLevelControllerMock() {
+			return new ClassLevelControllerMock();
+		}
+		
+		/**
+		 * @return {@code MethodLevelControllerMock} - controller bean.
+		 */
+		@Bean
+		public MethodLevelControllerMock methodLevelControllerMock() {
+			return new MethodLevelControllerMock();
+		}
+	}
+	
+	/**
+	 * Controller requiring the default schema on every method.
+	 */
+	@RestController
+	@RequiresToken
+	public static class ClassLevelControllerMock {
+		
+		@GetMapping("/mock/class-level")
+		public String classLevel() {
+			return "class-level";
+		}
+	}
+	
+	/**
+	 * Controller requiring a named schema on a single method.
+	 */
+	@RestController
+	public static class MethodLevelControllerMock {
+		
+		@GetMapping("/mock/public")
+		public String publicEndpoint() {
+			return "public";
+		}
+		
+		@RequiresToken("secondaryTokenGenerationSchema")
+		@GetMapping("/mock/method-level")
+		public String methodLevel() {
+			return "method-level";
+		}
+	}
 }
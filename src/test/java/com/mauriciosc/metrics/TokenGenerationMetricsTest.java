@@ -0,0 +1,153 @@
+package com.mauriciosc.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.mauriciosc.core.resilience.TokenBulkhead;
+import com.mauriciosc.core.resilience.TokenCircuitBreaker;
+import com.mauriciosc.core.resilience.TokenRetryPolicy;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Suite of tests for the class {@link TokenGenerationMetrics}.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-24
+ *
+ */
+public class TokenGenerationMetricsTest {
+
+	private TokenGenerationMetrics tokenGenerationMetrics;
+	private MeterRegistry meterRegistry;
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		tokenGenerationMetrics = new TokenGenerationMetrics();
+		meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "enabled", true);
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "tokenBulkhead", new TokenBulkhead());
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "tokenCircuitBreaker", new TokenCircuitBreaker());
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "tokenRetryPolicy", new TokenRetryPolicy());
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "tokenGenerationDataProvider", mock(ObjectProvider.class));
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "tokenGeneratorInterceptor", mock(ObjectProvider.class));
+	}
+
+	/**
+	 * Tests that calls are timed and counted per schema and outcome.
+	 */
+	@Test
+	public void testCalls() {
+		tokenGenerationMetrics.bindTo(meterRegistry);
+
+		long start = tokenGenerationMetrics.startCall(tokenGenerationSchema);
+
+		// validating the in-flight gauge
+		assertEquals(1.0, meterRegistry.get(TokenGenerationMetrics.CALLS_IN_FLIGHT).tag("schema", "ResponseSchemaMock").gauge().value());
+
+		tokenGenerationMetrics.endCall(tokenGenerationSchema, start, null);
+		tokenGenerationMetrics.endCall(tokenGenerationSchema, tokenGenerationMetrics.startCall(tokenGenerationSchema),
+				new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+		// validating the timers of each outcome
+		assertEquals(0.0, meterRegistry.get(TokenGenerationMetrics.CALLS_IN_FLIGHT).gauge().value());
+		assertEquals(1, meterRegistry.get(TokenGenerationMetrics.CALLS).tags("schema", "ResponseSchemaMock", "outcome", "success").timer().count());
+		assertEquals(1, meterRegistry.get(TokenGenerationMetrics.CALLS).tags("schema", "ResponseSchemaMock", "outcome", "server_error").timer().count());
+
+		// validating the circuit state gauges
+		assertEquals(1.0, meterRegistry.get(TokenGenerationMetrics.CIRCUIT_STATE).tag("state", "closed").gauge().value());
+		assertEquals(0.0, meterRegistry.get(TokenGenerationMetrics.CIRCUIT_STATE).tag("state", "open").gauge().value());
+	}
+
+	/**
+	 * Tests that cache reads, refreshes, mapping failures and interceptions are
+	 * recorded.
+	 */
+	@Test
+	public void testEvents() {
+		tokenGenerationMetrics.bindTo(meterRegistry);
+
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_MISS);
+		tokenGenerationMetrics.recordRefresh(tokenGenerationSchema, null);
+		tokenGenerationMetrics.recordDeserializationFailure(tokenGenerationSchema);
+		tokenGenerationMetrics.recordInterception(tokenGenerationSchema, true, System.nanoTime());
+
+		assertEquals(2.0, meterRegistry.get(TokenGenerationMetrics.CACHE_ACCESSES).tag("result", "hit").counter().count());
+		assertEquals(1.0, meterRegistry.get(TokenGenerationMetrics.CACHE_ACCESSES).tag("result", "miss").counter().count());
+		assertEquals(1.0, meterRegistry.get(TokenGenerationMetrics.REFRESHES).tag("outcome", "success").counter().count());
+		assertEquals(1.0, meterRegistry.get(TokenGenerationMetrics.DESERIALIZATION_FAILURES).counter().count());
+		assertEquals(1, meterRegistry.get(TokenGenerationMetrics.INTERCEPTOR).tag("mode", "lazy").timer().count());
+		assertEquals(0.0, meterRegistry.get(TokenGenerationMetrics.BULKHEAD_REJECTED_CALLS).functionCounter().count());
+	}
+
+	/**
+	 * Tests that nothing is recorded while no registry is bound or when the
+	 * metrics are disabled.
+	 */
+	@Test
+	public void testUnbound() {
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+		tokenGenerationMetrics.endCall(tokenGenerationSchema, tokenGenerationMetrics.startCall(tokenGenerationSchema), null);
+
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "enabled", false);
+		tokenGenerationMetrics.bindTo(meterRegistry);
+		tokenGenerationMetrics.recordCacheAccess(tokenGenerationSchema, TokenGenerationMetrics.CACHE_HIT);
+
+		assertNull(meterRegistry.find(TokenGenerationMetrics.CACHE_ACCESSES).counter());
+		assertEquals(0, meterRegistry.getMeters().size());
+	}
+
+	/**
+	 * Tests that bean schemas are named after their bean, resolved once, and that
+	 * schemas that are not beans never share the name (and the meters) of another
+	 * schema.
+	 */
+	@Test
+	public void testSchemaNames() {
+		ApplicationContext applicationContext = mock(ApplicationContext.class);
+		TokenGenerationSchema otherSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		TokenGenerationSchema beanSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+		when(applicationContext.getBeansOfType(TokenGenerationSchema.class)).thenReturn(Collections.singletonMap("billingSchema", beanSchema));
+		ReflectionTestUtils.setField(tokenGenerationMetrics, "applicationContext", applicationContext);
+
+		tokenGenerationMetrics.afterSingletonsInstantiated();
+		tokenGenerationMetrics.bindTo(meterRegistry);
+		tokenGenerationMetrics.startCall(tokenGenerationSchema);
+
+		// validating the names of each schema
+		assertEquals("billingSchema", tokenGenerationMetrics.getSchemaName(beanSchema));
+		assertEquals("billingSchema", tokenGenerationMetrics.getSchemaName(beanSchema));
+		assertEquals("ResponseSchemaMock", tokenGenerationMetrics.getSchemaName(tokenGenerationSchema));
+		assertEquals("ResponseSchemaMock-2", tokenGenerationMetrics.getSchemaName(otherSchema));
+		verify(applicationContext, times(1)).getBeansOfType(TokenGenerationSchema.class);
+
+		// validating the in-flight gauge of each schema
+		tokenGenerationMetrics.startCall(otherSchema);
+		tokenGenerationMetrics.startCall(otherSchema);
+		assertEquals(1.0, meterRegistry.get(TokenGenerationMetrics.CALLS_IN_FLIGHT).tag("schema", "ResponseSchemaMock").gauge().value());
+		assertEquals(2.0, meterRegistry.get(TokenGenerationMetrics.CALLS_IN_FLIGHT).tag("schema", "ResponseSchemaMock-2").gauge().value());
+	}
+}
@@ -0,0 +1,138 @@
+package com.mauriciosc.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mauriciosc.core.cache.CachedToken;
+import com.mauriciosc.core.cache.TokenCache;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+
+/**
+ * Suite of tests for the class {@link TokenRefreshScheduler}.
+ * 
+ * @author Mauricio Souza Couto
+ * @since 2020-08-05
+ *
+ */
+public class TokenRefreshSchedulerTest {
+
+	@InjectMocks
+	private TokenRefreshScheduler tokenRefreshScheduler;
+
+	@Mock
+	private TokenGenerationDataProvider tokenGenerationDataProvider;
+
+	@Mock
+	private TokenCache tokenCache;
+
+	@Mock
+	private TokenProviderRegistry tokenProviderRegistry;
+
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	private TokenGenerationSchema uncachedTokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+		Map<String, TokenProvider> tokenProviders = new HashMap<>();
+		tokenProviders.put("cached", new TokenProvider("cached", tokenGenerationSchema, null, null, TokenProvider.NO_TIMEOUT, true, 0L, false));
+		tokenProviders.put("uncached", new TokenProvider("uncached", uncachedTokenGenerationSchema, null, null, TokenProvider.NO_TIMEOUT, false, 0L, false));
+		when(tokenProviderRegistry.getProviders()).thenReturn(tokenProviders);
+		ReflectionTestUtils.setField(tokenRefreshScheduler, "refreshEnabled", true);
+		ReflectionTestUtils.setField(tokenRefreshScheduler, "refreshFraction", 0.75D);
+		ReflectionTestUtils.setField(tokenRefreshScheduler, "retryDelaySeconds", 5L);
+	}
+
+	/**
+	 * Stops the scheduler started by the tests.
+	 */
+	@AfterEach
+	public void tearDown() {
+		tokenRefreshScheduler.stop();
+	}
+
+	/**
+	 * Tests the refresh instant computed without jitter.
+	 */
+	@Test
+	public void testNextRefreshAt() {
+		CachedToken cachedToken = new CachedToken(new ResponseSchemaMock(), 1_000L, 101_000L);
+
+		assertEquals(76_000L, tokenRefreshScheduler.nextRefreshAt(cachedToken));
+	}
+
+	/**
+	 * Tests the refresh instant computed with jitter stays inside the jitter window.
+	 */
+	@Test
+	public void testNextRefreshAtJitter() {
+		ReflectionTestUtils.setField(tokenRefreshScheduler, "refreshJitter", 0.1D);
+		CachedToken cachedToken = new CachedToken(new ResponseSchemaMock(), 1_000L, 101_000L);
+
+		for (int i = 0; i < 100; i++) {
+			long refreshAt = tokenRefreshScheduler.nextRefreshAt(cachedToken);
+			assertTrue(refreshAt >= 66_000L && refreshAt <= 86_000L);
+		}
+	}
+
+	/**
+	 * Tests the schemas of the providers with the cache enabled are refreshed
+	 * once the scheduler starts, and the other ones never.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testStartRefreshesSchemas() throws Exception {
+		long now = System.currentTimeMillis();
+		when(tokenGenerationDataProvider.refreshToken(eq(tokenGenerationSchema), anyLong()))
+			.thenReturn(new CachedToken(new ResponseSchemaMock(), now, now + 3_600_000L));
+
+		tokenRefreshScheduler.start();
+
+		verify(tokenGenerationDataProvider, timeout(5_000L)).refreshToken(eq(tokenGenerationSchema), anyLong());
+		verify(tokenGenerationDataProvider, never()).refreshToken(eq(uncachedTokenGenerationSchema), anyLong());
+	}
+
+	/**
+	 * Tests a schema already holding a valid token at startup is only refreshed
+	 * according to that token.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testStartKeepsValidToken() throws Exception {
+		long now = System.currentTimeMillis();
+		when(tokenCache.get(eq(tokenGenerationSchema), anyLong()))
+			.thenReturn(new CachedToken(new ResponseSchemaMock(), now, now + 3_600_000L));
+
+		tokenRefreshScheduler.start();
+
+		verify(tokenGenerationDataProvider, after(500L).never()).refreshToken(eq(tokenGenerationSchema), anyLong());
+	}
+}
@@ -0,0 +1,118 @@
+package com.mauriciosc.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mauriciosc.core.exception.TokenCircuitOpenException;
+import com.mauriciosc.core.mapper.TokenGenerationObjectMapper;
+import com.mauriciosc.core.schema.ResponseSchemaMock;
+import com.mauriciosc.core.schema.TokenGenerationSchema;
+import com.mauriciosc.core.schema.TokenProvider;
+import com.mauriciosc.core.schema.TokenProviderRegistry;
+import com.mauriciosc.dataprovider.TokenGenerationDataProvider;
+import com.mauriciosc.metrics.TokenWarmUpHealthIndicator;
+
+/**
+ * Suite of tests for the classes {@link TokenWarmUp} and
+ * {@link TokenWarmUpHealthIndicator}.
+ *
+ * @author Mauricio Souza Couto
+ * @since 2020-08-30
+ *
+ */
+public class TokenWarmUpTest {
+
+	@InjectMocks
+	private TokenWarmUp tokenWarmUp;
+
+	@Mock
+	private TokenGenerationDataProvider tokenGenerationDataProvider;
+
+	@Mock
+	private TokenProviderRegistry tokenProviderRegistry;
+
+	@Spy
+	private TokenGenerationObjectMapper tokenGenerationObjectMapper;
+
+	private TokenWarmUpHealthIndicator tokenWarmUpHealthIndicator = new TokenWarmUpHealthIndicator();
+
+	private TokenGenerationSchema tokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+	private TokenGenerationSchema uncachedTokenGenerationSchema = new TokenGenerationSchema(null, null, ResponseSchemaMock.class);
+
+	/**
+	 * Init method of the test suite.
+	 */
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.initMocks(this);
+		Map<String, TokenProvider> tokenProviders = new LinkedHashMap<>();
+		tokenProviders.put("cached", new TokenProvider("cached", tokenGenerationSchema, null, null, TokenProvider.NO_TIMEOUT, true, 0L, false));
+		tokenProviders.put("uncached", new TokenProvider("uncached", uncachedTokenGenerationSchema, null, null, TokenProvider.NO_TIMEOUT, false, 0L, false));
+		when(tokenProviderRegistry.getProviders()).thenReturn(tokenProviders);
+		ReflectionTestUtils.setField(tokenWarmUp, "warmUpEnabled", true);
+		ReflectionTestUtils.setField(tokenWarmUp, "timeoutSeconds", 30L);
+		ReflectionTestUtils.setField(tokenWarmUpHealthIndicator, "tokenWarmUp", tokenWarmUp);
+	}
+
+	/**
+	 * Tests the health is down until the token of every cached schema is
+	 * generated, retrying the failed ones, and that the schemas without cache
+	 * only have their response mapping prepared.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testWarmUp() throws Exception {
+		when(tokenGenerationDataProvider.createToken(tokenGenerationSchema))
+			.thenThrow(new TokenCircuitOpenException("circuit open"))
+			.thenReturn(new ResponseSchemaMock());
+
+		assertEquals(Status.DOWN, tokenWarmUpHealthIndicator.health().getStatus());
+
+		ReflectionTestUtils.setField(tokenWarmUp, "state", TokenWarmUp.State.WARMING_UP);
+		tokenWarmUp.warmUp();
+
+		verify(tokenGenerationDataProvider, times(2)).createToken(tokenGenerationSchema);
+		verify(tokenGenerationDataProvider, never()).createToken(uncachedTokenGenerationSchema);
+		verify(tokenGenerationObjectMapper, times(2)).getReader(ResponseSchemaMock.class);
+		assertEquals(TokenWarmUp.State.WARMED_UP, tokenWarmUp.getState());
+		assertEquals(Status.UP, tokenWarmUpHealthIndicator.health().getStatus());
+	}
+
+	/**
+	 * Tests the health is up once the timeout elapses even though the tokens were
+	 * not generated, and while the warm-up is disabled.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testWarmUpTimeout() throws Exception {
+		ReflectionTestUtils.setField(tokenWarmUp, "timeoutSeconds", 0L);
+		when(tokenGenerationDataProvider.createToken(tokenGenerationSchema)).thenThrow(new TokenCircuitOpenException("circuit open"));
+
+		tokenWarmUp.start();
+		tokenWarmUp.stop();
+
+		assertEquals(TokenWarmUp.State.TIMED_OUT, tokenWarmUp.getState());
+		assertEquals(Status.UP, tokenWarmUpHealthIndicator.health().getStatus());
+
+		ReflectionTestUtils.setField(tokenWarmUp, "warmUpEnabled", false);
+		assertEquals(TokenWarmUp.State.DISABLED, tokenWarmUp.getState());
+		assertEquals(Status.UP, tokenWarmUpHealthIndicator.health().getStatus());
+	}
+}